@@ -86,6 +86,28 @@ INSERT INTO `customers` (`id`, `customer_id`, `customer_name`, `contact`, `addre
 
 -- --------------------------------------------------------
 
+--
+-- Table structure for table `id_sequences`
+--
+
+CREATE TABLE `id_sequences` (
+  `name` varchar(40) NOT NULL,
+  `next_value` bigint(20) NOT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+--
+-- Dumping data for table `id_sequences`
+--
+
+INSERT INTO `id_sequences` (`name`, `next_value`) VALUES
+('BRG', 1000),
+('CAT', 1000),
+('PLG', 1000),
+('PMS', 1000),
+('RET', 1000);
+
+-- --------------------------------------------------------
+
 --
 -- Table structure for table `purchasing`
 --
@@ -195,7 +217,8 @@ CREATE TABLE `stocks` (
   `category_id` bigint(20) UNSIGNED NOT NULL,
   `quantity` int(11) NOT NULL,
   `purchase_price` decimal(10,2) NOT NULL,
-  `selling_price` decimal(10,2) NOT NULL
+  `selling_price` decimal(10,2) NOT NULL,
+  `version` bigint(20) NOT NULL DEFAULT 0
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
 
 --
@@ -287,6 +310,12 @@ ALTER TABLE `customers`
   ADD PRIMARY KEY (`id`),
   ADD UNIQUE KEY `customer_id` (`customer_id`);
 
+--
+-- Indexes for table `id_sequences`
+--
+ALTER TABLE `id_sequences`
+  ADD PRIMARY KEY (`name`);
+
 --
 -- Indexes for table `purchasing`
 --
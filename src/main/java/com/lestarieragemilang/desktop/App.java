@@ -3,8 +3,16 @@ package com.lestarieragemilang.desktop;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableSet;
+import com.lestarieragemilang.desktop.repository.WriteJournal;
+import com.lestarieragemilang.desktop.service.ChangeFeed;
+import com.lestarieragemilang.desktop.service.OfflineSyncService;
+import com.lestarieragemilang.desktop.service.StockService;
+import com.lestarieragemilang.desktop.service.UserService;
+import com.lestarieragemilang.desktop.utils.DatabaseHealthMonitor;
+import com.lestarieragemilang.desktop.utils.JasperLoader;
 import com.lestarieragemilang.desktop.utils.SceneManager;
 import com.lestarieragemilang.desktop.utils.ShowAlert;
+import com.lestarieragemilang.desktop.utils.StartupTimer;
 import com.lestarieragemilang.desktop.utils.ThemeManager;
 import com.lestarieragemilang.desktop.utils.HibernateUtil;
 import javafx.application.Application;
@@ -15,6 +23,8 @@ import javafx.stage.Stage;
 import javafx.stage.StageStyle;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import animatefx.animation.FadeIn;
@@ -44,6 +54,15 @@ public class App extends Application {
     /** Flag to enable/disable JMetro theming */
     private static final boolean USE_JMETRO = true;
 
+    /**
+     * System property that runs the scripted startup used to train the AppCDS
+     * archive of the runtime image: login, layout and stock screen, then exit.
+     */
+    private static final String TRAINING_PROPERTY = "lestari.training";
+
+    /** Time given to the data loads of the training screens before exiting */
+    private static final long TRAINING_SETTLE_SECONDS = 3;
+
     /** Set of scene identifiers that are related to reporting functionality */
     private static final ImmutableSet<String> REPORT_SCENES = ImmutableSet.of(
             SceneManager.REPORT_STOCK,
@@ -69,16 +88,22 @@ public class App extends Application {
     }
 
     /**
-     * Initializes core application components including scene manager, database
-     * check,
-     * and primary window setup.
+     * Initializes core application components and shows the login window
+     * right away. The SessionFactory, the JasperReports templates and the
+     * common scenes are prepared concurrently in the background; code that
+     * needs the database waits for {@link HibernateUtil#bootstrapAsync()}.
+     * A per-stage timing report is logged once everything has finished.
      * 
      * @param stage The primary stage to initialize
      * @throws IOException If scene loading fails
      */
     private void initializeApplication(Stage stage) throws IOException {
+        StartupTimer timer = new StartupTimer();
+        CompletableFuture<Boolean> database = timer.track("database", HibernateUtil.bootstrapAsync());
+        CompletableFuture<Void> reports = timer.track("reports", JasperLoader.warmUpAsync());
+
+        timer.begin("window");
         sceneManager = Preconditions.checkNotNull(new SceneManager(), "Scene manager cannot be null");
-        checkDatabase();
 
         var root = sceneManager.getScene(INITIAL_SCENE);
         scene = new Scene(root, WIDTH, HEIGHT);
@@ -93,20 +118,135 @@ public class App extends Application {
 
         new FadeIn(root).play();
         stage.show();
+        timer.end("window");
+
+        CompletableFuture<Void> scenes = timer.track("scenes", sceneManager.preloadAsync());
+
+        database.thenAcceptAsync(available -> {
+            checkDatabase(available);
+            startDatabaseMonitor();
+        }, Platform::runLater);
+
+        CompletableFuture.allOf(database, reports, scenes)
+                .whenComplete((_, _) -> timer.log());
+
+        if (Boolean.getBoolean(TRAINING_PROPERTY)) {
+            runTraining(database);
+        }
     }
 
     /**
-     * Verifies database connectivity and shows warning if database is unavailable.
+     * Walks through login, layout and the stock screen without user input,
+     * then exits, so a JVM started with -XX:ArchiveClassesAtExit records the
+     * classes of a typical session. Used by the runtime-image Maven profile.
+     *
+     * <p>If {@value #TRAINING_PROPERTY}.user and .password are set, the run
+     * also logs in with them and reads the stock list, and exits with status
+     * 1 if either fails. The native-image smoke test relies on this.
+     *
+     * @param database The database bootstrap
+     */
+    private void runTraining(CompletableFuture<Boolean> database) {
+        log.info("Training run: login -> layout -> stokbesi");
+        String user = System.getProperty(TRAINING_PROPERTY + ".user");
+        String password = System.getProperty(TRAINING_PROPERTY + ".password", "");
+
+        CompletableFuture<Boolean> login = database.thenApply(available -> {
+            if (user != null) {
+                Preconditions.checkState(available, "Database tidak tersedia");
+                Preconditions.checkState(new UserService().authenticate(user, password) != null,
+                        "Login failed for %s", user);
+            }
+            return available;
+        });
+        login.thenCompose(_ -> sceneManager.getSceneAsync(SceneManager.LAYOUT))
+                .thenCompose(_ -> sceneManager.getSceneAsync(SceneManager.STOK_BESI))
+                .thenRunAsync(() -> setRoot(SceneManager.LAYOUT), Platform::runLater)
+                .thenApplyAsync(_ -> user == null ? -1 : new StockService().findAll().size(),
+                        CompletableFuture.delayedExecutor(TRAINING_SETTLE_SECONDS, TimeUnit.SECONDS))
+                .whenComplete((stocks, e) -> {
+                    if (e != null) {
+                        log.error("Training run failed", e);
+                    } else if (stocks >= 0) {
+                        log.info("Training run finished: logged in as {}, {} stocks loaded", user, stocks);
+                    } else {
+                        log.info("Training run finished");
+                    }
+                    HibernateUtil.shutdown();
+                    System.exit(e == null ? 0 : 1);
+                });
+    }
+
+    /**
+     * Shows a warning if the database is unavailable.
      * Limited functionality will be available without database access.
+     *
+     * @param available The outcome of the database bootstrap
      */
-    private void checkDatabase() {
-        if (!HibernateUtil.isDatabaseAvailable()) {
+    private void checkDatabase(boolean available) {
+        if (!available) {
             ShowAlert.showWarning(
                     "Database tidak tersedia. Aplikasi akan berjalan dengan fitur terbatas tanpa akses database.\n" +
                             "Pastikan XAMPP sudah berjalan untuk fungsionalitas penuh.");
         }
     }
 
+    /**
+     * Starts the background database health monitor and tells the user when
+     * the connection is lost or restored. Also starts following the changes
+     * made on other terminals.
+     */
+    private void startDatabaseMonitor() {
+        DatabaseHealthMonitor monitor = DatabaseHealthMonitor.getInstance();
+        monitor.addListener(state -> {
+            switch (state) {
+                case OPEN -> Platform.runLater(() -> ShowAlert.showWarning(
+                        "Koneksi database terputus. Aplikasi akan mencoba menyambung kembali secara otomatis."));
+                case CLOSED -> {
+                    Platform.runLater(() -> ShowAlert.showInfo("Koneksi database tersambung kembali."));
+                    replayOfflineWrites();
+                }
+                case HALF_OPEN -> log.info("Reconnecting to database");
+            }
+        });
+        monitor.start();
+        ChangeFeed.getInstance().start();
+        replayOfflineWrites();
+    }
+
+    /**
+     * Applies writes journaled while the database was unavailable and reports
+     * the outcome, including writes that conflicted with newer data.
+     */
+    private static void replayOfflineWrites() {
+        OfflineSyncService.replayAsync()
+                .thenAcceptAsync(result -> {
+                    if (result.conflicts().isEmpty()) {
+                        if (result.applied() > 0) {
+                            ShowAlert.showInfo(result.applied() + " data offline berhasil disimpan ke database.");
+                        }
+                        return;
+                    }
+                    ShowAlert.showWarning(result.applied() + " data offline berhasil disimpan, "
+                            + result.conflicts().size() + " data bentrok dengan perubahan lain dan dilewati.\n"
+                            + "Rincian: " + WriteJournal.getInstance().getConflictFile());
+                }, Platform::runLater)
+                .exceptionally(e -> {
+                    log.error("Failed to replay offline writes", e);
+                    return null;
+                });
+    }
+
+    /**
+     * Stops the database health monitor and the change feed when the
+     * application exits.
+     */
+    @Override
+    public void stop() {
+        ChangeFeed.getInstance().stop();
+        DatabaseHealthMonitor.getInstance().stop();
+    }
+
     /**
      * Handles application errors by logging them and showing user-friendly error
      * messages.
@@ -130,7 +270,7 @@ public class App extends Application {
             invalidateReportScenes();
         }
 
-        sceneManager.getSceneAsync(fxml)
+        sceneManager.navigateAsync(SceneManager.NAV_WINDOW, fxml)
                 .thenAcceptAsync(newRoot -> {
                     if (newRoot != null) {
                         Parent currentRoot = scene.getRoot();
@@ -140,6 +280,9 @@ public class App extends Application {
                     }
                 }, Platform::runLater)
                 .exceptionally(e -> {
+                    if (SceneManager.isCancellation(e)) {
+                        return null;
+                    }
                     log.error("Failed to set root for scene: {}", fxml, e);
                     ShowAlert.showError("Failed to load page: " + fxml);
                     return null;
@@ -1,7 +1,40 @@
 package com.lestarieragemilang.desktop;
 
+import java.util.Arrays;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.lestarieragemilang.desktop.repository.SummaryDao;
+import com.lestarieragemilang.desktop.utils.HibernateUtil;
+
 public class Launcher {
+    /**
+     * Recomputes the summary tables from the detail rows and exits without
+     * opening a window, e.g. {@code lestari.sh --rebuild-summaries}.
+     */
+    public static final String REBUILD_SUMMARIES = "--rebuild-summaries";
+
     public static void main(String[] args) {
+        if (Arrays.asList(args).contains(REBUILD_SUMMARIES)) {
+            System.exit(rebuildSummaries());
+        }
         App.main(args);
     }
-}
\ No newline at end of file
+
+    private static int rebuildSummaries() {
+        Logger logger = LoggerFactory.getLogger(Launcher.class);
+        if (!HibernateUtil.isDatabaseAvailable()) {
+            logger.error("Database unavailable; summary tables not rebuilt");
+            return 1;
+        }
+        try {
+            new SummaryDao().rebuild();
+            return 0;
+        } catch (RuntimeException e) {
+            return 1;
+        } finally {
+            HibernateUtil.shutdown();
+        }
+    }
+}
@@ -1,11 +1,15 @@
 package com.lestarieragemilang.desktop.controller;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
 import com.google.common.eventbus.EventBus;
 import com.lestarieragemilang.desktop.App;
 import com.lestarieragemilang.desktop.model.User;
+import com.lestarieragemilang.desktop.service.GenericService;
 import com.lestarieragemilang.desktop.service.UserService;
 import com.lestarieragemilang.desktop.utils.ShowAlert;
 import com.lestarieragemilang.desktop.utils.ThemeManager;
@@ -26,6 +30,7 @@ import java.io.IOException;
 import java.util.Optional;
 
 public class AuthController extends Redirect {
+    private static final Logger logger = LoggerFactory.getLogger(AuthController.class);
 
     @FXML
     private AnchorPane anchorPane;
@@ -68,34 +73,39 @@ public class AuthController extends Redirect {
     }
 
     private void loadUsers() {
-        try {
-            ImmutableList<String> usernames = userService.findAll().stream()
-                    .map(User::getUsername)
-                    .collect(ImmutableList.toImmutableList());
-
-            profileListView.setItems(FXCollections.observableArrayList(usernames));
-        } catch (Exception e) {
-            ShowAlert.showDatabaseError("Gagal memuat daftar pengguna: " + e.getMessage());
-            e.printStackTrace();
-        }
+        userService.findAllAsync()
+                .thenAccept(users -> {
+                    ImmutableList<String> usernames = users.stream()
+                            .map(User::getUsername)
+                            .collect(ImmutableList.toImmutableList());
+
+                    profileListView.setItems(FXCollections.observableArrayList(usernames));
+                })
+                .exceptionally(e -> {
+                    ShowAlert.showDatabaseError("Gagal memuat daftar pengguna: " + GenericService.unwrap(e).getMessage());
+                    return null;
+                });
     }
 
     @FXML
     void loginToApp(ActionEvent event) {
         try {
             validateLoginInput();
-            Optional<User> user = authenticateUser();
-            user.ifPresentOrElse(
-                    u -> {
-                        handleSuccessfulLogin(u);
-                    },
-                    () -> ShowAlert.showError("Nama pengguna atau kata sandi tidak valid"));
         } catch (IllegalArgumentException e) {
             ShowAlert.showValidationError(e.getMessage());
-        } catch (Exception e) {
-            ShowAlert.showDatabaseError("Terjadi kesalahan saat masuk: " + e.getMessage());
-            e.printStackTrace();
+            return;
         }
+        userService.authenticateAsync(loginUsername.getText(), loginPassword.getText())
+                .thenAccept(user -> Optional.ofNullable(user).ifPresentOrElse(
+                        u -> {
+                            handleSuccessfulLogin(u);
+                        },
+                        () -> ShowAlert.showError("Nama pengguna atau kata sandi tidak valid")))
+                .exceptionally(e -> {
+                    ShowAlert.showDatabaseError("Terjadi kesalahan saat masuk: " + GenericService.unwrap(e).getMessage());
+                    logger.error("Login failed", GenericService.unwrap(e));
+                    return null;
+                });
     }
 
     private void validateLoginInput() {
@@ -104,11 +114,6 @@ public class AuthController extends Redirect {
         Preconditions.checkArgument(!Strings.isNullOrEmpty(loginPassword.getText()), "Kata sandi tidak boleh kosong");
     }
 
-    private Optional<User> authenticateUser() {
-        return Optional.ofNullable(
-                userService.authenticate(loginUsername.getText(), loginPassword.getText()));
-    }
-
     private void handleSuccessfulLogin(User user) {
         try {
             Stage currentStage = (Stage) loginView.getScene().getWindow();
@@ -123,12 +128,12 @@ public class AuthController extends Redirect {
                     currentStage.show();
                 } catch (IOException e) {
                     ShowAlert.showError("Gagal memuat tampilan utama: " + e.getMessage());
-                    e.printStackTrace();
+                    logger.error("Could not load the main layout", e);
                 }
             });
         } catch (Exception e) {
             ShowAlert.showError("Terjadi kesalahan saat memuat tampilan utama: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("Could not switch to the main layout", e);
         }
     }
 
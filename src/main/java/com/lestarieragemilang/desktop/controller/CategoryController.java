@@ -1,13 +1,17 @@
 package com.lestarieragemilang.desktop.controller;
 
 import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.collections.transformation.FilteredList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 
 import com.google.common.base.Strings;
+import com.google.common.eventbus.Subscribe;
 import com.lestarieragemilang.desktop.model.Category;
 import com.lestarieragemilang.desktop.repository.GenericDao;
+import com.lestarieragemilang.desktop.repository.ReferenceChecker;
+import com.lestarieragemilang.desktop.service.DomainEvents;
 import com.lestarieragemilang.desktop.service.GenericService;
 import com.lestarieragemilang.desktop.utils.ClearFields;
 import com.lestarieragemilang.desktop.utils.GenericEditPopup;
@@ -17,7 +21,6 @@ import com.lestarieragemilang.desktop.utils.TableUtils;
 
 import java.math.BigDecimal;
 import java.util.List;
-import java.util.Random;
 
 public class CategoryController extends HibernateUtil {
     @FXML
@@ -33,14 +36,16 @@ public class CategoryController extends HibernateUtil {
     private TableColumn<Category, BigDecimal> weightColumn;
 
     private GenericService<Category> categoryService;
+    private final ObservableList<Category> categories = FXCollections.observableArrayList();
     private FilteredList<Category> filteredCategories;
 
     public void initialize() {
-        categoryService = new GenericService<>(new GenericDao<>(Category.class), "CAT", 3);
+        categoryService = new GenericService<>(new GenericDao<>(Category.class), "CAT");
 
         initializeComboBoxes();
         setDefaultComboBoxValues(); // Add this line
         initializeCategoryTable();
+        DomainEvents.register(this);
         loadCategories();
         generateAndSetCategoryId();
 
@@ -57,7 +62,7 @@ public class CategoryController extends HibernateUtil {
     }
 
     private void initializeSearch() {
-        filteredCategories = new FilteredList<>(categoryTable.getItems(), _ -> true);
+        filteredCategories = new FilteredList<>(categories, _ -> true);
         searchField.textProperty().addListener((_, _, newValue) -> {
             filteredCategories.setPredicate(category -> {
                 if (newValue == null || newValue.isEmpty()) {
@@ -134,36 +139,33 @@ public class CategoryController extends HibernateUtil {
                 TableUtils.createColumn("Ukuran", "size"),
                 TableUtils.createColumn("Berat", "weight"),
                 TableUtils.createColumn("Satuan", "weightUnit"));
-        TableUtils.populateTable(categoryTable, columns, categoryService.findAll());
+        TableUtils.populateTable(categoryTable, columns, List.of());
     }
 
     private void loadCategories() {
-        try {
-            List<Category> categories = categoryService.findAll();
-            categoryTable.setItems(FXCollections.observableArrayList(categories));
-        } catch (Exception e) {
-            ShowAlert.showDatabaseError("Gagal memuat data kategori: " + e.getMessage());
-        }
-    }
-
-    private void generateAndSetCategoryId() {
-        String newCategoryId;
-        do {
-            newCategoryId = generateRandomCategoryId();
-        } while (categoryIdExists(newCategoryId));
-
-        categoryIdField.setText(newCategoryId);
+        categoryService.findAllAsync()
+                .thenAccept(categories::setAll)
+                .exceptionally(e -> {
+                    ShowAlert.showDatabaseError("Gagal memuat data kategori: " + GenericService.unwrap(e).getMessage());
+                    return null;
+                });
     }
 
-    private String generateRandomCategoryId() {
-        Random random = new Random();
-        int randomNumber = random.nextInt(1000);
-        return String.format("CAT-%03d", randomNumber);
+    @Subscribe
+    public void onCategoryChanged(DomainEvents.CategoryChanged event) {
+        loadCategories();
     }
 
-    private boolean categoryIdExists(String categoryId) {
-        return categoryService.findAll().stream()
-                .anyMatch(category -> category.getCategoryId().equals(categoryId));
+    private void generateAndSetCategoryId() {
+        // Cleared first, so the form cannot be saved with the previous code
+        categoryIdField.clear();
+        categoryService.generateIdAsync()
+                .thenAccept(categoryIdField::setText)
+                .exceptionally(e -> {
+                    // Offline and the reserved codes are used up
+                    ShowAlert.showWarning(GenericService.unwrap(e).getMessage());
+                    return null;
+                });
     }
 
     @FXML
@@ -174,12 +176,6 @@ public class CategoryController extends HibernateUtil {
             }
 
             String categoryId = categoryIdField.getText();
-            if (categoryIdExists(categoryId)) {
-                ShowAlert.showWarning("Kode Kategori sudah ada di database");
-                generateAndSetCategoryId();
-                return;
-            }
-
             if (!ShowAlert.showConfirmation("Konfirmasi Simpan", "Konfirmasi Simpan Data", 
                 "Apakah Anda yakin ingin menyimpan data kategori ini?")) {
                 return;
@@ -193,10 +189,15 @@ public class CategoryController extends HibernateUtil {
             category.setWeight(new BigDecimal(weightField.getText()));
             category.setWeightUnit(weightUnitComboBox.getValue());
 
-            categoryService.save(category);
-            ShowAlert.showSuccess("Data kategori berhasil ditambahkan");
-            loadCategories();
-            clearFields();
+            categoryService.saveAsync(category)
+                    .thenRun(() -> {
+                        ShowAlert.showSuccess("Data kategori berhasil ditambahkan");
+                        clearFields();
+                    })
+                    .exceptionally(e -> {
+                        ShowAlert.showError("Terjadi kesalahan: " + GenericService.unwrap(e).getMessage());
+                        return null;
+                    });
         } catch (NumberFormatException e) {
             ShowAlert.showError("Nilai berat harus berupa angka");
         } catch (Exception e) {
@@ -231,10 +232,15 @@ public class CategoryController extends HibernateUtil {
             category.setWeight(new BigDecimal(weightField.getText()));
             category.setWeightUnit(weightUnitComboBox.getValue());
 
-            categoryService.update(category);
-            ShowAlert.showSuccess("Data kategori berhasil diubah");
-            loadCategories();
-            clearFields();
+            categoryService.updateAsync(category)
+                    .thenRun(() -> {
+                        ShowAlert.showSuccess("Data kategori berhasil diubah");
+                        clearFields();
+                    })
+                    .exceptionally(e -> {
+                        ShowAlert.showError("Terjadi kesalahan: " + GenericService.unwrap(e).getMessage());
+                        return null;
+                    });
         } catch (NumberFormatException e) {
             ShowAlert.showError("Nilai berat harus berupa angka");
         } catch (Exception e) {
@@ -251,20 +257,40 @@ public class CategoryController extends HibernateUtil {
                 return;
             }
 
-            if (!ShowAlert.showConfirmation("Konfirmasi Hapus", "Konfirmasi Hapus Data", 
-                "Apakah Anda yakin ingin menghapus data kategori ini?")) {
-                return;
-            }
-
-            categoryService.delete(selectedCategory);
-            ShowAlert.showSuccess("Data kategori berhasil dihapus");
-            loadCategories();
-            clearFields();
+            categoryService.findBlockingReferencesAsync(selectedCategory)
+                    .thenAccept(references -> deleteCategory(selectedCategory, references))
+                    .exceptionally(e -> {
+                        ShowAlert.showError("Gagal memeriksa data kategori: " + GenericService.unwrap(e).getMessage());
+                        return null;
+                    });
         } catch (Exception e) {
             ShowAlert.showError("Terjadi kesalahan saat menghapus: " + e.getMessage());
         }
     }
 
+    private void deleteCategory(Category selectedCategory, List<ReferenceChecker.Reference> references) {
+        if (!references.isEmpty()) {
+            ShowAlert.showError("Kategori tidak dapat dihapus karena masih digunakan oleh data lain ("
+                    + ReferenceChecker.describe(references) + ")");
+            return;
+        }
+
+        if (!ShowAlert.showConfirmation("Konfirmasi Hapus", "Konfirmasi Hapus Data", 
+            "Apakah Anda yakin ingin menghapus data kategori ini?")) {
+            return;
+        }
+
+        categoryService.deleteAsync(selectedCategory)
+                .thenRun(() -> {
+                    ShowAlert.showSuccess("Data kategori berhasil dihapus");
+                    clearFields();
+                })
+                .exceptionally(e -> {
+                    ShowAlert.showError("Terjadi kesalahan saat menghapus: " + GenericService.unwrap(e).getMessage());
+                    return null;
+                });
+    }
+
     private boolean validateFields() {
         if (Strings.isNullOrEmpty(categoryIdField.getText())) {
             ShowAlert.showValidationError("Kode kategori tidak boleh kosong");
@@ -332,7 +358,6 @@ public class CategoryController extends HibernateUtil {
                 })
                 .afterSave(() -> {
                     ShowAlert.showSuccess("Data kategori berhasil diubah");
-                    loadCategories();
                     clearFields();
                     categoryTable.refresh(); // Add this line
                 })
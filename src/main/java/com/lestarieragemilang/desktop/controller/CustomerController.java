@@ -1,22 +1,26 @@
 package com.lestarieragemilang.desktop.controller;
 
-import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 
+import com.google.common.base.Strings;
+import com.google.common.eventbus.Subscribe;
 import com.jfoenix.controls.JFXButton;
 import com.lestarieragemilang.desktop.model.Customer;
 import com.lestarieragemilang.desktop.repository.GenericDao;
+import com.lestarieragemilang.desktop.repository.PageSort;
+import com.lestarieragemilang.desktop.repository.SearchFilter;
+import com.lestarieragemilang.desktop.repository.ReferenceChecker;
+import com.lestarieragemilang.desktop.service.DomainEvents;
 import com.lestarieragemilang.desktop.service.GenericService;
 import com.lestarieragemilang.desktop.utils.ClearFields;
 import com.lestarieragemilang.desktop.utils.GenericEditPopup;
 import com.lestarieragemilang.desktop.utils.HibernateUtil;
-import com.lestarieragemilang.desktop.utils.IdGenerator;
+import com.lestarieragemilang.desktop.utils.PagedTableLoader;
 import com.lestarieragemilang.desktop.utils.ShowAlert;
 import com.lestarieragemilang.desktop.utils.TableUtils;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class CustomerController extends HibernateUtil {
     @FXML
@@ -31,11 +35,13 @@ public class CustomerController extends HibernateUtil {
     private JFXButton editCustomerButtonText;
 
     private GenericService<Customer> customerService;
+    private PagedTableLoader<Customer> customerPages;
+    private volatile SearchFilter customerFilter;
 
     public void initialize() {
-        customerService = new GenericService<>(new GenericDao<>(Customer.class), "PLG", 3);
+        customerService = new GenericService<>(new GenericDao<>(Customer.class), "PLG");
         initializeCustomerTable();
-        loadCustomers();
+        DomainEvents.register(this);
         generateAndSetCustomerId();
 
         customerIDIncrement.setDisable(true);
@@ -48,26 +54,32 @@ public class CustomerController extends HibernateUtil {
                 TableUtils.createColumn("Kontak", "contact"),
                 TableUtils.createColumn("Alamat", "address"),
                 TableUtils.createColumn("Surel", "email"));
-        TableUtils.populateTable(customerTable, columns, customerService.findAll());
+        customerPages = new PagedTableLoader<>(customerTable,
+                (afterKey, limit) -> customerService.findPage(customerFilter, afterKey, limit, PageSort.BY_ID),
+                Customer::getId);
+        TableUtils.populateTable(customerTable, columns, customerPages);
     }
 
     private void loadCustomers() {
-        List<Customer> customers = customerService.findAll();
-        customerTable.setItems(FXCollections.observableArrayList(customers));
+        customerTable.setItems(customerPages.getItems());
+        customerPages.reload();
     }
 
-    private void generateAndSetCustomerId() {
-        String newCustomerId;
-        do {
-            newCustomerId = IdGenerator.generateRandomId("PLG", 1000);
-        } while (customerIdExists(newCustomerId));
-
-        customerIDIncrement.setText(newCustomerId);
+    @Subscribe
+    public void onCustomerChanged(DomainEvents.CustomerChanged event) {
+        loadCustomers();
     }
 
-    private boolean customerIdExists(String customerId) {
-        return customerService.findAll().stream()
-                .anyMatch(customer -> customer.getCustomerId().equals(customerId));
+    private void generateAndSetCustomerId() {
+        // Cleared first, so the form cannot be saved with the previous code
+        customerIDIncrement.clear();
+        customerService.generateIdAsync()
+                .thenAccept(customerIDIncrement::setText)
+                .exceptionally(e -> {
+                    // Offline and the reserved codes are used up
+                    ShowAlert.showWarning(GenericService.unwrap(e).getMessage());
+                    return null;
+                });
     }
 
     private boolean validateCustomerInput(String name, String contact, String address, String email) {
@@ -100,33 +112,31 @@ public class CustomerController extends HibernateUtil {
         if (!validateCustomerInput(name, contact, address, email)) {
             return;
         }
-
-        if (!ShowAlert.showYesNo("Konfirmasi Tambah", "Apakah Anda yakin ingin menambah data pelanggan ini?")) {
+        if (Strings.isNullOrEmpty(customerIDIncrement.getText())) {
+            ShowAlert.showValidationError("Kode pelanggan belum tersedia");
             return;
         }
 
-        String customerId = customerIDIncrement.getText();
-        if (customerIdExists(customerId)) {
-            ShowAlert.showWarning("ID Pelanggan sudah ada di database");
-            generateAndSetCustomerId();
+        if (!ShowAlert.showYesNo("Konfirmasi Tambah", "Apakah Anda yakin ingin menambah data pelanggan ini?")) {
             return;
         }
 
-        try {
-            Customer customer = new Customer();
-            customer.setCustomerId(customerId);
-            customer.setCustomerName(customerNameField.getText());
-            customer.setContact(customerContactField.getText());
-            customer.setAddress(customerAddressField.getText());
-            customer.setEmail(customerEmailField.getText());
-
-            customerService.save(customer);
-            ShowAlert.showSuccess("Data pelanggan berhasil ditambahkan");
-            loadCustomers();
-            resetCustomerButton();
-        } catch (Exception e) {
-            ShowAlert.showError("Gagal menambahkan data pelanggan: " + e.getMessage());
-        }
+        Customer customer = new Customer();
+        customer.setCustomerId(customerIDIncrement.getText());
+        customer.setCustomerName(customerNameField.getText());
+        customer.setContact(customerContactField.getText());
+        customer.setAddress(customerAddressField.getText());
+        customer.setEmail(customerEmailField.getText());
+
+        customerService.saveAsync(customer)
+                .thenRun(() -> {
+                    ShowAlert.showSuccess("Data pelanggan berhasil ditambahkan");
+                    resetCustomerButton();
+                })
+                .exceptionally(e -> {
+                    ShowAlert.showError("Gagal menambahkan data pelanggan: " + GenericService.unwrap(e).getMessage());
+                    return null;
+                });
     }
 
     @FXML
@@ -178,7 +188,6 @@ public class CustomerController extends HibernateUtil {
                     }
                 })
                 .afterSave(() -> {
-                    loadCustomers();
                     resetCustomerButton();
                     customerTable.refresh();
                 })
@@ -193,29 +202,39 @@ public class CustomerController extends HibernateUtil {
             return;
         }
 
+        customerService.findBlockingReferencesAsync(selectedCustomer)
+                .thenAccept(references -> removeCustomer(selectedCustomer, references))
+                .exceptionally(e -> {
+                    ShowAlert.showError("Gagal memeriksa data pelanggan: " + GenericService.unwrap(e).getMessage());
+                    return null;
+                });
+    }
+
+    private void removeCustomer(Customer selectedCustomer, List<ReferenceChecker.Reference> references) {
+        if (!references.isEmpty()) {
+            ShowAlert.showError("Pelanggan tidak dapat dihapus karena masih terhubung dengan data lain ("
+                    + ReferenceChecker.describe(references) + ")");
+            return;
+        }
+
         if (ShowAlert.showYesNo("Konfirmasi Hapus", "Apakah Anda yakin ingin menghapus data pelanggan ini?")) {
-            try {
-                customerService.delete(selectedCustomer);
-                ShowAlert.showSuccess("Data pelanggan berhasil dihapus");
-                loadCustomers();
-                resetCustomerButton();
-            } catch (Exception e) {
-                ShowAlert.showError("Gagal menghapus data pelanggan: " + e.getMessage());
-            }
+            customerService.deleteAsync(selectedCustomer)
+                    .thenRun(() -> {
+                        ShowAlert.showSuccess("Data pelanggan berhasil dihapus");
+                        resetCustomerButton();
+                    })
+                    .exceptionally(e -> {
+                        ShowAlert.showError("Gagal menghapus data pelanggan: " + GenericService.unwrap(e).getMessage());
+                        return null;
+                    });
         }
     }
 
     @FXML
     private void handleSearch() {
-        String searchTerm = customerSearchField.getText().toLowerCase();
-        List<Customer> allCustomers = customerService.findAll();
-        List<Customer> filteredCustomers = allCustomers.stream()
-                .filter(customer -> customer.getCustomerId().toLowerCase().contains(searchTerm) ||
-                        customer.getCustomerName().toLowerCase().contains(searchTerm) ||
-                        customer.getContact().toLowerCase().contains(searchTerm) ||
-                        customer.getAddress().toLowerCase().contains(searchTerm) ||
-                        customer.getEmail().toLowerCase().contains(searchTerm))
-                .collect(Collectors.toList());
-        customerTable.setItems(FXCollections.observableArrayList(filteredCustomers));
+        String searchTerm = customerSearchField.getText().trim();
+        customerFilter = searchTerm.isEmpty() ? null
+                : SearchFilter.containsAny(searchTerm, "customerId", "customerName", "contact", "address", "email");
+        loadCustomers();
     }
-}
\ No newline at end of file
+}
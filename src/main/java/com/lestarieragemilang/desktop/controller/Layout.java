@@ -4,6 +4,7 @@ import com.jfoenix.controls.JFXButton;
 import com.lestarieragemilang.desktop.App;
 import com.lestarieragemilang.desktop.utils.HibernateUtil;
 import com.lestarieragemilang.desktop.utils.Redirect;
+import com.lestarieragemilang.desktop.utils.SceneManager;
 import com.lestarieragemilang.desktop.utils.ShowAlert;
 import com.lestarieragemilang.desktop.utils.ThemeManager;
 
@@ -133,7 +134,7 @@ public class Layout extends Redirect {
     }
 
     private void loadSceneWithTransition(String sceneName) {
-        App.sceneManager.getSceneAsync(sceneName.toLowerCase())
+        App.sceneManager.navigateAsync(SceneManager.NAV_CONTENT, sceneName.toLowerCase())
                 .thenAcceptAsync(newScene -> {
                     if (setScene.getChildren().isEmpty()) {
                         newScene.setOpacity(0);
@@ -147,6 +148,9 @@ public class Layout extends Redirect {
                     }
                 }, Platform::runLater)
                 .exceptionally(e -> {
+                    if (SceneManager.isCancellation(e)) {
+                        return null;
+                    }
                     ShowAlert.showError("Failed to load scene: " + sceneName);
                     e.printStackTrace();
                     return null;
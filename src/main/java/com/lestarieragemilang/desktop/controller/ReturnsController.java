@@ -1,27 +1,37 @@
 package com.lestarieragemilang.desktop.controller;
 
-import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.layout.VBox;
 import javafx.util.StringConverter;
+import com.google.common.base.Strings;
+import com.google.common.eventbus.Subscribe;
+import com.google.common.primitives.Ints;
 import com.jfoenix.controls.JFXButton;
 import com.jfoenix.controls.JFXComboBox;
 import com.jfoenix.controls.JFXRadioButton;
-import com.lestarieragemilang.desktop.model.Purchasing;
+import com.lestarieragemilang.desktop.model.Invoice;
+import com.lestarieragemilang.desktop.model.InvoiceLine;
+import com.lestarieragemilang.desktop.model.InvoiceType;
 import com.lestarieragemilang.desktop.model.Returns;
-import com.lestarieragemilang.desktop.model.Sales;
-import com.lestarieragemilang.desktop.repository.GenericDao;
+import com.lestarieragemilang.desktop.repository.PageSort;
+import com.lestarieragemilang.desktop.repository.SearchFilter;
+import com.lestarieragemilang.desktop.repository.SummaryDao;
+import com.lestarieragemilang.desktop.service.DomainEvents;
 import com.lestarieragemilang.desktop.service.GenericService;
+import com.lestarieragemilang.desktop.service.InvoiceService;
+import com.lestarieragemilang.desktop.service.ReturnService;
 import com.lestarieragemilang.desktop.utils.ClearFields;
+import com.lestarieragemilang.desktop.utils.ComboBoxTypeahead;
 import com.lestarieragemilang.desktop.utils.GenericEditPopup;
 import com.lestarieragemilang.desktop.utils.HibernateUtil;
-import com.lestarieragemilang.desktop.utils.IdGenerator;
+import com.lestarieragemilang.desktop.utils.PagedTableLoader;
 import com.lestarieragemilang.desktop.utils.ShowAlert;
 import com.lestarieragemilang.desktop.utils.TableUtils;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 public class ReturnsController extends HibernateUtil {
@@ -30,11 +40,13 @@ public class ReturnsController extends HibernateUtil {
     @FXML
     private DatePicker returnDate;
     @FXML
-    private TextField returnIDIncrement, searchTextField;
+    private TextField returnIDIncrement, searchTextField, returnQuantityField;
     @FXML
     private TextArea returnReasonField;
     @FXML
-    private JFXComboBox<Object> returnInvoicePurchasing;
+    private JFXComboBox<Invoice> returnInvoicePurchasing;
+    @FXML
+    private JFXComboBox<InvoiceLine> returnLineComboBox;
     @FXML
     private JFXRadioButton returnIsBuy, returnIsSell;
     @FXML
@@ -44,18 +56,19 @@ public class ReturnsController extends HibernateUtil {
     @FXML
     private TableColumn<Returns, LocalDate> returnDateCol;
 
-    private GenericService<Returns> returnService;
-    private GenericService<Purchasing> purchasingService;
-    private GenericService<Sales> salesService;
+    private ReturnService returnService;
+    private InvoiceService invoiceService;
+    private ComboBoxTypeahead<Invoice> invoiceTypeahead;
+    private PagedTableLoader<Returns> returnPages;
+    private volatile SearchFilter returnFilter;
 
     public void initialize() {
-        returnService = new GenericService<>(new GenericDao<>(Returns.class), "RET", 3);
-        purchasingService = new GenericService<>(new GenericDao<>(Purchasing.class), "BLI", 3);
-        salesService = new GenericService<>(new GenericDao<>(Sales.class), "JUL", 3);
+        returnService = new ReturnService();
+        invoiceService = new InvoiceService();
 
         initializeInvoiceComboBox();
         initializeReturnTable();
-        loadReturns();
+        DomainEvents.register(this);
         generateAndSetReturnId();
 
         returnIDIncrement.setDisable(true);
@@ -72,66 +85,119 @@ public class ReturnsController extends HibernateUtil {
     }
 
     private void initializeInvoiceComboBox() {
-        returnInvoicePurchasing.setConverter(new StringConverter<Object>() {
+        invoiceTypeahead = new ComboBoxTypeahead<>(returnInvoicePurchasing, ReturnsController::describeInvoice,
+                (term, limit) -> {
+                    InvoiceType type = selectedInvoiceType();
+                    return type == null
+                            ? CompletableFuture.completedFuture(List.of())
+                            : invoiceService.searchAsync(type, term, limit);
+                });
+        showLinesOnSelection(returnInvoicePurchasing, returnLineComboBox, null);
+    }
+
+    /**
+     * Shows an invoice header as its number, customer or supplier and date.
+     */
+    private static String describeInvoice(Invoice invoice) {
+        StringBuilder display = new StringBuilder(invoice.getInvoiceNumber());
+        if (invoice.getCustomer() != null) {
+            display.append(" | ").append(invoice.getCustomer().getCustomerName());
+        } else if (invoice.getSupplier() != null) {
+            display.append(" | ").append(invoice.getSupplier().getSupplierName());
+        }
+        display.append(" | ").append(invoice.getInvoiceDate());
+        return display.toString();
+    }
+
+    /**
+     * Loads the lines of an invoice once it is selected, lists them in the
+     * tooltip of the combo box and offers them in the line picker; the search
+     * itself only reads headers.
+     *
+     * @param preselectedLineId The line to select once loaded, or null
+     */
+    private void showLinesOnSelection(ComboBox<Invoice> comboBox, ComboBox<InvoiceLine> lineComboBox,
+            Long preselectedLineId) {
+        lineComboBox.setConverter(new StringConverter<>() {
             @Override
-            public String toString(Object object) {
-                if (object instanceof Purchasing) {
-                    Purchasing purchase = (Purchasing) object;
-                    return formatInvoiceNumber(
-                        purchase.getInvoiceNumber(),
-                        purchase.getStock().getCategory().getBrand(),
-                        purchase.getStock().getCategory().getProductType()
-                    );
-                } else if (object instanceof Sales) {
-                    Sales sale = (Sales) object;
-                    return formatInvoiceNumber(
-                        sale.getInvoiceNumber(),
-                        sale.getStock().getCategory().getBrand(),
-                        sale.getStock().getCategory().getProductType()
-                    );
-                }
-                return "";
+            public String toString(InvoiceLine line) {
+                return line == null ? "" : describeLine(line);
             }
 
             @Override
-            public Object fromString(String string) {
+            public InvoiceLine fromString(String text) {
                 return null;
             }
         });
+        comboBox.valueProperty().addListener((_, _, invoice) -> {
+            comboBox.setTooltip(null);
+            lineComboBox.getItems().clear();
+            if (invoice == null) {
+                return;
+            }
+            invoiceService.findLinesAsync(invoice)
+                    .thenAccept(lines -> {
+                        if (invoice == comboBox.getValue()) {
+                            comboBox.setTooltip(new Tooltip(describeLines(lines)));
+                            lineComboBox.getItems().setAll(lines);
+                            lines.stream()
+                                    .filter(line -> line.getId().equals(preselectedLineId))
+                                    .findFirst()
+                                    .ifPresent(lineComboBox::setValue);
+                        }
+                    })
+                    .exceptionally(this::showInvoiceLoadError);
+        });
     }
 
-    private String formatInvoiceNumber(String fullInvoice, String brand, String type) {
-        String[] parts = fullInvoice.split("-");
-        if (parts.length > 1) {
-            String prefix = parts[0]; // BLI or JUL
-            String stockId = parts[1]; // STK-xxx
-            String lastPart = parts[parts.length - 1];
-            
-            // Build display string with available information
-            StringBuilder display = new StringBuilder();
-            display.append(prefix).append("-").append(lastPart);
-            
-            if (brand != null && !brand.trim().isEmpty()) {
-                display.append(" | ").append(stockId);
-                display.append(" | ").append(brand);
-                if (type != null && !type.trim().isEmpty()) {
-                    display.append(" - ").append(type);
-                }
-            }
-            
-            return display.toString();
+    private static String describeLines(List<InvoiceLine> lines) {
+        return lines.stream()
+                .map(ReturnsController::describeLine)
+                .collect(Collectors.joining("\n"));
+    }
+
+    private static String describeLine(InvoiceLine line) {
+        return line.getBrand() + " - " + line.getProductType() + " x " + line.getQuantity();
+    }
+
+    /**
+     * Reads the returned quantity, which must not exceed the quantity of the
+     * returned line.
+     *
+     * @return The quantity, or null after showing why it is invalid
+     */
+    private static Integer readReturnQuantity(InvoiceLine line, String text) {
+        if (line == null) {
+            ShowAlert.showValidationError("Silakan pilih barang yang dikembalikan.");
+            return null;
         }
-        return fullInvoice;
+        Integer quantity = Ints.tryParse(Strings.nullToEmpty(text).trim());
+        if (quantity == null || quantity <= 0 || quantity > line.getQuantity()) {
+            ShowAlert.showValidationError("Jumlah retur harus antara 1 dan " + line.getQuantity() + ".");
+            return null;
+        }
+        return quantity;
     }
 
-    private void updateInvoiceComboBox() {
+    private InvoiceType selectedInvoiceType() {
         if (returnIsBuy.isSelected()) {
-            List<Purchasing> purchasings = purchasingService.findAll();
-            returnInvoicePurchasing.setItems(FXCollections.observableArrayList(purchasings));
-        } else if (returnIsSell.isSelected()) {
-            List<Sales> sales = salesService.findAll();
-            returnInvoicePurchasing.setItems(FXCollections.observableArrayList(sales));
+            return InvoiceType.PURCHASE;
         }
+        return returnIsSell.isSelected() ? InvoiceType.SALE : null;
+    }
+
+    private static String returnType(Invoice invoice) {
+        return invoice.getType() == InvoiceType.PURCHASE ? SummaryDao.PURCHASE_RETURN : SummaryDao.SALES_RETURN;
+    }
+
+    private void updateInvoiceComboBox() {
+        returnInvoicePurchasing.setValue(null);
+        invoiceTypeahead.refresh();
+    }
+
+    private Void showInvoiceLoadError(Throwable e) {
+        ShowAlert.showDatabaseError("Gagal memuat data faktur: " + GenericService.unwrap(e).getMessage());
+        return null;
     }
 
     private void initializeReturnTable() {
@@ -140,27 +206,54 @@ public class ReturnsController extends HibernateUtil {
                 TableUtils.createColumn("Tanggal", "returnDate"),
                 TableUtils.createColumn("No. Faktur", "invoiceNumber"),
                 TableUtils.createColumn("Tipe", "returnType"),
+                TableUtils.createColumn("Jumlah", "quantity"),
                 TableUtils.createColumn("Alasan", "reason"));
-        TableUtils.populateTable(returnTable, columns, returnService.findAll());
+        returnPages = new PagedTableLoader<>(returnTable,
+                (afterKey, limit) -> returnService.findPage(returnFilter, afterKey, limit, PageSort.BY_ID),
+                Returns::getId);
+        TableUtils.populateTable(returnTable, columns, returnPages);
     }
 
     private void loadReturns() {
-        List<Returns> returns = returnService.findAll();
-        returnTable.setItems(FXCollections.observableArrayList(returns));
+        returnTable.setItems(returnPages.getItems());
+        returnPages.reload();
     }
 
-    private void generateAndSetReturnId() {
-        String newReturnId;
-        do {
-            newReturnId = IdGenerator.generateRandomId("RET", 1000);
-        } while (returnIdExists(newReturnId));
+    @Subscribe
+    public void onReturnChanged(DomainEvents.ReturnChanged event) {
+        loadReturns();
+    }
+
+    @Subscribe
+    public void onSaleConfirmed(DomainEvents.SaleConfirmed event) {
+        refreshInvoiceSuggestions(InvoiceType.SALE);
+    }
+
+    @Subscribe
+    public void onPurchaseConfirmed(DomainEvents.PurchaseConfirmed event) {
+        refreshInvoiceSuggestions(InvoiceType.PURCHASE);
+    }
 
-        returnIDIncrement.setText(newReturnId);
+    /**
+     * Lists a newly confirmed invoice in the picker, unless the user already
+     * picked one.
+     */
+    private void refreshInvoiceSuggestions(InvoiceType type) {
+        if (selectedInvoiceType() == type && returnInvoicePurchasing.getValue() == null) {
+            invoiceTypeahead.refresh();
+        }
     }
 
-    private boolean returnIdExists(String returnId) {
-        return returnService.findAll().stream()
-                .anyMatch(returnItem -> returnItem.getReturnId().equals(returnId));
+    private void generateAndSetReturnId() {
+        // Cleared first, so the form cannot be saved with the previous code
+        returnIDIncrement.clear();
+        returnService.generateIdAsync()
+                .thenAccept(returnIDIncrement::setText)
+                .exceptionally(e -> {
+                    // Offline and the reserved codes are used up
+                    ShowAlert.showWarning(GenericService.unwrap(e).getMessage());
+                    return null;
+                });
     }
 
     private boolean isDateValid(LocalDate date) {
@@ -179,6 +272,10 @@ public class ReturnsController extends HibernateUtil {
 
     @FXML
     private void addReturnButton() {
+        if (Strings.isNullOrEmpty(returnIDIncrement.getText())) {
+            ShowAlert.showValidationError("Kode retur belum tersedia");
+            return;
+        }
         if (!ShowAlert.showYesNo("Konfirmasi Tambah", "Apakah Anda yakin ingin menambah data retur ini?")) {
             return;
         }
@@ -189,39 +286,37 @@ public class ReturnsController extends HibernateUtil {
         }
 
         String returnId = returnIDIncrement.getText();
-        if (returnIdExists(returnId)) {
-            ShowAlert.showWarning("Kode Retur sudah ada dalam sistem. Kode baru akan dibuat.");
-            generateAndSetReturnId();
-            return;
-        }
-
         if (returnInvoicePurchasing.getValue() == null) {
             ShowAlert.showValidationError("Silakan pilih faktur terlebih dahulu.");
             return;
         }
+        InvoiceLine returnedLine = returnLineComboBox.getValue();
+        Integer quantity = readReturnQuantity(returnedLine, returnQuantityField.getText());
+        if (quantity == null) {
+            return;
+        }
 
         try {
             Returns returnItem = new Returns();
             returnItem.setReturnId(returnId);
             returnItem.setReturnDate(selectedDate);
 
-            Object selectedInvoice = returnInvoicePurchasing.getValue();
-            if (selectedInvoice instanceof Purchasing) {
-                returnItem.setInvoiceNumber(((Purchasing) selectedInvoice).getInvoiceNumber());
-                returnItem.setReturnType("Beli");
-            } else if (selectedInvoice instanceof Sales) {
-                returnItem.setInvoiceNumber(((Sales) selectedInvoice).getInvoiceNumber());
-                returnItem.setReturnType("Jual");
-            } else {
-                ShowAlert.showWarning("Silakan pilih faktur terlebih dahulu.");
-                return;
-            }
+            Invoice selectedInvoice = returnInvoicePurchasing.getValue();
+            returnItem.setInvoiceNumber(selectedInvoice.getInvoiceNumber());
+            returnItem.setReturnType(returnType(selectedInvoice));
+            returnItem.setInvoiceLineId(returnedLine.getId());
+            returnItem.setQuantity(quantity);
 
             returnItem.setReason(returnReasonField.getText());
-            returnService.save(returnItem);
-            ShowAlert.showSuccess("Data retur berhasil ditambahkan");
-            loadReturns();
-            resetReturnButton();
+            returnService.saveAsync(returnItem)
+                    .thenRun(() -> {
+                        ShowAlert.showSuccess("Data retur berhasil ditambahkan");
+                        resetReturnButton();
+                    })
+                    .exceptionally(e -> {
+                        ShowAlert.showError("Gagal menambahkan data retur: " + GenericService.unwrap(e).getMessage());
+                        return null;
+                    });
         } catch (Exception e) {
             ShowAlert.showError("Gagal menambahkan data retur: " + e.getMessage());
         }
@@ -230,7 +325,8 @@ public class ReturnsController extends HibernateUtil {
     @FXML
     private void resetReturnButton() {
         ClearFields.clearFields(
-                returnIDIncrement, returnDate, returnInvoicePurchasing, returnReasonField);
+                returnIDIncrement, returnDate, returnInvoicePurchasing, returnLineComboBox, returnQuantityField,
+                returnReasonField);
         returnIsBuy.setSelected(false);
         returnIsSell.setSelected(false);
         generateAndSetReturnId();
@@ -259,53 +355,27 @@ public class ReturnsController extends HibernateUtil {
         returnIsBuyEdit.setDisable(true);
         returnIsSellEdit.setDisable(true);
 
-        ComboBox<Object> invoiceComboBox = new ComboBox<>();
-        invoiceComboBox.setConverter(new StringConverter<Object>() {
-            @Override
-            public String toString(Object object) {
-                if (object instanceof Purchasing) {
-                    Purchasing purchase = (Purchasing) object;
-                    return formatInvoiceNumber(
-                        purchase.getInvoiceNumber(),
-                        purchase.getStock().getCategory().getBrand(),
-                        purchase.getStock().getCategory().getProductType()
-                    );
-                } else if (object instanceof Sales) {
-                    Sales sale = (Sales) object;
-                    return formatInvoiceNumber(
-                        sale.getInvoiceNumber(),
-                        sale.getStock().getCategory().getBrand(),
-                        sale.getStock().getCategory().getProductType()
-                    );
-                }
-                return "";
-            }
-
-            @Override
-            public Object fromString(String string) {
-                return null;
-            }
-        });
-
-        // Remove the radio button listener since they're now disabled
-        // Set invoice items based on the original return type
-        if ("Beli".equals(selectedReturn.getReturnType())) {
-            List<Purchasing> purchasings = purchasingService.findAll();
-            invoiceComboBox.setItems(FXCollections.observableArrayList(purchasings));
-        } else {
-            List<Sales> sales = salesService.findAll();
-            invoiceComboBox.setItems(FXCollections.observableArrayList(sales));
-        }
+        // The return type cannot change, so the picker searches its invoices only
+        InvoiceType invoiceType = SummaryDao.PURCHASE_RETURN.equals(selectedReturn.getReturnType())
+                ? InvoiceType.PURCHASE
+                : InvoiceType.SALE;
+        ComboBox<Invoice> invoiceComboBox = new ComboBox<>();
+        ComboBoxTypeahead<Invoice> editTypeahead = new ComboBoxTypeahead<>(invoiceComboBox,
+                ReturnsController::describeInvoice,
+                (term, limit) -> invoiceService.searchAsync(invoiceType, term, limit));
+        ComboBox<InvoiceLine> lineComboBox = new ComboBox<>();
+        showLinesOnSelection(invoiceComboBox, lineComboBox, selectedReturn.getInvoiceLineId());
+        TextField quantityField = new TextField(
+                selectedReturn.getQuantity() == null ? "" : selectedReturn.getQuantity().toString());
 
         // Set initial invoice selection
-        invoiceComboBox.getItems().forEach(item -> {
-            String invoiceNumber = item instanceof Purchasing ? 
-                ((Purchasing) item).getInvoiceNumber() : 
-                ((Sales) item).getInvoiceNumber();
-            if (invoiceNumber.equals(selectedReturn.getInvoiceNumber())) {
-                invoiceComboBox.setValue(item);
-            }
-        });
+        invoiceService.findByNumberAsync(invoiceType, selectedReturn.getInvoiceNumber())
+                .thenAccept(invoice -> {
+                    if (invoice != null && invoiceComboBox.getValue() == null) {
+                        editTypeahead.select(invoice);
+                    }
+                })
+                .exceptionally(this::showInvoiceLoadError);
 
         VBox returnTypeBox = new VBox(5, returnIsBuyEdit, returnIsSellEdit);
 
@@ -316,6 +386,8 @@ public class ReturnsController extends HibernateUtil {
                 .addField("Tanggal", new DatePicker(selectedReturn.getReturnDate()))
                 .addField("Tipe Retur", returnTypeBox)
                 .addField("Faktur", invoiceComboBox)
+                .addField("Barang", lineComboBox)
+                .addField("Jumlah", quantityField)
                 .addField("Alasan", new TextArea(selectedReturn.getReason()))
                 .onSave((returnItem, fields) -> {
                     if (!ShowAlert.showYesNo("Konfirmasi Ubah", "Apakah Anda yakin ingin mengubah data retur ini?")) {
@@ -328,23 +400,24 @@ public class ReturnsController extends HibernateUtil {
                             return;
                         }
                         
-                        returnItem.setReturnDate(selectedDate);
-
-                        Object selectedInvoice = ((ComboBox<?>) fields.get(3)).getValue();
+                        Invoice selectedInvoice = invoiceComboBox.getValue();
                         if (selectedInvoice == null) {
                             ShowAlert.showValidationError("Silakan pilih faktur terlebih dahulu.");
                             return;
                         }
-
-                        if (selectedInvoice instanceof Purchasing) {
-                            returnItem.setInvoiceNumber(((Purchasing) selectedInvoice).getInvoiceNumber());
-                            returnItem.setReturnType("Beli");
-                        } else if (selectedInvoice instanceof Sales) {
-                            returnItem.setInvoiceNumber(((Sales) selectedInvoice).getInvoiceNumber());
-                            returnItem.setReturnType("Jual");
+                        InvoiceLine returnedLine = lineComboBox.getValue();
+                        Integer quantity = readReturnQuantity(returnedLine, quantityField.getText());
+                        if (quantity == null) {
+                            return;
                         }
 
-                        returnItem.setReason(((TextArea) fields.get(4)).getText());
+                        returnItem.setReturnDate(selectedDate);
+                        returnItem.setInvoiceNumber(selectedInvoice.getInvoiceNumber());
+                        returnItem.setReturnType(returnType(selectedInvoice));
+                        returnItem.setInvoiceLineId(returnedLine.getId());
+                        returnItem.setQuantity(quantity);
+
+                        returnItem.setReason(((TextArea) fields.get(6)).getText());
                         returnService.update(returnItem);
                         ShowAlert.showSuccess("Data retur berhasil diperbarui");
                     } catch (Exception e) {
@@ -352,7 +425,6 @@ public class ReturnsController extends HibernateUtil {
                     }
                 })
                 .afterSave(() -> {
-                    loadReturns();
                     resetReturnButton();
                     returnTable.refresh();
                 })
@@ -371,26 +443,22 @@ public class ReturnsController extends HibernateUtil {
             return;
         }
 
-        try {
-            returnService.delete(selectedReturn);
-            ShowAlert.showSuccess("Data retur berhasil dihapus");
-            loadReturns();
-            resetReturnButton();
-        } catch (Exception e) {
-            ShowAlert.showError("Gagal menghapus data retur: " + e.getMessage());
-        }
+        returnService.deleteAsync(selectedReturn)
+                .thenRun(() -> {
+                    ShowAlert.showSuccess("Data retur berhasil dihapus");
+                    resetReturnButton();
+                })
+                .exceptionally(e -> {
+                    ShowAlert.showError("Gagal menghapus data retur: " + GenericService.unwrap(e).getMessage());
+                    return null;
+                });
     }
 
     @FXML
     private void searchingData() {
-        String searchTerm = searchTextField.getText().toLowerCase();
-        List<Returns> allReturns = returnService.findAll();
-        List<Returns> filteredReturns = allReturns.stream()
-                .filter(returnItem -> returnItem.getReturnId().toLowerCase().contains(searchTerm) ||
-                        returnItem.getInvoiceNumber().toLowerCase().contains(searchTerm) ||
-                        returnItem.getReturnType().toLowerCase().contains(searchTerm) ||
-                        returnItem.getReason().toLowerCase().contains(searchTerm))
-                .collect(Collectors.toList());
-        returnTable.setItems(FXCollections.observableArrayList(filteredReturns));
+        String searchTerm = searchTextField.getText().trim();
+        returnFilter = searchTerm.isEmpty() ? null
+                : SearchFilter.containsAny(searchTerm, "returnId", "invoiceNumber", "returnType", "reason");
+        loadReturns();
     }
-}
\ No newline at end of file
+}
@@ -5,21 +5,31 @@ import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.util.StringConverter;
+import jakarta.persistence.OptimisticLockException;
+import org.hibernate.StaleObjectStateException;
 import org.hibernate.exception.ConstraintViolationException;
 
+import com.google.common.base.Strings;
+import com.google.common.base.Throwables;
+import com.google.common.eventbus.Subscribe;
 import com.jfoenix.controls.JFXButton;
 import com.jfoenix.controls.JFXComboBox;
 import com.lestarieragemilang.desktop.model.Category;
 import com.lestarieragemilang.desktop.model.Stock;
+import com.lestarieragemilang.desktop.model.StockRow;
 import com.lestarieragemilang.desktop.repository.GenericDao;
+import com.lestarieragemilang.desktop.repository.PageSort;
+import com.lestarieragemilang.desktop.repository.SearchFilter;
+import com.lestarieragemilang.desktop.repository.ReferenceChecker;
+import com.lestarieragemilang.desktop.service.DomainEvents;
 import com.lestarieragemilang.desktop.service.GenericService;
+import com.lestarieragemilang.desktop.service.StockService;
 import com.lestarieragemilang.desktop.utils.*;
 
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
-import java.util.function.Predicate;
+import java.util.function.Consumer;
 
 public class StockController extends HibernateUtil {
     @FXML
@@ -27,32 +37,32 @@ public class StockController extends HibernateUtil {
     @FXML
     private JFXComboBox<Category> categoryIDDropDown;
     @FXML
-    private TableView<Stock> stockTable;
+    private TableView<StockRow> stockTable;
     @FXML
     private JFXButton editStockButtonText;
 
-    private final GenericService<Stock> stockService;
+    private final StockService stockService;
     private final GenericService<Category> categoryService;
+    private PagedTableLoader<StockRow> stockPages;
+    private volatile SearchFilter stockFilter;
 
     public StockController() {
-        this.stockService = new GenericService<>(new GenericDao<>(Stock.class), "BRG", 3);
-        this.categoryService = new GenericService<>(new GenericDao<>(Category.class), "KTG", 3);
+        this.stockService = new StockService();
+        this.categoryService = new GenericService<>(new GenericDao<>(Category.class), "KTG");
     }
 
     public void initialize() {
         initializeCategoryComboBox();
         initializeStockTable();
+        DomainEvents.register(this);
         initializeNumberFormatting();
-        CompletableFuture.runAsync(this::loadStocks);
         generateAndSetStockId();
         stockIDIncrement.setDisable(true);
         stockSearchField.textProperty().addListener((_, _, _) -> handleSearch());
     }
 
     private void initializeCategoryComboBox() {
-        List<Category> categories = categoryService.findAll();
-        categoryIDDropDown.setItems(FXCollections.observableArrayList(categories));
-        categoryIDDropDown.setValue(categories.get(0));
+        loadCategoryOptions();
         categoryIDDropDown.setConverter(new StringConverter<>() {
             @Override
             public String toString(Category category) {
@@ -68,19 +78,58 @@ public class StockController extends HibernateUtil {
         });
     }
 
+    /**
+     * Fills the category dropdown, keeping the selected category if it still
+     * exists and selecting the first one otherwise.
+     */
+    private void loadCategoryOptions() {
+        Category selected = categoryIDDropDown.getValue();
+        categoryService.findAllAsync()
+                .thenAccept(categories -> {
+                    categoryIDDropDown.setItems(FXCollections.observableArrayList(categories));
+                    categories.stream()
+                            .filter(category -> selected != null && category.getId().equals(selected.getId()))
+                            .findFirst()
+                            .or(() -> categories.stream().findFirst())
+                            .ifPresent(categoryIDDropDown::setValue);
+                })
+                .exceptionally(e -> {
+                    ShowAlert.showDatabaseError("Gagal memuat data kategori: " + GenericService.unwrap(e).getMessage());
+                    return null;
+                });
+    }
+
+    @Subscribe
+    public void onStockChanged(DomainEvents.StockChanged event) {
+        loadStocks();
+    }
+
+    /**
+     * The table shows each item's category, and the dropdown lists them.
+     */
+    @Subscribe
+    public void onCategoryChanged(DomainEvents.CategoryChanged event) {
+        loadCategoryOptions();
+        loadStocks();
+    }
+
     private void initializeStockTable() {
-        List<TableColumn<Stock, ?>> columns = List.of(
+        List<TableColumn<StockRow, ?>> columns = List.of(
                 TableUtils.createColumn("Kode Barang", "stockId"),
-                TableUtils.createColumn("Kode Kategori", "category.categoryId"),
-                TableUtils.createColumn("Merek", "category.brand"),
-                TableUtils.createColumn("Jenis", "category.productType"),
-                TableUtils.createColumn("Ukuran", "category.size"),
-                TableUtils.createColumn("Berat", "category.weight"),
-                TableUtils.createColumn("Satuan", "category.weightUnit"),
+                TableUtils.createColumn("Kode Kategori", "categoryId"),
+                TableUtils.createColumn("Merek", "brand"),
+                TableUtils.createColumn("Jenis", "productType"),
+                TableUtils.createColumn("Ukuran", "size"),
+                TableUtils.createColumn("Berat", "weight"),
+                TableUtils.createColumn("Satuan", "weightUnit"),
                 TableUtils.createColumn("Jumlah", "quantity"),
                 TableUtils.createFormattedColumn("Harga Beli", "purchasePrice"),
                 TableUtils.createFormattedColumn("Harga Jual", "sellingPrice"));
-        TableUtils.populateTable(stockTable, columns, stockService.findAll());
+        stockPages = new PagedTableLoader<>(stockTable,
+                (afterKey, limit) -> stockService.findPage(StockRow.PROJECTION, stockFilter, afterKey, limit,
+                        PageSort.BY_ID),
+                StockRow::id);
+        TableUtils.populateTable(stockTable, columns, stockPages);
     }
 
     private void initializeNumberFormatting() {
@@ -89,39 +138,35 @@ public class StockController extends HibernateUtil {
     }
 
     private void loadStocks() {
-        CompletableFuture.runAsync(() -> {
-            List<Stock> stocks = stockService.findAll();
-            Platform.runLater(() -> stockTable.setItems(FXCollections.observableArrayList(stocks)));
+        Platform.runLater(() -> {
+            stockTable.setItems(stockPages.getItems());
+            stockPages.reload();
         });
     }
 
     private void generateAndSetStockId() {
-        String newStockId;
-        do {
-            newStockId = IdGenerator.generateRandomId("BRG", 1000);
-        } while (stockIdExists(newStockId));
-
-        stockIDIncrement.setText(newStockId);
-    }
-
-    private boolean stockIdExists(String stockId) {
-        return stockService.findAll().stream()
-                .anyMatch(stock -> stock.getStockId().equals(stockId));
+        // Cleared first, so the form cannot be saved with the previous code
+        stockIDIncrement.clear();
+        stockService.generateIdAsync()
+                .thenAccept(stockIDIncrement::setText)
+                .exceptionally(e -> {
+                    // Offline and the reserved codes are used up
+                    ShowAlert.showWarning(GenericService.unwrap(e).getMessage());
+                    return null;
+                });
     }
 
     @FXML
     private void addStockButton() {
-        if (!ShowAlert.showYesNo("Konfirmasi Tambah", "Apakah Anda yakin ingin menambah barang ini?")) {
+        if (Strings.isNullOrEmpty(stockIDIncrement.getText())) {
+            ShowAlert.showValidationError("Kode barang belum tersedia");
             return;
         }
-
-        String stockId = stockIDIncrement.getText();
-        if (stockIdExists(stockId)) {
-            ShowAlert.showWarning("Kode barang sudah ada di database.");
-            generateAndSetStockId();
+        if (!ShowAlert.showYesNo("Konfirmasi Tambah", "Apakah Anda yakin ingin menambah barang ini?")) {
             return;
         }
 
+        String stockId = stockIDIncrement.getText();
         try {
             Stock stock = new Stock();
             stock.setStockId(stockId);
@@ -130,14 +175,13 @@ public class StockController extends HibernateUtil {
             stock.setPurchasePrice(new BigDecimal(NumberFormatter.getNumericValue(stockBuyPriceField.getText())));
             stock.setSellingPrice(new BigDecimal(NumberFormatter.getNumericValue(stockSellPriceField.getText())));
 
-            CompletableFuture.runAsync(() -> stockService.save(stock))
-                    .thenRun(() -> Platform.runLater(() -> {
+            stockService.saveAsync(stock)
+                    .thenRun(() -> {
                         ShowAlert.showSuccess("Data barang berhasil ditambahkan");
-                        loadStocks();
                         resetStockButton();
-                    }))
+                    })
                     .exceptionally(e -> {
-                        Platform.runLater(() -> ShowAlert.showError("Gagal menambahkan data barang: " + e.getMessage()));
+                        ShowAlert.showError("Gagal menambahkan data barang: " + GenericService.unwrap(e).getMessage());
                         return null;
                     });
         } catch (NumberFormatException e) {
@@ -156,15 +200,38 @@ public class StockController extends HibernateUtil {
         });
     }
 
-    @SuppressWarnings("unchecked")
     @FXML
     private void editStockButton() {
-        Stock selectedStock = stockTable.getSelectionModel().getSelectedItem();
-        if (selectedStock == null) {
+        StockRow selectedRow = stockTable.getSelectionModel().getSelectedItem();
+        if (selectedRow == null) {
             ShowAlert.showWarning("Silakan pilih barang yang akan diubah");
             return;
         }
+        withSelectedStock(selectedRow, this::showEditPopup);
+    }
+
+    /**
+     * Loads the entity behind a table row, which only holds the displayed
+     * columns. Reloads the table if the row was deleted in the meantime.
+     */
+    private void withSelectedStock(StockRow row, Consumer<Stock> action) {
+        stockService.findByIdAsync(row.id())
+                .thenAccept(stock -> {
+                    if (stock == null) {
+                        ShowAlert.showWarning("Data barang sudah tidak tersedia. Data akan dimuat ulang.");
+                        loadStocks();
+                        return;
+                    }
+                    action.accept(stock);
+                })
+                .exceptionally(e -> {
+                    ShowAlert.showError("Gagal memuat data barang: " + GenericService.unwrap(e).getMessage());
+                    return null;
+                });
+    }
 
+    @SuppressWarnings("unchecked")
+    private void showEditPopup(Stock selectedStock) {
         JFXComboBox<Category> categoryComboBox = new JFXComboBox<>(categoryIDDropDown.getItems());
 
         // Find the category in the list that matches the selectedStock's category by ID
@@ -194,16 +261,19 @@ public class StockController extends HibernateUtil {
                                 new BigDecimal(NumberFormatter.getNumericValue(((TextField) fields.get(3)).getText())));
                         stock.setSellingPrice(
                                 new BigDecimal(NumberFormatter.getNumericValue(((TextField) fields.get(4)).getText())));
-                        CompletableFuture.runAsync(() -> {
-                            stockService.update(stock);
-                            Platform.runLater(() -> {
-                                ShowAlert.showSuccess("Data barang berhasil diubah");
-                                loadStocks();
-                            });
-                        }).exceptionally(e -> {
-                            Platform.runLater(() -> ShowAlert.showError("Gagal mengubah data barang: " + e.getMessage()));
-                            return null;
-                        });
+                        stockService.updateAsync(stock)
+                                .thenRun(() -> ShowAlert.showSuccess("Data barang berhasil diubah"))
+                                .exceptionally(e -> {
+                                    if (isConcurrentModification(e)) {
+                                        ShowAlert.showWarning(
+                                                "Data barang telah diubah oleh pengguna lain. Data akan dimuat ulang.");
+                                        loadStocks();
+                                        return null;
+                                    }
+                                    ShowAlert.showError(
+                                            "Gagal mengubah data barang: " + GenericService.unwrap(e).getMessage());
+                                    return null;
+                                });
                     } catch (NumberFormatException e) {
                         ShowAlert.showValidationError("Mohon periksa format input angka");
                     } catch (Exception e) {
@@ -214,6 +284,11 @@ public class StockController extends HibernateUtil {
                 .show();
     }
 
+    private static boolean isConcurrentModification(Throwable e) {
+        return Throwables.getCausalChain(e).stream().anyMatch(cause -> cause instanceof OptimisticLockException
+                || cause instanceof StaleObjectStateException);
+    }
+
     private TextField createFormattedTextField(BigDecimal value) {
         TextField field = new TextField(NumberFormatter.formatValue(value));
         NumberFormatter.applyNumberFormat(field);
@@ -222,14 +297,27 @@ public class StockController extends HibernateUtil {
 
     @FXML
     private void removeStockButton() {
-        Stock selectedStock = stockTable.getSelectionModel().getSelectedItem();
-        if (selectedStock == null) {
+        StockRow selectedRow = stockTable.getSelectionModel().getSelectedItem();
+        if (selectedRow == null) {
             ShowAlert.showWarning("Silakan pilih barang yang akan dihapus");
             return;
         }
+        withSelectedStock(selectedRow, this::removeStock);
+    }
+
+    private void removeStock(Stock selectedStock) {
+        stockService.findBlockingReferencesAsync(selectedStock)
+                .thenAccept(references -> removeStock(selectedStock, references))
+                .exceptionally(e -> {
+                    ShowAlert.showError("Gagal memeriksa data barang: " + GenericService.unwrap(e).getMessage());
+                    return null;
+                });
+    }
 
-        if (!stockService.canDelete(selectedStock)) {
-            ShowAlert.showError("Barang tidak dapat dihapus karena masih terhubung dengan data lain");
+    private void removeStock(Stock selectedStock, List<ReferenceChecker.Reference> references) {
+        if (!references.isEmpty()) {
+            ShowAlert.showError("Barang tidak dapat dihapus karena masih terhubung dengan data lain ("
+                    + ReferenceChecker.describe(references) + ")");
             return;
         }
 
@@ -237,36 +325,29 @@ public class StockController extends HibernateUtil {
             return;
         }
 
-        CompletableFuture.runAsync(() -> {
-            try {
-                stockService.delete(selectedStock);
-                Platform.runLater(() -> {
+        stockService.deleteAsync(selectedStock)
+                .thenRun(() -> {
                     ShowAlert.showSuccess("Data barang berhasil dihapus");
-                    loadStocks();
                     resetStockButton();
+                })
+                .exceptionally(e -> {
+                    if (Throwables.getCausalChain(e).stream().anyMatch(ConstraintViolationException.class::isInstance)) {
+                        ShowAlert.showError(
+                                "Terjadi kesalahan saat menghapus barang. Barang mungkin masih terhubung dengan data lain.");
+                    } else {
+                        ShowAlert.showError("Gagal menghapus data barang: " + GenericService.unwrap(e).getMessage());
+                    }
+                    return null;
                 });
-            } catch (ConstraintViolationException e) {
-                Platform.runLater(() -> ShowAlert.showError(
-                        "Terjadi kesalahan saat menghapus barang. Barang mungkin masih terhubung dengan data lain."));
-            } catch (Exception e) {
-                Platform.runLater(() -> ShowAlert.showError("Gagal menghapus data barang: " + e.getMessage()));
-            }
-        });
     }
 
     @FXML
     private void handleSearch() {
-        String searchTerm = nullToEmpty(stockSearchField.getText()).toLowerCase();
-        List<Stock> allStocks = stockService.findAll();
-        Predicate<Stock> searchPredicate = stock -> stock.getStockId().toLowerCase().contains(searchTerm) ||
-                stock.getCategory().getCategoryId().toLowerCase().contains(searchTerm) ||
-                stock.getCategory().getBrand().toLowerCase().contains(searchTerm) ||
-                stock.getCategory().getProductType().toLowerCase().contains(searchTerm);
-
-        List<Stock> filteredStocks = allStocks.stream()
-                .filter(searchPredicate)
-                .toList();
-        stockTable.setItems(FXCollections.observableArrayList(filteredStocks));
+        String searchTerm = nullToEmpty(stockSearchField.getText()).trim();
+        stockFilter = searchTerm.isEmpty() ? null
+                : SearchFilter.containsAny(searchTerm, "stockId", "category.categoryId", "category.brand",
+                        "category.productType");
+        loadStocks();
     }
 
     private String nullToEmpty(String str) {
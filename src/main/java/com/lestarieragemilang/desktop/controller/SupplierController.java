@@ -1,17 +1,22 @@
 package com.lestarieragemilang.desktop.controller;
 
+import com.google.common.base.Strings;
+import com.google.common.eventbus.Subscribe;
 import com.jfoenix.controls.JFXButton;
 import javafx.scene.control.TextArea;
 import com.lestarieragemilang.desktop.model.Supplier;
 import com.lestarieragemilang.desktop.repository.GenericDao;
+import com.lestarieragemilang.desktop.repository.PageSort;
+import com.lestarieragemilang.desktop.repository.SearchFilter;
+import com.lestarieragemilang.desktop.repository.ReferenceChecker;
+import com.lestarieragemilang.desktop.service.DomainEvents;
 import com.lestarieragemilang.desktop.service.GenericService;
 import com.lestarieragemilang.desktop.utils.ClearFields;
 import com.lestarieragemilang.desktop.utils.GenericEditPopup;
 import com.lestarieragemilang.desktop.utils.HibernateUtil;
-import com.lestarieragemilang.desktop.utils.IdGenerator;
+import com.lestarieragemilang.desktop.utils.PagedTableLoader;
 import com.lestarieragemilang.desktop.utils.ShowAlert;
 import com.lestarieragemilang.desktop.utils.TableUtils;
-import javafx.collections.FXCollections;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.scene.control.TableColumn;
@@ -20,7 +25,6 @@ import javafx.scene.control.TextField;
 import javafx.scene.layout.VBox;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class SupplierController extends HibernateUtil {
     @FXML
@@ -39,12 +43,14 @@ public class SupplierController extends HibernateUtil {
     private TableView<Supplier> supplierTable;
 
     private GenericService<Supplier> supplierService;
+    private PagedTableLoader<Supplier> supplierPages;
+    private volatile SearchFilter supplierFilter;
 
     public void initialize() {
-        supplierService = new GenericService<>(new GenericDao<>(Supplier.class), "PMS", 3);  // Changed from SUP to PMS
+        supplierService = new GenericService<>(new GenericDao<>(Supplier.class), "PMS");  // Changed from SUP to PMS
 
         initializeSupplierTable();
-        loadSuppliers();
+        DomainEvents.register(this);
         generateAndSetSupplierId();
 
         // Disable the supplier ID field
@@ -58,41 +64,45 @@ public class SupplierController extends HibernateUtil {
                 TableUtils.createColumn("Kontak", "contact"),
                 TableUtils.createColumn("Surel", "email"),
                 TableUtils.createColumn("Alamat", "address"));
-        TableUtils.populateTable(supplierTable, columns, supplierService.findAll());
+        supplierPages = new PagedTableLoader<>(supplierTable,
+                (afterKey, limit) -> supplierService.findPage(supplierFilter, afterKey, limit, PageSort.BY_ID),
+                Supplier::getId);
+        TableUtils.populateTable(supplierTable, columns, supplierPages);
     }
 
     private void loadSuppliers() {
-        List<Supplier> suppliers = supplierService.findAll();
-        supplierTable.setItems(FXCollections.observableArrayList(suppliers));
+        supplierTable.setItems(supplierPages.getItems());
+        supplierPages.reload();
     }
 
-    private void generateAndSetSupplierId() {
-        String newSupplierId;
-        do {
-            newSupplierId = IdGenerator.generateRandomId("PMS", 1000);  // Changed from SUP to PMS
-        } while (supplierIdExists(newSupplierId));
-
-        supplierIDIncrement.setText(newSupplierId);
+    @Subscribe
+    public void onSupplierChanged(DomainEvents.SupplierChanged event) {
+        loadSuppliers();
     }
 
-    private boolean supplierIdExists(String supplierId) {
-        return supplierService.findAll().stream()
-                .anyMatch(supplier -> supplier.getSupplierId().equals(supplierId));
+    private void generateAndSetSupplierId() {
+        // Cleared first, so the form cannot be saved with the previous code
+        supplierIDIncrement.clear();
+        supplierService.generateIdAsync()
+                .thenAccept(supplierIDIncrement::setText)
+                .exceptionally(e -> {
+                    // Offline and the reserved codes are used up
+                    ShowAlert.showWarning(GenericService.unwrap(e).getMessage());
+                    return null;
+                });
     }
 
     @FXML
     private void addSupplierButton(ActionEvent event) {
-        if (!ShowAlert.showYesNo("Konfirmasi Tambah", "Apakah Anda yakin ingin menambah data pemasok ini?")) {
+        if (Strings.isNullOrEmpty(supplierIDIncrement.getText())) {
+            ShowAlert.showValidationError("Kode pemasok belum tersedia");
             return;
         }
-
-        String supplierId = supplierIDIncrement.getText();
-        if (supplierIdExists(supplierId)) {
-            ShowAlert.showWarning("ID Pemasok sudah ada di database");
-            generateAndSetSupplierId();
+        if (!ShowAlert.showYesNo("Konfirmasi Tambah", "Apakah Anda yakin ingin menambah data pemasok ini?")) {
             return;
         }
 
+        String supplierId = supplierIDIncrement.getText();
         try {
             // Validate required fields
             if (supplierNameField.getText().trim().isEmpty()) {
@@ -111,10 +121,15 @@ public class SupplierController extends HibernateUtil {
             supplier.setEmail(supplierEmailField.getText().trim());
             supplier.setAddress(supplierAddressField.getText().trim());
 
-            supplierService.save(supplier);
-            ShowAlert.showSuccess("Data pemasok berhasil ditambahkan");
-            loadSuppliers();
-            resetSupplierButton();
+            supplierService.saveAsync(supplier)
+                    .thenRun(() -> {
+                        ShowAlert.showSuccess("Data pemasok berhasil ditambahkan");
+                        resetSupplierButton();
+                    })
+                    .exceptionally(e -> {
+                        ShowAlert.showError("Gagal menambahkan data pemasok: " + GenericService.unwrap(e).getMessage());
+                        return null;
+                    });
         } catch (Exception e) {
             ShowAlert.showError("Gagal menambahkan data pemasok: " + e.getMessage());
         }
@@ -167,7 +182,6 @@ public class SupplierController extends HibernateUtil {
                     }
                 })
                 .afterSave(() -> {
-                    loadSuppliers();
                     resetSupplierButton();
                     supplierTable.refresh();
                 })
@@ -182,8 +196,18 @@ public class SupplierController extends HibernateUtil {
             return;
         }
 
-        if (!supplierService.canDelete(selectedSupplier)) {
-            ShowAlert.showError("Pemasok tidak dapat dihapus karena masih terhubung dengan data lain");
+        supplierService.findBlockingReferencesAsync(selectedSupplier)
+                .thenAccept(references -> removeSupplier(selectedSupplier, references))
+                .exceptionally(e -> {
+                    ShowAlert.showError("Gagal memeriksa data pemasok: " + GenericService.unwrap(e).getMessage());
+                    return null;
+                });
+    }
+
+    private void removeSupplier(Supplier selectedSupplier, List<ReferenceChecker.Reference> references) {
+        if (!references.isEmpty()) {
+            ShowAlert.showError("Pemasok tidak dapat dihapus karena masih terhubung dengan data lain ("
+                    + ReferenceChecker.describe(references) + ")");
             return;
         }
 
@@ -191,14 +215,15 @@ public class SupplierController extends HibernateUtil {
             return;
         }
 
-        try {
-            supplierService.delete(selectedSupplier);
-            ShowAlert.showSuccess("Data pemasok berhasil dihapus");
-            loadSuppliers();
-            resetSupplierButton();
-        } catch (Exception e) {
-            ShowAlert.showError("Gagal menghapus data pemasok: " + e.getMessage());
-        }
+        supplierService.deleteAsync(selectedSupplier)
+                .thenRun(() -> {
+                    ShowAlert.showSuccess("Data pemasok berhasil dihapus");
+                    resetSupplierButton();
+                })
+                .exceptionally(e -> {
+                    ShowAlert.showError("Gagal menghapus data pemasok: " + GenericService.unwrap(e).getMessage());
+                    return null;
+                });
     }
 
     @FXML
@@ -210,15 +235,9 @@ public class SupplierController extends HibernateUtil {
 
     @FXML
     private void handleSearch() {
-        String searchTerm = supplierSearchField.getText().toLowerCase();
-        List<Supplier> allSuppliers = supplierService.findAll();
-        List<Supplier> filteredSuppliers = allSuppliers.stream()
-                .filter(supplier -> supplier.getSupplierId().toLowerCase().contains(searchTerm) ||
-                        supplier.getSupplierName().toLowerCase().contains(searchTerm) ||
-                        supplier.getContact().toLowerCase().contains(searchTerm) ||
-                        supplier.getEmail().toLowerCase().contains(searchTerm) ||
-                        supplier.getAddress().toLowerCase().contains(searchTerm))
-                .collect(Collectors.toList());
-        supplierTable.setItems(FXCollections.observableArrayList(filteredSuppliers));
+        String searchTerm = supplierSearchField.getText().trim();
+        supplierFilter = searchTerm.isEmpty() ? null
+                : SearchFilter.containsAny(searchTerm, "supplierId", "supplierName", "contact", "email", "address");
+        loadSuppliers();
     }
-}
\ No newline at end of file
+}
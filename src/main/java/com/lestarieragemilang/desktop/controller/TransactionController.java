@@ -1,10 +1,17 @@
 package com.lestarieragemilang.desktop.controller;
 
+import com.google.common.base.Throwables;
+import com.google.common.eventbus.Subscribe;
 import com.jfoenix.controls.JFXButton;
 import com.jfoenix.controls.JFXComboBox;
 import com.lestarieragemilang.desktop.model.*;
+import com.lestarieragemilang.desktop.repository.FetchPlan;
 import com.lestarieragemilang.desktop.repository.GenericDao;
+import com.lestarieragemilang.desktop.service.DomainEvents;
 import com.lestarieragemilang.desktop.service.GenericService;
+import com.lestarieragemilang.desktop.service.InvoiceNumberService;
+import com.lestarieragemilang.desktop.service.StockService;
+import com.lestarieragemilang.desktop.service.TransactionService;
 import com.lestarieragemilang.desktop.utils.ClearFields;
 import com.lestarieragemilang.desktop.utils.GenericEditPopup;
 import com.lestarieragemilang.desktop.utils.HibernateUtil;
@@ -13,15 +20,13 @@ import com.lestarieragemilang.desktop.utils.NumberFormatter;
 import com.lestarieragemilang.desktop.utils.ShowAlert;
 import com.lestarieragemilang.desktop.utils.TableUtils;
 
-import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
+import javafx.scene.Node;
 import javafx.scene.control.*;
 import javafx.util.StringConverter;
-import org.hibernate.Session;
-import org.hibernate.Transaction;
 
 import java.math.BigDecimal;
 import java.net.MalformedURLException;
@@ -74,36 +79,26 @@ public class TransactionController extends HibernateUtil {
     @FXML
     private TextField transactionBuySearchField, transactionSellSearchField;
 
-    private Integer buyIdValue;
-    private Integer sellIdValue;
-
-    @SuppressWarnings("unused")
-    private GenericService<Purchasing> purchasingService;
-
-    @SuppressWarnings("unused")
-    private GenericService<Sales> salesService;
-    
-    private GenericService<Stock> stockService;
+    private StockService stockService;
     private GenericService<Supplier> supplierService;
     private GenericService<Customer> customerService;
+    private TransactionService transactionService;
+    private InvoiceNumberService invoiceNumberService;
 
     private ObservableList<Purchasing> pendingPurchases = FXCollections.observableArrayList();
     private ObservableList<Sales> pendingSales = FXCollections.observableArrayList();
 
-    private static int buyId = 1;
-    private static int sellId = 1;
-
     private String currentPendingBuyInvoice;
     private String currentPendingSellInvoice;
 
     String finalInvoiceNumber;
 
     public void initialize() {
-        purchasingService = new GenericService<>(new GenericDao<>(Purchasing.class), "PUR", 3);
-        salesService = new GenericService<>(new GenericDao<>(Sales.class), "SAL", 3);
-        stockService = new GenericService<>(new GenericDao<>(Stock.class), "STK", 3);
-        supplierService = new GenericService<>(new GenericDao<>(Supplier.class), "SUP", 3);
-        customerService = new GenericService<>(new GenericDao<>(Customer.class), "CUS", 3);
+        stockService = new StockService();
+        supplierService = new GenericService<>(new GenericDao<>(Supplier.class), "SUP");
+        customerService = new GenericService<>(new GenericDao<>(Customer.class), "CUS");
+        transactionService = new TransactionService();
+        invoiceNumberService = new InvoiceNumberService();
 
         NumberFormatter.applyNumberFormat(buyPriceField);
         NumberFormatter.applyNumberFormat(buyTotalPrice);
@@ -113,6 +108,7 @@ public class TransactionController extends HibernateUtil {
         initializeComboBoxes();
         initializeTables();
         setupAutoFill();
+        DomainEvents.register(this);
 
         buyDate.setValue(LocalDate.now());
         sellDate.setValue(LocalDate.now());
@@ -123,31 +119,79 @@ public class TransactionController extends HibernateUtil {
     }
 
     private void initializeComboBoxes() {
-        List<Stock> stocks = stockService.findAll();
-        buyStockIDDropdown.setItems(FXCollections.observableArrayList(stocks));
-        sellStockIDDropdown.setItems(FXCollections.observableArrayList(stocks));
+        setupComboBoxConverters();
 
-        List<Supplier> suppliers = supplierService.findAll();
-        supplierIDDropDown.setItems(FXCollections.observableArrayList(suppliers));
+        // The three lists load in parallel; each fills its dropdowns when ready.
+        // Suppliers and customers are shown by code and name only, so their
+        // addresses are not loaded.
+        loadStockOptions();
+        loadSupplierOptions();
+        loadCustomerOptions();
+    }
 
-        List<Customer> customers = customerService.findAll();
-        customerIDDropDown.setItems(FXCollections.observableArrayList(customers));
+    private void loadStockOptions() {
+        stockService.findAllAsync()
+                .thenAccept(stocks -> {
+                    setOptions(buyStockIDDropdown, stocks);
+                    setOptions(sellStockIDDropdown, stocks);
+                })
+                .exceptionally(this::showLoadError);
+    }
 
-        // Set default values if lists are not empty
-        if (!stocks.isEmpty()) {
-            buyStockIDDropdown.setValue(stocks.get(0));
-            sellStockIDDropdown.setValue(stocks.get(0));
-        }
+    private void loadSupplierOptions() {
+        supplierService.findAllAsync(FetchPlan.NONE)
+                .thenAccept(suppliers -> setOptions(supplierIDDropDown, suppliers))
+                .exceptionally(this::showLoadError);
+    }
 
-        if (!suppliers.isEmpty()) {
-            supplierIDDropDown.setValue(suppliers.get(0));
-        }
+    private void loadCustomerOptions() {
+        customerService.findAllAsync(FetchPlan.NONE)
+                .thenAccept(customers -> setOptions(customerIDDropDown, customers))
+                .exceptionally(this::showLoadError);
+    }
 
-        if (!customers.isEmpty()) {
-            customerIDDropDown.setValue(customers.get(0));
+    /**
+     * Replaces the options of a dropdown. A selection the user already made
+     * is kept as it is, so the name and price fields filled from it are not
+     * overwritten; otherwise the first option is selected.
+     */
+    private static <T> void setOptions(ComboBox<T> dropdown, List<T> options) {
+        dropdown.setItems(FXCollections.observableArrayList(options));
+        if (dropdown.getValue() == null && !options.isEmpty()) {
+            dropdown.setValue(options.get(0));
         }
+    }
 
-        setupComboBoxConverters();
+    /**
+     * Stock quantities changed, e.g. after this or another terminal confirmed
+     * an invoice; the pending lines are kept.
+     */
+    @Subscribe
+    public void onStockChanged(DomainEvents.StockChanged event) {
+        loadStockOptions();
+    }
+
+    /**
+     * The stock dropdowns show each item's brand and type.
+     */
+    @Subscribe
+    public void onCategoryChanged(DomainEvents.CategoryChanged event) {
+        loadStockOptions();
+    }
+
+    @Subscribe
+    public void onSupplierChanged(DomainEvents.SupplierChanged event) {
+        loadSupplierOptions();
+    }
+
+    @Subscribe
+    public void onCustomerChanged(DomainEvents.CustomerChanged event) {
+        loadCustomerOptions();
+    }
+
+    private Void showLoadError(Throwable e) {
+        ShowAlert.showDatabaseError("Gagal memuat data: " + GenericService.unwrap(e).getMessage());
+        return null;
     }
 
     private void setupComboBoxConverters() {
@@ -421,48 +465,29 @@ public class TransactionController extends HibernateUtil {
         }
 
         if (tabPane.getSelectionModel().getSelectedIndex() == 0) {
-            try {
-                List<Purchasing> purchasingList = new ArrayList<>(buyTable.getItems());
-                boolean success = true;
-
-                // Generate a single final invoice number for this batch
-                this.finalInvoiceNumber = generateFinalInvoiceNumber("BLI");
-
-                // Get a new session for this transaction
-                Session session = HibernateUtil.getSessionFactory().openSession();
-                Transaction transaction = null;
-
-                try {
-                    transaction = session.beginTransaction();
-
-                    for (Purchasing purchasing : purchasingList) {
-                        purchasing.setInvoiceNumber(finalInvoiceNumber);
-
-                        // Reattach entities to the current session
-                        Stock stock = session.get(Stock.class, purchasing.getStock().getId());
-                        purchasing.setStock(stock);
-                        purchasing.setSupplier(session.get(Supplier.class, purchasing.getSupplier().getId()));
-
-                        // Add these lines to ensure brand and type are set
-                        purchasing.setBrand(stock.getCategory().getBrand());
-                        purchasing.setType(stock.getCategory().getProductType());
-
-                        // Save purchasing
-                        session.persist(purchasing);
-
-                        // Update stock quantity
-                        stock.setQuantity(stock.getQuantity() + purchasing.getQuantity());
-                        session.merge(stock);
-                    }
-
-                    transaction.commit();
+            List<Purchasing> purchasingList = new ArrayList<>(pendingPurchases);
+            if (purchasingList.isEmpty()) {
+                ShowAlert.showWarning("Belum ada pembelian yang akan dikonfirmasi");
+                return;
+            }
 
-                    // Clear table and update UI
-                    Platform.runLater(() -> {
-                        buyTable.getItems().clear();
+            // Blocks a second confirmation while this one is in flight
+            Node confirmButton = (Node) event.getSource();
+            confirmButton.setDisable(true);
+
+            // Generate a single final invoice number for this batch
+            invoiceNumberService.nextInvoiceNumberAsync("BLI")
+                    .thenCompose(invoiceNumber -> transactionService
+                            .confirmPurchasesAsync(purchasingList, invoiceNumber)
+                            .thenApply(_ -> invoiceNumber))
+                    .thenAccept(invoiceNumber -> {
+                        this.finalInvoiceNumber = invoiceNumber;
+
+                        // Lines added while confirming stay pending
+                        pendingPurchases.removeAll(purchasingList);
+                        buyTable.setItems(pendingPurchases);
                         currentPendingBuyInvoice = generatePendingInvoiceNumber("BLI");
-                        buyIdValue = buyId++;
-                        buyInvoiceNumber.setText(String.format("TRX-%05d", buyIdValue));
+                        buyInvoiceNumber.setText(finalInvoiceNumber);
                         updateBuyTotalPrice();
 
                         try {
@@ -472,26 +497,12 @@ public class TransactionController extends HibernateUtil {
                         }
 
                         ShowAlert.showSuccess("Pembelian berhasil dikonfirmasi");
-                    });
-
-                } catch (Exception e) {
-                    if (transaction != null) {
-                        transaction.rollback();
-                    }
-                    success = false;
-                    e.printStackTrace();
-                    Platform.runLater(() -> ShowAlert.showError("Gagal mengkonfirmasi pembelian: " + e.getMessage()));
-                } finally {
-                    session.close();
-                }
-
-                if (!success) {
-                    return;
-                }
-            } catch (Exception e) {
-                e.printStackTrace();
-                ShowAlert.showError("Gagal mengkonfirmasi pembelian: " + e.getMessage());
-            }
+                    })
+                    .exceptionally(e -> {
+                        ShowAlert.showError("Gagal mengkonfirmasi pembelian: " + Throwables.getRootCause(e).getMessage());
+                        return null;
+                    })
+                    .whenComplete((_, _) -> confirmButton.setDisable(false));
         }
     }
 
@@ -502,54 +513,29 @@ public class TransactionController extends HibernateUtil {
         }
 
         if (tabPane.getSelectionModel().getSelectedIndex() == 1) {
-            try {
-                List<Sales> salesList = new ArrayList<>(sellTable.getItems());
-                boolean success = true;
-
-                // Generate a single final invoice number for this batch
-                this.finalInvoiceNumber = generateFinalInvoiceNumber("JUL");
-
-                // Get a new session for this transaction
-                Session session = HibernateUtil.getSessionFactory().openSession();
-                Transaction transaction = null;
-
-                try {
-                    transaction = session.beginTransaction();
-
-                    for (Sales sale : salesList) {
-                        sale.setInvoiceNumber(finalInvoiceNumber);
-
-                        // Reattach entities to the current session
-                        Stock stock = session.get(Stock.class, sale.getStock().getId());
-                        sale.setStock(stock);
-                        sale.setCustomer(session.get(Customer.class, sale.getCustomer().getId()));
-
-                        // Ensure brand and type are set
-                        sale.setBrand(stock.getCategory().getBrand());
-                        sale.setType(stock.getCategory().getProductType());
-
-                        // Verify stock quantity
-                        if (stock.getQuantity() < sale.getQuantity()) {
-                            throw new Exception("Stok tidak mencukupi untuk " + stock.getCategory().getBrand()
-                                    + " " + stock.getCategory().getProductType());
-                        }
-
-                        // Save sale
-                        session.persist(sale);
-
-                        // Update stock quantity
-                        stock.setQuantity(stock.getQuantity() - sale.getQuantity());
-                        session.merge(stock);
-                    }
-
-                    transaction.commit();
+            List<Sales> salesList = new ArrayList<>(pendingSales);
+            if (salesList.isEmpty()) {
+                ShowAlert.showWarning("Belum ada penjualan yang akan dikonfirmasi");
+                return;
+            }
 
-                    // Clear table and update UI
-                    Platform.runLater(() -> {
-                        sellTable.getItems().clear();
+            // Blocks a second confirmation while this one is in flight
+            Node confirmButton = (Node) event.getSource();
+            confirmButton.setDisable(true);
+
+            // Generate a single final invoice number for this batch
+            invoiceNumberService.nextInvoiceNumberAsync("JUL")
+                    .thenCompose(invoiceNumber -> transactionService
+                            .confirmSalesAsync(salesList, invoiceNumber)
+                            .thenApply(_ -> invoiceNumber))
+                    .thenAccept(invoiceNumber -> {
+                        this.finalInvoiceNumber = invoiceNumber;
+
+                        // Lines added while confirming stay pending
+                        pendingSales.removeAll(salesList);
+                        sellTable.setItems(pendingSales);
                         currentPendingSellInvoice = generatePendingInvoiceNumber("JUL");
-                        sellIdValue = sellId++;
-                        sellInvoiceNumber.setText(String.format("TRX-%05d", sellIdValue));
+                        sellInvoiceNumber.setText(finalInvoiceNumber);
                         updateSellTotalPrice();
 
                         try {
@@ -559,26 +545,12 @@ public class TransactionController extends HibernateUtil {
                         }
 
                         ShowAlert.showSuccess("Penjualan berhasil dikonfirmasi");
-                    });
-
-                } catch (Exception e) {
-                    if (transaction != null) {
-                        transaction.rollback();
-                    }
-                    success = false;
-                    e.printStackTrace();
-                    Platform.runLater(() -> ShowAlert.showError("Gagal mengkonfirmasi penjualan: " + e.getMessage()));
-                } finally {
-                    session.close();
-                }
-
-                if (!success) {
-                    return;
-                }
-            } catch (Exception e) {
-                e.printStackTrace();
-                ShowAlert.showError("Gagal mengkonfirmasi penjualan: " + e.getMessage());
-            }
+                    })
+                    .exceptionally(e -> {
+                        ShowAlert.showError("Gagal mengkonfirmasi penjualan: " + Throwables.getRootCause(e).getMessage());
+                        return null;
+                    })
+                    .whenComplete((_, _) -> confirmButton.setDisable(false));
         }
     }
 
@@ -872,15 +844,4 @@ public class TransactionController extends HibernateUtil {
                 currentDate.format(java.time.format.DateTimeFormatter.BASIC_ISO_DATE),
                 System.nanoTime() % 100000000);
     }
-
-    private String generateFinalInvoiceNumber(String prefix) {
-        LocalDate currentDate = LocalDate.now();
-        long timestamp = System.currentTimeMillis();
-        String randomSuffix = String.format("%04d", (int) (Math.random() * 10000));
-        return String.format("%s-%s-%d-%s",
-                prefix,
-                currentDate.format(java.time.format.DateTimeFormatter.BASIC_ISO_DATE),
-                timestamp % 1000000,
-                randomSuffix);
-    }
 }
@@ -1,20 +1,20 @@
 package com.lestarieragemilang.desktop.controller.report;
 
 import com.lestarieragemilang.desktop.model.Category;
+import com.lestarieragemilang.desktop.repository.GenericDao;
+import com.lestarieragemilang.desktop.repository.PageSort;
+import com.lestarieragemilang.desktop.repository.SearchFilter;
 import com.lestarieragemilang.desktop.utils.TableUtils;
-import com.lestarieragemilang.desktop.utils.HibernateUtil;
 import com.lestarieragemilang.desktop.utils.JasperLoader;
+import com.lestarieragemilang.desktop.utils.PagedTableLoader;
 import com.lestarieragemilang.desktop.utils.ShowAlert;
 
 import javafx.collections.FXCollections;
-import javafx.collections.transformation.FilteredList;
 import javafx.fxml.FXML;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.TextField;
 import javafx.scene.input.MouseEvent;
-import org.hibernate.Session;
-import org.hibernate.query.Query;
 
 import java.net.URL;
 import java.util.List;
@@ -27,7 +27,9 @@ public class ReportCategory {
   @FXML
   private TextField categorySearchField;
 
-  private FilteredList<Category> filteredData;
+  private PagedTableLoader<Category> categoryPages;
+  private volatile SearchFilter searchFilter;
+  private final GenericDao<Category> categoryDao = new GenericDao<>(Category.class);
 
   @FXML
   void printJasperCategory(MouseEvent event) {
@@ -80,38 +82,28 @@ public class ReportCategory {
 
   @FXML
   void categorySearch() {
-    String searchText = categorySearchField.getText().toLowerCase();
-    filteredData.setPredicate(category -> {
-      if (searchText == null || searchText.isEmpty()) {
-        return true;
-      }
-      return category.getCategoryId().toLowerCase().contains(searchText) ||
-          category.getBrand().toLowerCase().contains(searchText) ||
-          category.getProductType().toLowerCase().contains(searchText) ||
-          category.getSize().toLowerCase().contains(searchText) ||
-          (category.getWeightUnit() != null &&
-              category.getWeightUnit().toLowerCase().contains(searchText));
-    });
+    String searchText = categorySearchField.getText().trim();
+    searchFilter = searchText.isEmpty() ? null
+        : SearchFilter.containsAny(searchText, "categoryId", "brand", "productType", "size", "weightUnit");
+    categoryPages.reload();
   }
 
   @FXML
   void initialize() {
-    List<Category> categories = fetchCategoriesFromDatabase();
-    setupTable(categories);
+    setupTable();
     setupSearch();
   }
 
-  private List<Category> fetchCategoriesFromDatabase() {
-    try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-      Query<Category> query = session.createQuery("FROM Category", Category.class);
-      return query.list();
+  private List<Category> fetchCategoryPage(Object afterKey, int limit) {
+    try {
+      return categoryDao.findPage(searchFilter, afterKey, limit, PageSort.BY_ID);
     } catch (Exception e) {
       e.printStackTrace();
       return FXCollections.emptyObservableList();
     }
   }
 
-  private void setupTable(List<Category> categories) {
+  private void setupTable() {
     List<TableColumn<Category, ?>> columns = List.of(
         TableUtils.createColumn("Kode Kategori", "categoryId"),
         TableUtils.createColumn("Merek", "brand"),
@@ -119,13 +111,12 @@ public class ReportCategory {
         TableUtils.createColumn("Ukuran", "size"),
         TableUtils.createColumn("Berat", "weight"),
         TableUtils.createColumn("Satuan Berat", "weightUnit"));
+    categoryPages = new PagedTableLoader<>(categoryTable, this::fetchCategoryPage, Category::getId);
 
-    TableUtils.populateTable(categoryTable, columns, categories);
+    TableUtils.populateTable(categoryTable, columns, categoryPages);
   }
 
   private void setupSearch() {
-    filteredData = new FilteredList<>(categoryTable.getItems(), _ -> true);
-    categoryTable.setItems(filteredData);
     categorySearchField.textProperty().addListener((_, _, _) -> categorySearch());
   }
 }
\ No newline at end of file
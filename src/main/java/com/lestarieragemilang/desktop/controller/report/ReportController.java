@@ -26,7 +26,7 @@ public class ReportController extends Redirect {
             return;
         }
 
-        App.sceneManager.getSceneAsync(sceneName)
+        App.sceneManager.navigateAsync(SceneManager.NAV_REPORT, sceneName)
                 .thenAcceptAsync(newScene -> {
                     if (setScene.getChildren().isEmpty()) {
                         setScene.getChildren().setAll(newScene);
@@ -40,6 +40,9 @@ public class ReportController extends Redirect {
                     }
                 }, Platform::runLater)
                 .exceptionally(e -> {
+                    if (SceneManager.isCancellation(e)) {
+                        return null;
+                    }
                     ShowAlert.showError("Gagal memuat laporan: " + sceneName);
                     e.printStackTrace();
                     return null;
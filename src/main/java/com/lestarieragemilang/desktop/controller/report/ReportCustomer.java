@@ -1,12 +1,15 @@
 package com.lestarieragemilang.desktop.controller.report;
 
 import com.lestarieragemilang.desktop.model.Customer;
+import com.lestarieragemilang.desktop.repository.GenericDao;
+import com.lestarieragemilang.desktop.repository.PageSort;
+import com.lestarieragemilang.desktop.repository.SearchFilter;
+import com.lestarieragemilang.desktop.repository.SummaryDao;
 import com.lestarieragemilang.desktop.utils.TableUtils;
-import com.lestarieragemilang.desktop.utils.HibernateUtil;
 import com.lestarieragemilang.desktop.utils.JasperLoader;
+import com.lestarieragemilang.desktop.utils.PagedTableLoader;
 
 import javafx.collections.FXCollections;
-import javafx.collections.transformation.FilteredList;
 import javafx.fxml.FXML;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Alert.AlertType;
@@ -14,11 +17,12 @@ import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.TextField;
 import javafx.scene.input.MouseEvent;
-import org.hibernate.Session;
-import org.hibernate.query.Query;
 
+import java.math.BigDecimal;
 import java.net.URL;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ReportCustomer {
 
@@ -28,7 +32,12 @@ public class ReportCustomer {
   @FXML
   private TextField customerSearchField;
 
-  private FilteredList<Customer> filteredData;
+  private PagedTableLoader<Customer> customerPages;
+  private volatile SearchFilter searchFilter;
+  private final GenericDao<Customer> customerDao = new GenericDao<>(Customer.class);
+  private final SummaryDao summaryDao = new SummaryDao();
+  // Net totals of the loaded rows, read from the summary tables with each page
+  private final Map<Long, BigDecimal> netTotals = new ConcurrentHashMap<>();
 
   @FXML
   void printJasperCustomer(MouseEvent event) {
@@ -87,50 +96,45 @@ public class ReportCustomer {
 
   @FXML
   void customerSearch() {
-    String searchText = customerSearchField.getText().toLowerCase();
-    filteredData.setPredicate(customer -> {
-      if (searchText == null || searchText.isEmpty()) {
-        return true;
-      }
-      return customer.getCustomerId().toLowerCase().contains(searchText) ||
-          customer.getCustomerName().toLowerCase().contains(searchText) ||
-          customer.getContact().toLowerCase().contains(searchText) ||
-          customer.getAddress().toLowerCase().contains(searchText) ||
-          customer.getEmail().toLowerCase().contains(searchText);
-    });
+    String searchText = customerSearchField.getText().trim();
+    searchFilter = searchText.isEmpty() ? null
+        : SearchFilter.containsAny(searchText, "customerId", "customerName", "contact", "address", "email");
+    customerPages.reload();
   }
 
   @FXML
   void initialize() {
-    List<Customer> customers = fetchCustomersFromDatabase();
-    setupTable(customers);
+    setupTable();
     setupSearch();
   }
 
-  private List<Customer> fetchCustomersFromDatabase() {
-    try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-      Query<Customer> query = session.createQuery("FROM Customer", Customer.class);
-      return query.list();
+  private List<Customer> fetchCustomerPage(Object afterKey, int limit) {
+    try {
+      List<Customer> page = customerDao.findPage(searchFilter, afterKey, limit, PageSort.BY_ID);
+      summaryDao.customerTotals(page.stream().map(Customer::getId).toList())
+          .forEach((id, totals) -> netTotals.put(id, totals.netAmount()));
+      return page;
     } catch (Exception e) {
       e.printStackTrace();
       return FXCollections.emptyObservableList();
     }
   }
 
-  private void setupTable(List<Customer> customers) {
+  private void setupTable() {
     List<TableColumn<Customer, ?>> columns = List.of(
         TableUtils.createColumn("Kode Pelanggan", "customerId"),
         TableUtils.createColumn("Nama", "customerName"),
         TableUtils.createColumn("Kontak", "contact"),
         TableUtils.createColumn("Alamat", "address"),
-        TableUtils.createColumn("Surel", "email"));
+        TableUtils.createColumn("Surel", "email"),
+        TableUtils.<Customer>createFormattedColumn("Total Penjualan",
+            customer -> netTotals.getOrDefault(customer.getId(), BigDecimal.ZERO)));
+    customerPages = new PagedTableLoader<>(customerTable, this::fetchCustomerPage, Customer::getId);
 
-    TableUtils.populateTable(customerTable, columns, customers);
+    TableUtils.populateTable(customerTable, columns, customerPages);
   }
 
   private void setupSearch() {
-    filteredData = new FilteredList<>(customerTable.getItems(), _ -> true);
-    customerTable.setItems(filteredData);
     customerSearchField.textProperty().addListener((_, _, _) -> customerSearch());
   }
 }
\ No newline at end of file
@@ -7,22 +7,28 @@ import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
-import javafx.collections.transformation.FilteredList;
 import javafx.fxml.FXML;
 import javafx.scene.control.DatePicker;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.TextField;
 import javafx.scene.input.MouseEvent;
-import org.hibernate.Session;
-import org.hibernate.query.Query;
+import javafx.scene.text.Text;
 
 import com.lestarieragemilang.desktop.model.Purchasing;
+import com.lestarieragemilang.desktop.model.PurchasingRow;
+import com.lestarieragemilang.desktop.repository.GenericDao;
+import com.lestarieragemilang.desktop.repository.PageSort;
+import com.lestarieragemilang.desktop.repository.SearchFilter;
+import com.lestarieragemilang.desktop.repository.SummaryDao;
+import com.lestarieragemilang.desktop.service.GenericService;
 import com.lestarieragemilang.desktop.utils.TableUtils;
-import com.lestarieragemilang.desktop.utils.HibernateUtil;
 import com.lestarieragemilang.desktop.utils.JasperLoader;
+import com.lestarieragemilang.desktop.utils.PagedTableLoader;
 import com.lestarieragemilang.desktop.utils.ShowAlert;
 
 public class ReportPurchasing {
@@ -37,36 +43,43 @@ public class ReportPurchasing {
   private TextField BuyListSearchField;
 
   @FXML
-  private TableColumn<Purchasing, LocalDate> buyDateCol;
+  private TableColumn<PurchasingRow, LocalDate> buyDateCol;
 
   @FXML
-  private TableColumn<Purchasing, String> buyInvoiceCol;
+  private TableColumn<PurchasingRow, String> buyInvoiceCol;
 
   @FXML
-  private TableColumn<Purchasing, String> buySupplierCol;
+  private TableColumn<PurchasingRow, String> buySupplierCol;
 
   @FXML
-  private TableColumn<Purchasing, Integer> buyQuantityCol;
+  private TableColumn<PurchasingRow, Integer> buyQuantityCol;
 
   @FXML
-  private TableColumn<Purchasing, BigDecimal> buyPriceCol;
+  private TableColumn<PurchasingRow, BigDecimal> buyPriceCol;
 
   @FXML
-  private TableColumn<Purchasing, BigDecimal> buySubTotalCol;
+  private TableColumn<PurchasingRow, BigDecimal> buySubTotalCol;
 
   @FXML
-  private TableColumn<Purchasing, BigDecimal> buyTotalCol;
+  private TableColumn<PurchasingRow, BigDecimal> buyTotalCol;
 
   @FXML
-  private TableView<Purchasing> buyTable;
+  private TableView<PurchasingRow> buyTable;
 
-  private FilteredList<Purchasing> filteredData;
+  @FXML
+  private Text buyTotalsText;
+
+  private PagedTableLoader<PurchasingRow> purchasePages;
+  private volatile SearchFilter searchFilter;
+  private final SummaryDao summaryDao = new SummaryDao();
+  private final GenericDao<Purchasing> purchasingDao = new GenericDao<>(Purchasing.class);
 
   @FXML
   void purchaseSearch() {
-    String searchText = BuyListSearchField.getText().toLowerCase();
-    filteredData.setPredicate(purchase -> searchText.isEmpty() ||
-        String.valueOf(purchase.getInvoiceNumber()).toLowerCase().contains(searchText));
+    String searchText = BuyListSearchField.getText().trim();
+    searchFilter = searchText.isEmpty() ? null
+        : SearchFilter.containsAny(searchText, "invoiceNumber");
+    purchasePages.reload();
   }
 
   @FXML
@@ -128,40 +141,64 @@ public class ReportPurchasing {
 
   @FXML
   void initialize() throws SQLException {
-    List<Purchasing> purchases = fetchPurchasesFromDatabase();
-    setupTable(purchases);
+    setupTable();
     setupSearch();
     setupDateSearchMutualExclusion();
+    setupTotals();
   }
 
-  private List<Purchasing> fetchPurchasesFromDatabase() {
-    try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-      Query<Purchasing> query = session.createQuery("FROM Purchasing", Purchasing.class);
-      return query.list();
+  private void setupTotals() {
+    BuyListDateFirstField.valueProperty().addListener((_, _, _) -> loadTotals());
+    BuyListDateSecondField.valueProperty().addListener((_, _, _) -> loadTotals());
+    loadTotals();
+  }
+
+  /**
+   * Shows the totals of the selected days, read from the summary tables.
+   */
+  private void loadTotals() {
+    LocalDate from = BuyListDateFirstField.getValue();
+    LocalDate to = BuyListDateSecondField.getValue();
+    CompletableFuture.supplyAsync(() -> summaryDao.purchaseTotals(from, to), GenericService.asyncExecutor())
+        .thenAcceptAsync(totals -> buyTotalsText.setText(describe(totals)), Platform::runLater)
+        .exceptionally(e -> {
+          Platform.runLater(() -> buyTotalsText.setText("Total pembelian tidak tersedia"));
+          return null;
+        });
+  }
+
+  private static String describe(SummaryDao.Totals totals) {
+    return String.format("Total pembelian: %d baris, %d unit, %s (retur %d unit, %s)",
+        totals.lines(), totals.quantity(), TableUtils.formatCurrency(totals.amount()),
+        totals.returnedQuantity(), TableUtils.formatCurrency(totals.returnedAmount()));
+  }
+
+  private List<PurchasingRow> fetchPurchasePage(Object afterKey, int limit) {
+    try {
+      return purchasingDao.findPage(PurchasingRow.PROJECTION, searchFilter, afterKey, limit, PageSort.BY_ID);
     } catch (Exception e) {
       e.printStackTrace();
       return FXCollections.emptyObservableList();
     }
   }
 
-  private void setupTable(List<Purchasing> purchases) {
-    List<TableColumn<Purchasing, ?>> columns = List.of(
+  private void setupTable() {
+    List<TableColumn<PurchasingRow, ?>> columns = List.of(
         TableUtils.createColumn("Tanggal", "purchaseDate"),
         TableUtils.createColumn("Nomor Faktur", "invoiceNumber"),
-        TableUtils.createColumn("Pemasok", "supplier.supplierName"),
-        TableUtils.createColumn("Stok", "stock.category.brand"),
+        TableUtils.createColumn("Pemasok", "supplierName"),
+        TableUtils.createColumn("Stok", "brand"),
         TableUtils.createColumn("Jumlah", "quantity"),
         TableUtils.createFormattedColumn("Harga", "price"),
         TableUtils.createFormattedColumn("Sub Total", "subTotal"),
         TableUtils.createFormattedColumn("Total", "priceTotal")
     );
+    purchasePages = new PagedTableLoader<>(buyTable, this::fetchPurchasePage, PurchasingRow::id);
 
-    TableUtils.populateTable(buyTable, columns, purchases);
+    TableUtils.populateTable(buyTable, columns, purchasePages);
   }
 
   private void setupSearch() {
-    filteredData = new FilteredList<>(buyTable.getItems(), _ -> true);
-    buyTable.setItems(filteredData);
     BuyListSearchField.textProperty().addListener((_, _, _) -> purchaseSearch());
   }
 
@@ -1,20 +1,20 @@
 package com.lestarieragemilang.desktop.controller.report;
 
 import com.lestarieragemilang.desktop.model.Returns;
+import com.lestarieragemilang.desktop.repository.GenericDao;
+import com.lestarieragemilang.desktop.repository.PageSort;
+import com.lestarieragemilang.desktop.repository.SearchFilter;
 import com.lestarieragemilang.desktop.utils.TableUtils;
-import com.lestarieragemilang.desktop.utils.HibernateUtil;
 import com.lestarieragemilang.desktop.utils.JasperLoader;
+import com.lestarieragemilang.desktop.utils.PagedTableLoader;
 import com.lestarieragemilang.desktop.utils.ShowAlert;
 
 import javafx.collections.FXCollections;
-import javafx.collections.transformation.FilteredList;
 import javafx.fxml.FXML;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.TextField;
 import javafx.scene.input.MouseEvent;
-import org.hibernate.Session;
-import org.hibernate.query.Query;
 
 import java.net.URL;
 import java.util.List;
@@ -26,7 +26,9 @@ public class ReportReturn {
     @FXML
     private TextField returnSearchField;
 
-    private FilteredList<Returns> filteredData;
+    private PagedTableLoader<Returns> returnPages;
+    private volatile SearchFilter searchFilter;
+    private final GenericDao<Returns> returnsDao = new GenericDao<>(Returns.class);
 
     @FXML
     void printJasperReturn(MouseEvent event) {
@@ -79,49 +81,40 @@ public class ReportReturn {
 
     @FXML
     void returnSearch() {
-        String searchText = returnSearchField.getText().toLowerCase();
-        filteredData.setPredicate(returns -> {
-            if (searchText == null || searchText.isEmpty()) {
-                return true;
-            }
-            return returns.getReturnId().toLowerCase().contains(searchText) ||
-                    returns.getReturnType().toLowerCase().contains(searchText) ||
-                    returns.getInvoiceNumber().toLowerCase().contains(searchText) ||
-                    returns.getReason().toLowerCase().contains(searchText);
-        });
+        String searchText = returnSearchField.getText().trim();
+        searchFilter = searchText.isEmpty() ? null
+                : SearchFilter.containsAny(searchText, "returnId", "returnType", "invoiceNumber", "reason");
+        returnPages.reload();
     }
 
     @FXML
     void initialize() {
-        List<Returns> returns = fetchReturnsFromDatabase();
-        setupTable(returns);
+        setupTable();
         setupSearch();
     }
 
-    private List<Returns> fetchReturnsFromDatabase() {
-        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-            Query<Returns> query = session.createQuery("FROM Returns", Returns.class);
-            return query.list();
+    private List<Returns> fetchReturnPage(Object afterKey, int limit) {
+        try {
+            return returnsDao.findPage(searchFilter, afterKey, limit, PageSort.BY_ID);
         } catch (Exception e) {
             e.printStackTrace();
             return FXCollections.emptyObservableList();
         }
     }
 
-    private void setupTable(List<Returns> returns) {
+    private void setupTable() {
         List<TableColumn<Returns, ?>> columns = List.of(
                 TableUtils.createColumn("Kode Retur", "returnId"),
                 TableUtils.createColumn("Tanggal Retur", "returnDate"),
                 TableUtils.createColumn("Tipe Retur", "returnType"),
                 TableUtils.createColumn("Nomor Faktur", "invoiceNumber"),
                 TableUtils.createColumn("Alasan", "reason"));
+        returnPages = new PagedTableLoader<>(returnTable, this::fetchReturnPage, Returns::getId);
 
-        TableUtils.populateTable(returnTable, columns, returns);
+        TableUtils.populateTable(returnTable, columns, returnPages);
     }
 
     private void setupSearch() {
-        filteredData = new FilteredList<>(returnTable.getItems(), _ -> true);
-        returnTable.setItems(filteredData);
         returnSearchField.textProperty().addListener((_, _, _) -> returnSearch());
     }
 }
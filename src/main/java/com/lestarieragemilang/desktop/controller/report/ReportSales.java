@@ -6,25 +6,30 @@ import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.math.BigDecimal;
 
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
-import javafx.collections.transformation.FilteredList;
 import javafx.fxml.FXML;
 import javafx.scene.control.DatePicker;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.TextField;
 import javafx.scene.input.MouseEvent;
+import javafx.scene.text.Text;
 import javafx.scene.control.Alert.AlertType;
 
-import org.hibernate.Session;
-import org.hibernate.query.Query;
-
 import com.lestarieragemilang.desktop.model.Sales;
+import com.lestarieragemilang.desktop.model.SalesRow;
+import com.lestarieragemilang.desktop.repository.GenericDao;
+import com.lestarieragemilang.desktop.repository.PageSort;
+import com.lestarieragemilang.desktop.repository.SearchFilter;
+import com.lestarieragemilang.desktop.repository.SummaryDao;
+import com.lestarieragemilang.desktop.service.GenericService;
 import com.lestarieragemilang.desktop.utils.TableUtils;
-import com.lestarieragemilang.desktop.utils.HibernateUtil;
 import com.lestarieragemilang.desktop.utils.JasperLoader;
+import com.lestarieragemilang.desktop.utils.PagedTableLoader;
 import com.lestarieragemilang.desktop.utils.ShowAlert;
 
 public class ReportSales {
@@ -39,36 +44,42 @@ public class ReportSales {
   private TextField SellListSearchField;
 
   @FXML
-  private TableColumn<Sales, String> sellBrandCol;
+  private TableColumn<SalesRow, String> sellBrandCol;
+
+  @FXML
+  private TableColumn<SalesRow, LocalDate> sellDateCol;
 
   @FXML
-  private TableColumn<Sales, LocalDate> sellDateCol;
+  private TableColumn<SalesRow, String> sellInvoiceCol;
 
   @FXML
-  private TableColumn<Sales, String> sellInvoiceCol;
+  private TableColumn<SalesRow, String> sellCustomerCol;
 
   @FXML
-  private TableColumn<Sales, String> sellCustomerCol;
+  private TableColumn<SalesRow, Integer> sellQuantityCol;
 
   @FXML
-  private TableColumn<Sales, Integer> sellQuantityCol;
+  private TableColumn<SalesRow, BigDecimal> sellPriceCol;
 
   @FXML
-  private TableColumn<Sales, BigDecimal> sellPriceCol;
+  private TableColumn<SalesRow, BigDecimal> sellSubTotalCol;
 
   @FXML
-  private TableColumn<Sales, BigDecimal> sellSubTotalCol;
+  private TableView<SalesRow> sellTable;
 
   @FXML
-  private TableView<Sales> sellTable;
+  private Text sellTotalsText;
 
   @FXML
-  private TableColumn<Sales, BigDecimal> sellTotalCol;
+  private TableColumn<SalesRow, BigDecimal> sellTotalCol;
 
   @FXML
-  private TableColumn<Sales, String> sellTypeCol;
+  private TableColumn<SalesRow, String> sellTypeCol;
 
-  private FilteredList<Sales> filteredData;
+  private PagedTableLoader<SalesRow> salesPages;
+  private volatile SearchFilter searchFilter;
+  private final SummaryDao summaryDao = new SummaryDao();
+  private final GenericDao<Sales> salesDao = new GenericDao<>(Sales.class);
 
   @FXML
   void printJasperSellList(MouseEvent event) {
@@ -136,49 +147,72 @@ public class ReportSales {
 
   @FXML
   void sellSearch() {
-    String searchText = SellListSearchField.getText().toLowerCase();
-    filteredData.setPredicate(sell ->
-        searchText.isEmpty() ||
-        String.valueOf(sell.getInvoiceNumber()).toLowerCase().contains(searchText)
-    );
+    String searchText = SellListSearchField.getText().trim();
+    searchFilter = searchText.isEmpty() ? null
+        : SearchFilter.containsAny(searchText, "invoiceNumber");
+    salesPages.reload();
   }
 
   @FXML
   void initialize() throws SQLException {
-    List<Sales> sales = fetchSalesFromDatabase();
-    setupTable(sales);
+    setupTable();
     setupSearch();
     setupDateSearchMutualExclusion();
+    setupTotals();
+  }
+
+  private void setupTotals() {
+    SellListDateFirstField.valueProperty().addListener((_, _, _) -> loadTotals());
+    SellListDateSecondField.valueProperty().addListener((_, _, _) -> loadTotals());
+    loadTotals();
   }
 
-  private List<Sales> fetchSalesFromDatabase() {
-    try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-      Query<Sales> query = session.createQuery("FROM Sales", Sales.class);
-      return query.list();
+  /**
+   * Shows the totals of the selected days, read from the summary tables.
+   */
+  private void loadTotals() {
+    LocalDate from = SellListDateFirstField.getValue();
+    LocalDate to = SellListDateSecondField.getValue();
+    CompletableFuture.supplyAsync(() -> summaryDao.salesTotals(from, to), GenericService.asyncExecutor())
+        .thenAcceptAsync(totals -> sellTotalsText.setText(describe(totals)), Platform::runLater)
+        .exceptionally(e -> {
+          Platform.runLater(() -> sellTotalsText.setText("Total penjualan tidak tersedia"));
+          return null;
+        });
+  }
+
+  private static String describe(SummaryDao.Totals totals) {
+    return String.format("Total penjualan: %d baris, %d unit, %s (retur %d unit, %s)",
+        totals.lines(), totals.quantity(), TableUtils.formatCurrency(totals.amount()),
+        totals.returnedQuantity(), TableUtils.formatCurrency(totals.returnedAmount()));
+  }
+
+  private List<SalesRow> fetchSalesPage(Object afterKey, int limit) {
+    try {
+      return salesDao.findPage(SalesRow.PROJECTION, searchFilter, afterKey, limit, PageSort.BY_ID);
     } catch (Exception e) {
       e.printStackTrace();
       return FXCollections.emptyObservableList();
     }
   }
 
-  private void setupTable(List<Sales> sales) {
-    List<TableColumn<Sales, ?>> columns = List.of(
+  private void setupTable() {
+    List<TableColumn<SalesRow, ?>> columns = List.of(
         TableUtils.createColumn("Tanggal", "saleDate"),
         TableUtils.createColumn("Nomor Faktur", "invoiceNumber"),
-        TableUtils.createColumn("Pelanggan", "customer.customerName"),
-        TableUtils.createColumn("Stok", "stock.category.brand"),
+        TableUtils.createColumn("Pelanggan", "customerName"),
+        TableUtils.createColumn("Stok", "brand"),
         TableUtils.createColumn("Jumlah", "quantity"),
         TableUtils.createFormattedColumn("Harga", "price"),
         TableUtils.createFormattedColumn("Sub Total", "subTotal"),
         TableUtils.createFormattedColumn("Total", "priceTotal")
     );
+    salesPages = new PagedTableLoader<>(sellTable, this::fetchSalesPage, SalesRow::id);
 
-    TableUtils.populateTable(sellTable, columns, sales);
+    TableUtils.populateTable(sellTable, columns, salesPages);
   }
 
   private void setupSearch() {
-    filteredData = new FilteredList<>(sellTable.getItems(), _ -> true);
-    sellTable.setItems(filteredData);
     SellListSearchField.textProperty().addListener((_, _, _) -> sellSearch());
   }
 
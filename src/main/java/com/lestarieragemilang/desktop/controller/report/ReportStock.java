@@ -1,20 +1,21 @@
 package com.lestarieragemilang.desktop.controller.report;
 
 import com.lestarieragemilang.desktop.model.Stock;
+import com.lestarieragemilang.desktop.model.StockRow;
+import com.lestarieragemilang.desktop.repository.GenericDao;
+import com.lestarieragemilang.desktop.repository.PageSort;
+import com.lestarieragemilang.desktop.repository.SearchFilter;
 import com.lestarieragemilang.desktop.utils.TableUtils;
-import com.lestarieragemilang.desktop.utils.HibernateUtil;
 import com.lestarieragemilang.desktop.utils.JasperLoader;
+import com.lestarieragemilang.desktop.utils.PagedTableLoader;
 import com.lestarieragemilang.desktop.utils.ShowAlert;
 
 import javafx.collections.FXCollections;
-import javafx.collections.transformation.FilteredList;
 import javafx.fxml.FXML;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.TextField;
 import javafx.scene.input.MouseEvent;
-import org.hibernate.Session;
-import org.hibernate.query.Query;
 
 import java.net.URL;
 import java.util.List;
@@ -22,11 +23,13 @@ import java.util.List;
 public class ReportStock {
 
   @FXML
-  private TableView<Stock> stockTable;
+  private TableView<StockRow> stockTable;
   @FXML
   private TextField stockSearchField;
 
-  private FilteredList<Stock> filteredData;
+  private PagedTableLoader<StockRow> stockPages;
+  private volatile SearchFilter searchFilter;
+  private final GenericDao<Stock> stockDao = new GenericDao<>(Stock.class);
 
   @FXML
   void printJasperStock(MouseEvent event) {
@@ -59,18 +62,18 @@ public class ReportStock {
             "%" + searchText + "%",
             event);
       } else {
-        Stock stock = stockTable.getSelectionModel().getSelectedItem();
+        StockRow stock = stockTable.getSelectionModel().getSelectedItem();
         if (stock != null) {
           loader.showJasperReportStock(
               url,
-              stock.getCategory().getBrand(),
-              stock.getCategory().getProductType(),
-              stock.getCategory().getSize(),
-              stock.getCategory().getWeight().toString(),
-              stock.getCategory().getWeightUnit(),
-              stock.getQuantity().toString(),
-              stock.getPurchasePrice().toString(),
-              stock.getSellingPrice().toString(),
+              stock.brand(),
+              stock.productType(),
+              stock.size(),
+              stock.weight().toString(),
+              stock.weightUnit(),
+              stock.quantity().toString(),
+              stock.purchasePrice().toString(),
+              stock.sellingPrice().toString(),
               event);
         } else {
           loader.showJasperReportStock(
@@ -85,59 +88,45 @@ public class ReportStock {
 
   @FXML
   void stockSearch() {
-    String searchText = stockSearchField.getText().toLowerCase();
-    filteredData.setPredicate(stock -> {
-      if (searchText == null || searchText.isEmpty()) {
-        return true;
-      }
-      return stock.getStockId().toLowerCase().contains(searchText) ||
-          stock.getCategory().getBrand().toLowerCase().contains(searchText) ||
-          stock.getCategory().getProductType().toLowerCase().contains(searchText) ||
-          stock.getCategory().getSize().toLowerCase().contains(searchText) ||
-          (stock.getCategory().getWeightUnit() != null &&
-              stock.getCategory().getWeightUnit().toLowerCase().contains(searchText))
-          ||
-          stock.getQuantity().toString().toLowerCase().contains(searchText) ||
-          stock.getPurchasePrice().toString().toLowerCase().contains(searchText) ||
-          stock.getSellingPrice().toString().toLowerCase().contains(searchText);
-    });
+    String searchText = stockSearchField.getText().trim();
+    searchFilter = searchText.isEmpty() ? null
+        : SearchFilter.containsAny(searchText, "stockId", "category.brand", "category.productType", "category.size",
+            "category.weightUnit", "quantity", "purchasePrice", "sellingPrice");
+    stockPages.reload();
   }
 
   @FXML
   void initialize() {
-    List<Stock> stocks = fetchStocksFromDatabase();
-    setupTable(stocks);
+    setupTable();
     setupSearch();
   }
 
-  private List<Stock> fetchStocksFromDatabase() {
-    try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-      Query<Stock> query = session.createQuery("FROM Stock", Stock.class);
-      return query.list();
+  private List<StockRow> fetchStockPage(Object afterKey, int limit) {
+    try {
+      return stockDao.findPage(StockRow.PROJECTION, searchFilter, afterKey, limit, PageSort.BY_ID);
     } catch (Exception e) {
       e.printStackTrace();
       return FXCollections.emptyObservableList();
     }
   }
 
-  private void setupTable(List<Stock> stocks) {
-    List<TableColumn<Stock, ?>> columns = List.of(
+  private void setupTable() {
+    List<TableColumn<StockRow, ?>> columns = List.of(
         TableUtils.createColumn("Kode Stok", "stockId"),
-        TableUtils.createColumn("Merek", "category.brand"),
-        TableUtils.createColumn("Tipe Produk", "category.productType"),
-        TableUtils.createColumn("Ukuran", "category.size"),
-        TableUtils.createColumn("Berat", "category.weight"),
-        TableUtils.createColumn("Satuan Berat", "category.weightUnit"),
+        TableUtils.createColumn("Merek", "brand"),
+        TableUtils.createColumn("Tipe Produk", "productType"),
+        TableUtils.createColumn("Ukuran", "size"),
+        TableUtils.createColumn("Berat", "weight"),
+        TableUtils.createColumn("Satuan Berat", "weightUnit"),
         TableUtils.createColumn("Jumlah", "quantity"),
         TableUtils.createFormattedColumn("Harga Beli", "purchasePrice"),
         TableUtils.createFormattedColumn("Harga Jual", "sellingPrice"));
+    stockPages = new PagedTableLoader<>(stockTable, this::fetchStockPage, StockRow::id);
 
-    TableUtils.populateTable(stockTable, columns, stocks);
+    TableUtils.populateTable(stockTable, columns, stockPages);
   }
 
   private void setupSearch() {
-    filteredData = new FilteredList<>(stockTable.getItems(), _ -> true);
-    stockTable.setItems(filteredData);
     stockSearchField.textProperty().addListener((_, _, _) -> stockSearch());
   }
 }
\ No newline at end of file
@@ -1,7 +1,6 @@
 package com.lestarieragemilang.desktop.controller.report;
 
 import javafx.collections.FXCollections;
-import javafx.collections.transformation.FilteredList;
 import javafx.fxml.FXML;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
@@ -9,18 +8,22 @@ import javafx.scene.control.TextField;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.control.Alert.AlertType;
 
+import java.math.BigDecimal;
 import java.net.URL;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import org.hibernate.Session;
-import org.hibernate.query.Query;
-
 import com.lestarieragemilang.desktop.model.Supplier;
+import com.lestarieragemilang.desktop.repository.GenericDao;
+import com.lestarieragemilang.desktop.repository.PageSort;
+import com.lestarieragemilang.desktop.repository.SearchFilter;
+import com.lestarieragemilang.desktop.repository.SummaryDao;
 import com.lestarieragemilang.desktop.utils.TableUtils;
-import com.lestarieragemilang.desktop.utils.HibernateUtil;
 import com.lestarieragemilang.desktop.utils.JasperLoader;
+import com.lestarieragemilang.desktop.utils.PagedTableLoader;
 import com.lestarieragemilang.desktop.utils.ShowAlert;
 
 public class ReportSupplier {
@@ -32,7 +35,12 @@ public class ReportSupplier {
   @FXML
   private TextField supplierSearchField;
 
-  private FilteredList<Supplier> filteredData;
+  private PagedTableLoader<Supplier> supplierPages;
+  private volatile SearchFilter searchFilter;
+  private final GenericDao<Supplier> supplierDao = new GenericDao<>(Supplier.class);
+  private final SummaryDao summaryDao = new SummaryDao();
+  // Net totals of the loaded rows, read from the summary tables with each page
+  private final Map<Long, BigDecimal> netTotals = new ConcurrentHashMap<>();
 
   @FXML
   void printJasperSupplier(MouseEvent event) {
@@ -93,50 +101,45 @@ public class ReportSupplier {
 
   @FXML
   void supplierSearch() {
-    String searchText = supplierSearchField.getText().toLowerCase();
-    filteredData.setPredicate(supplier -> {
-      if (searchText == null || searchText.isEmpty()) {
-        return true;
-      }
-      return supplier.getSupplierId().toLowerCase().contains(searchText) ||
-          supplier.getSupplierName().toLowerCase().contains(searchText) ||
-          supplier.getContact().toLowerCase().contains(searchText) ||
-          supplier.getAddress().toLowerCase().contains(searchText) ||
-          supplier.getEmail().toLowerCase().contains(searchText);
-    });
+    String searchText = supplierSearchField.getText().trim();
+    searchFilter = searchText.isEmpty() ? null
+        : SearchFilter.containsAny(searchText, "supplierId", "supplierName", "contact", "address", "email");
+    supplierPages.reload();
   }
 
   @FXML
   void initialize() {
-    List<Supplier> suppliers = fetchSuppliersFromDatabase();
-    setupTable(suppliers);
+    setupTable();
     setupSearch();
   }
 
-  private List<Supplier> fetchSuppliersFromDatabase() {
-    try (Session session = HibernateUtil.getSessionFactory().openSession()) {
-      Query<Supplier> query = session.createQuery("FROM Supplier", Supplier.class);
-      return query.list();
+  private List<Supplier> fetchSupplierPage(Object afterKey, int limit) {
+    try {
+      List<Supplier> page = supplierDao.findPage(searchFilter, afterKey, limit, PageSort.BY_ID);
+      summaryDao.supplierTotals(page.stream().map(Supplier::getId).toList())
+          .forEach((id, totals) -> netTotals.put(id, totals.netAmount()));
+      return page;
     } catch (Exception e) {
       e.printStackTrace();
       return FXCollections.emptyObservableList();
     }
   }
 
-  private void setupTable(List<Supplier> suppliers) {
+  private void setupTable() {
     List<TableColumn<Supplier, ?>> columns = List.of(
         TableUtils.createColumn("Kode Pemasok", "supplierId"),
         TableUtils.createColumn("Nama", "supplierName"),
         TableUtils.createColumn("Kontak", "contact"),
         TableUtils.createColumn("Alamat", "address"),
-        TableUtils.createColumn("Surel", "email"));
+        TableUtils.createColumn("Surel", "email"),
+        TableUtils.<Supplier>createFormattedColumn("Total Pembelian",
+            supplier -> netTotals.getOrDefault(supplier.getId(), BigDecimal.ZERO)));
+    supplierPages = new PagedTableLoader<>(supplierTable, this::fetchSupplierPage, Supplier::getId);
 
-    TableUtils.populateTable(supplierTable, columns, suppliers);
+    TableUtils.populateTable(supplierTable, columns, supplierPages);
   }
 
   private void setupSearch() {
-    filteredData = new FilteredList<>(supplierTable.getItems(), _ -> true);
-    supplierTable.setItems(filteredData);
     supplierSearchField.textProperty().addListener((_, _, _) -> supplierSearch());
   }
 }
\ No newline at end of file
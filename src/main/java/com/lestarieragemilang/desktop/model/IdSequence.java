@@ -0,0 +1,39 @@
+package com.lestarieragemilang.desktop.model;
+
+import jakarta.persistence.*;
+
+@Entity
+@Table(name = "id_sequences")
+public class IdSequence {
+    @Id
+    @Column(length = 40)
+    private String name;
+
+    @Column(name = "next_value", nullable = false)
+    private Long nextValue;
+
+    public IdSequence() {
+    }
+
+    public IdSequence(String name, Long nextValue) {
+        this.name = name;
+        this.nextValue = nextValue;
+    }
+
+    // Getters and setters
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Long getNextValue() {
+        return nextValue;
+    }
+
+    public void setNextValue(Long nextValue) {
+        this.nextValue = nextValue;
+    }
+}
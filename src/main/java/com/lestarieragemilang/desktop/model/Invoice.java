@@ -0,0 +1,156 @@
+package com.lestarieragemilang.desktop.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Header of a confirmed sales or purchase invoice. The number, date, party
+ * and totals are stored once here; the items are {@link InvoiceLine}s.
+ * {@link Sales} and {@link Purchasing} are read-only line views joining both.
+ */
+@Entity
+@NamedEntityGraph(name = "Invoice.list", attributeNodes = {
+        @NamedAttributeNode("customer"),
+        @NamedAttributeNode("supplier")
+})
+@Table(name = "invoices")
+public class Invoice {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "invoice_number", nullable = false)
+    private String invoiceNumber;
+
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(name = "invoice_type", nullable = false, length = 10)
+    private InvoiceType type;
+
+    @Column(name = "invoice_date", nullable = false)
+    private LocalDate invoiceDate;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "customer_id")
+    private Customer customer;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "supplier_id")
+    private Supplier supplier;
+
+    @Column(name = "line_count", nullable = false)
+    private Integer lineCount = 0;
+
+    @Column(name = "total_amount", nullable = false, precision = 14, scale = 2)
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+
+    @OneToMany(mappedBy = "invoice")
+    @OrderBy("id")
+    private List<InvoiceLine> lines = new ArrayList<>();
+
+    public Invoice() {
+    }
+
+    public Invoice(InvoiceType type, String invoiceNumber, LocalDate invoiceDate) {
+        this.type = type;
+        this.invoiceNumber = invoiceNumber;
+        this.invoiceDate = invoiceDate;
+    }
+
+    /**
+     * Adds a line to this invoice and to its line count and total amount.
+     *
+     * @param line The new, not yet persisted line
+     */
+    public void addLine(InvoiceLine line) {
+        line.setInvoice(this);
+        lines.add(line);
+        lineCount = lines.size();
+        totalAmount = totalAmount.add(line.getSubTotal());
+    }
+
+    // toString invoice
+    @Override
+    public String toString() {
+        return invoiceNumber;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getInvoiceNumber() {
+        return invoiceNumber;
+    }
+
+    public void setInvoiceNumber(String invoiceNumber) {
+        this.invoiceNumber = invoiceNumber;
+    }
+
+    public InvoiceType getType() {
+        return type;
+    }
+
+    public void setType(InvoiceType type) {
+        this.type = type;
+    }
+
+    public LocalDate getInvoiceDate() {
+        return invoiceDate;
+    }
+
+    public void setInvoiceDate(LocalDate invoiceDate) {
+        this.invoiceDate = invoiceDate;
+    }
+
+    public Customer getCustomer() {
+        return customer;
+    }
+
+    public void setCustomer(Customer customer) {
+        this.customer = customer;
+    }
+
+    public Supplier getSupplier() {
+        return supplier;
+    }
+
+    public void setSupplier(Supplier supplier) {
+        this.supplier = supplier;
+    }
+
+    public Integer getLineCount() {
+        return lineCount;
+    }
+
+    public void setLineCount(Integer lineCount) {
+        this.lineCount = lineCount;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
+    public List<InvoiceLine> getLines() {
+        return lines;
+    }
+
+    public void setLines(List<InvoiceLine> lines) {
+        this.lines = lines;
+    }
+}
@@ -0,0 +1,119 @@
+package com.lestarieragemilang.desktop.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+
+/**
+ * One item of an {@link Invoice}: the stock item, quantity and price.
+ */
+@Entity
+@NamedEntityGraph(name = "InvoiceLine.list", attributeNodes = @NamedAttributeNode(value = "stock", subgraph = "stock"),
+        subgraphs = @NamedSubgraph(name = "stock", attributeNodes = @NamedAttributeNode("category")))
+@Table(name = "invoice_lines")
+public class InvoiceLine {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "invoice_id", nullable = false)
+    private Invoice invoice;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "stock_id", nullable = false)
+    private Stock stock;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal price;
+
+    @Column(name = "sub_total", nullable = false, precision = 10, scale = 2)
+    private BigDecimal subTotal;
+
+    // Brand and type as sold; the stock's category may be renamed later
+    @Column(nullable = false, length = 50)
+    private String brand;
+
+    @Column(name = "product_type", nullable = false, length = 50)
+    private String productType;
+
+    public InvoiceLine() {
+    }
+
+    public InvoiceLine(Stock stock, Integer quantity, BigDecimal price, BigDecimal subTotal, String brand,
+            String productType) {
+        this.stock = stock;
+        this.quantity = quantity;
+        this.price = price;
+        this.subTotal = subTotal;
+        this.brand = brand;
+        this.productType = productType;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Invoice getInvoice() {
+        return invoice;
+    }
+
+    public void setInvoice(Invoice invoice) {
+        this.invoice = invoice;
+    }
+
+    public Stock getStock() {
+        return stock;
+    }
+
+    public void setStock(Stock stock) {
+        this.stock = stock;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
+    public BigDecimal getSubTotal() {
+        return subTotal;
+    }
+
+    public void setSubTotal(BigDecimal subTotal) {
+        this.subTotal = subTotal;
+    }
+
+    public String getBrand() {
+        return brand;
+    }
+
+    public void setBrand(String brand) {
+        this.brand = brand;
+    }
+
+    public String getProductType() {
+        return productType;
+    }
+
+    public void setProductType(String productType) {
+        this.productType = productType;
+    }
+}
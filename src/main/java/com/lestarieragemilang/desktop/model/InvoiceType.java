@@ -0,0 +1,26 @@
+package com.lestarieragemilang.desktop.model;
+
+/**
+ * Kind of an {@link Invoice}, stored by name in {@code invoices.invoice_type}.
+ */
+public enum InvoiceType {
+    /** A sales invoice to a customer, numbered "JUL-...". */
+    SALE("JUL"),
+    /** A purchase invoice from a supplier, numbered "BLI-...". */
+    PURCHASE("BLI");
+
+    private final String prefix;
+
+    InvoiceType(String prefix) {
+        this.prefix = prefix;
+    }
+
+    /**
+     * Returns the document prefix of the invoice numbers of this type.
+     *
+     * @return "JUL" or "BLI"
+     */
+    public String getPrefix() {
+        return prefix;
+    }
+}
@@ -1,10 +1,23 @@
 package com.lestarieragemilang.desktop.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
+/**
+ * One line of a confirmed purchase invoice, read from the {@code purchasing} view over
+ * {@link Invoice} and {@link InvoiceLine}. The view cannot be written:
+ * confirmation stores the header and lines (see TransactionService), and
+ * new instances of this class only serve as pending lines on the
+ * transaction screen.
+ */
 @Entity
+@Immutable
+@NamedEntityGraph(name = "Purchasing.list", attributeNodes = {
+        @NamedAttributeNode(value = "stock", subgraph = "stock"),
+        @NamedAttributeNode("supplier")
+}, subgraphs = @NamedSubgraph(name = "stock", attributeNodes = @NamedAttributeNode("category")))
 @Table(name = "purchasing")
 public class Purchasing {
     @Id
@@ -14,14 +27,14 @@ public class Purchasing {
     @Column(name = "purchase_date", nullable = false)
     private LocalDate purchaseDate;
 
-    @Column(name = "invoice_number", unique = true, nullable = false)
+    @Column(name = "invoice_number", nullable = false)
     private String invoiceNumber;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "stock_id", nullable = false)
     private Stock stock;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "supplier_id", nullable = false)
     private Supplier supplier;
 
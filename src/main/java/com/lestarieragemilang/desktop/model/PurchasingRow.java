@@ -0,0 +1,33 @@
+package com.lestarieragemilang.desktop.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import com.lestarieragemilang.desktop.repository.Projection;
+
+/**
+ * One line of the purchasing report: a {@link Purchasing} with the supplier
+ * name and the brand of the stock bought.
+ */
+public record PurchasingRow(
+        Long id,
+        LocalDate purchaseDate,
+        String invoiceNumber,
+        String supplierName,
+        String brand,
+        Integer quantity,
+        BigDecimal price,
+        BigDecimal subTotal,
+        BigDecimal priceTotal) {
+
+    public static final Projection<PurchasingRow> PROJECTION = Projection.of(PurchasingRow.class,
+            "id",
+            "purchaseDate",
+            "invoiceNumber",
+            "supplier.supplierName",
+            "stock.category.brand",
+            "quantity",
+            "price",
+            "subTotal",
+            "priceTotal");
+}
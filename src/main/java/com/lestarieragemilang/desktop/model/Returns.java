@@ -1,9 +1,12 @@
 package com.lestarieragemilang.desktop.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import java.time.LocalDate;
 
 @Entity
+@DynamicUpdate
+@NamedEntityGraph(name = "Returns.list", attributeNodes = @NamedAttributeNode("reason"))
 @Table(name = "returns")
 public class Returns {
     @Id
@@ -22,6 +25,14 @@ public class Returns {
     @Column(name = "invoice_number", nullable = false)
     private String invoiceNumber;
 
+    // The returned invoice line and quantity; null on returns recorded before V006
+    @Column(name = "invoice_line_id")
+    private Long invoiceLineId;
+
+    @Column(name = "quantity")
+    private Integer quantity;
+
+    @Basic(fetch = FetchType.LAZY)
     @Column(nullable = false, columnDefinition = "TEXT")
     private String reason;
 
@@ -66,6 +77,22 @@ public class Returns {
         this.invoiceNumber = invoiceNumber;
     }
 
+    public Long getInvoiceLineId() {
+        return invoiceLineId;
+    }
+
+    public void setInvoiceLineId(Long invoiceLineId) {
+        this.invoiceLineId = invoiceLineId;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(Integer quantity) {
+        this.quantity = quantity;
+    }
+
     public String getReason() {
         return reason;
     }
@@ -1,10 +1,23 @@
 package com.lestarieragemilang.desktop.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
+/**
+ * One line of a confirmed sales invoice, read from the {@code sales} view over
+ * {@link Invoice} and {@link InvoiceLine}. The view cannot be written:
+ * confirmation stores the header and lines (see TransactionService), and
+ * new instances of this class only serve as pending lines on the
+ * transaction screen.
+ */
 @Entity
+@Immutable
+@NamedEntityGraph(name = "Sales.list", attributeNodes = {
+        @NamedAttributeNode(value = "stock", subgraph = "stock"),
+        @NamedAttributeNode("customer")
+}, subgraphs = @NamedSubgraph(name = "stock", attributeNodes = @NamedAttributeNode("category")))
 @Table(name = "sales")
 public class Sales {
     @Id
@@ -14,14 +27,14 @@ public class Sales {
     @Column(name = "sale_date", nullable = false)
     private LocalDate saleDate;
 
-    @Column(name = "invoice_number", unique = true, nullable = false)
+    @Column(name = "invoice_number", nullable = false)
     private String invoiceNumber;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "stock_id", nullable = false)
     private Stock stock;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "customer_id", nullable = false)
     private Customer customer;
 
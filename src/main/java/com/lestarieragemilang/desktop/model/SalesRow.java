@@ -0,0 +1,33 @@
+package com.lestarieragemilang.desktop.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import com.lestarieragemilang.desktop.repository.Projection;
+
+/**
+ * One line of the sales report: a {@link Sales} with the customer name and
+ * the brand of the stock sold.
+ */
+public record SalesRow(
+        Long id,
+        LocalDate saleDate,
+        String invoiceNumber,
+        String customerName,
+        String brand,
+        Integer quantity,
+        BigDecimal price,
+        BigDecimal subTotal,
+        BigDecimal priceTotal) {
+
+    public static final Projection<SalesRow> PROJECTION = Projection.of(SalesRow.class,
+            "id",
+            "saleDate",
+            "invoiceNumber",
+            "customer.customerName",
+            "stock.category.brand",
+            "quantity",
+            "price",
+            "subTotal",
+            "priceTotal");
+}
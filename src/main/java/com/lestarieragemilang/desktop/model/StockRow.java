@@ -0,0 +1,36 @@
+package com.lestarieragemilang.desktop.model;
+
+import java.math.BigDecimal;
+
+import com.lestarieragemilang.desktop.repository.Projection;
+
+/**
+ * One line of the stock tables: a {@link Stock} flattened together with the
+ * category columns it is listed with.
+ */
+public record StockRow(
+        Long id,
+        String stockId,
+        String categoryId,
+        String brand,
+        String productType,
+        String size,
+        BigDecimal weight,
+        String weightUnit,
+        Integer quantity,
+        BigDecimal purchasePrice,
+        BigDecimal sellingPrice) {
+
+    public static final Projection<StockRow> PROJECTION = Projection.of(StockRow.class,
+            "id",
+            "stockId",
+            "category.categoryId",
+            "category.brand",
+            "category.productType",
+            "category.size",
+            "category.weight",
+            "category.weightUnit",
+            "quantity",
+            "purchasePrice",
+            "sellingPrice");
+}
@@ -1,8 +1,15 @@
 package com.lestarieragemilang.desktop.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@DynamicUpdate
+@NamedEntityGraph(name = "Supplier.list", attributeNodes = @NamedAttributeNode("address"))
 @Table(name = "suppliers")
 public class Supplier {
     @Id
@@ -18,6 +25,7 @@ public class Supplier {
     @Column(nullable = false, length = 50)
     private String contact;
 
+    @Basic(fetch = FetchType.LAZY)
     @Column(nullable = false, columnDefinition = "TEXT")
     private String address;
 
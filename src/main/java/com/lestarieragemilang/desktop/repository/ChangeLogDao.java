@@ -0,0 +1,232 @@
+package com.lestarieragemilang.desktop.repository;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.query.MutationQuery;
+import org.hibernate.query.NativeQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.lestarieragemilang.desktop.utils.DatabaseHealthMonitor;
+import com.lestarieragemilang.desktop.utils.HibernateUtil;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Reads and writes the {@code change_log} table, the feed through which
+ * terminals sharing the database learn about each other's writes.
+ *
+ * <p>Every write records one row per changed entity inside its own
+ * transaction, so a row becomes visible exactly when the change commits.
+ * Rows carry the {@link #ORIGIN} of the writing JVM, which lets a terminal
+ * skip its own changes. The table is only read by primary key range, which
+ * keeps polling cheap.
+ */
+public class ChangeLogDao {
+    private static final Logger logger = LoggerFactory.getLogger(ChangeLogDao.class);
+
+    /**
+     * Identifies this JVM in the rows it writes. Drawn per process, so two
+     * instances on one machine still see each other's changes.
+     */
+    public static final String ORIGIN = UUID.randomUUID().toString();
+
+    private static final String TABLE = "change_log";
+
+    private static volatile Long seenSeq;
+
+    /**
+     * One row of the change log.
+     *
+     * @param seq       The sequence number, increasing in insert order
+     * @param entity    The entity name, e.g. "Stock"
+     * @param entityId  The primary key of the changed row, or null
+     * @param operation How the row changed
+     * @param origin    The {@link #ORIGIN} of the terminal that wrote it
+     */
+    public record Change(long seq, String entity, Long entityId, WriteJournal.Operation operation, String origin) {
+
+        /**
+         * Checks whether another terminal made this change.
+         *
+         * @return true unless this JVM wrote the row
+         */
+        public boolean isRemote() {
+            return !ORIGIN.equals(origin);
+        }
+    }
+
+    /**
+     * Marks the changes up to a sequence number as seen by this terminal,
+     * i.e. every screen has been told about them. Called by the change feed.
+     *
+     * @param seq The newest sequence number seen
+     */
+    public static void markSeen(long seq) {
+        seenSeq = seq;
+    }
+
+    /**
+     * Returns the newest change this terminal has seen.
+     *
+     * @return The sequence number, or null if the change log has not been
+     *         read since startup
+     */
+    public static Long seenSeq() {
+        return seenSeq;
+    }
+
+    /**
+     * Records a change of an entity inside the caller's transaction.
+     *
+     * @param session   The session of the writing transaction
+     * @param entity    The saved, updated or deleted entity
+     * @param operation How the entity changed
+     */
+    public void record(Session session, Object entity, WriteJournal.Operation operation) {
+        Object id = session.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(checkNotNull(entity));
+        record(session, Hibernate.getClass(entity), id instanceof Number number ? number.longValue() : null,
+                operation);
+    }
+
+    /**
+     * Records a change of an entity row inside the caller's transaction, for
+     * writes that bypass the entity, such as native UPDATE statements.
+     *
+     * @param session    The session of the writing transaction
+     * @param entityType The entity class of the changed row
+     * @param entityId   The primary key of the row, or null if several rows
+     *                   changed
+     * @param operation  How the row changed
+     */
+    public void record(Session session, Class<?> entityType, Long entityId, WriteJournal.Operation operation) {
+        MutationQuery insert = session.createNativeMutationQuery(
+                "INSERT INTO change_log (entity, entity_id, operation, origin)"
+                        + " VALUES (:entity, :entityId, :operation, :origin)")
+                .setParameter("entity", entityType.getSimpleName())
+                .setParameter("entityId", entityId)
+                .setParameter("operation", operation.name())
+                .setParameter("origin", ORIGIN);
+        // Only the change log is touched; no cached entity needs evicting
+        insert.unwrap(NativeQuery.class).addSynchronizedQuerySpace(TABLE);
+        insert.executeUpdate();
+    }
+
+    /**
+     * Returns the changes recorded after a sequence number, oldest first.
+     * Always reads the primary: the replica may not have the latest rows.
+     *
+     * @param afterSeq The last sequence number already seen
+     * @param limit    Maximum number of rows to return
+     * @return Up to {@code limit} changes
+     */
+    public List<Change> findAfter(long afterSeq, int limit) {
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            List<Object[]> rows = session.createNativeQuery(
+                    "SELECT seq, entity, entity_id, operation, origin FROM change_log"
+                            + " WHERE seq > :afterSeq ORDER BY seq LIMIT :limit", Object[].class)
+                    .setParameter("afterSeq", afterSeq)
+                    .setParameter("limit", limit)
+                    .getResultList();
+            return rows.stream()
+                    .map(row -> new Change(((Number) row[0]).longValue(), (String) row[1],
+                            row[2] == null ? null : ((Number) row[2]).longValue(),
+                            WriteJournal.Operation.valueOf((String) row[3]), (String) row[4]))
+                    .toList();
+        } catch (Exception e) {
+            DatabaseHealthMonitor.reportFailure(e);
+            logger.error("Error reading change log", e);
+            throw new RuntimeException("Error reading change log", e);
+        }
+    }
+
+    /**
+     * Returns the sequence number of the newest change, so a terminal that
+     * starts up only follows changes made from then on.
+     *
+     * @return The highest sequence number, or 0 if the log is empty
+     */
+    public long latestSeq() {
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            Number latest = session.createNativeQuery("SELECT COALESCE(MAX(seq), 0) FROM change_log", Number.class)
+                    .getSingleResult();
+            return latest.longValue();
+        } catch (Exception e) {
+            DatabaseHealthMonitor.reportFailure(e);
+            logger.error("Error reading change log", e);
+            throw new RuntimeException("Error reading change log", e);
+        }
+    }
+
+    /**
+     * Checks, inside the caller's transaction, whether another terminal
+     * changed a row after a sequence number.
+     *
+     * @param session    The session of the current transaction
+     * @param entityType The entity class of the row
+     * @param entityId   The primary key of the row
+     * @param afterSeq   The last sequence number known to the caller
+     * @return true if another terminal recorded a change to the row since
+     */
+    public boolean changedElsewhere(Session session, Class<?> entityType, Object entityId, long afterSeq) {
+        Number count = session.createNativeQuery(
+                "SELECT COUNT(*) FROM change_log WHERE seq > :afterSeq"
+                        + " AND entity = :entity AND entity_id = :entityId AND origin <> :origin", Number.class)
+                .setParameter("afterSeq", afterSeq)
+                .setParameter("entity", entityType.getSimpleName())
+                .setParameter("entityId", entityId)
+                .setParameter("origin", ORIGIN)
+                .getSingleResult();
+        return count.longValue() > 0;
+    }
+
+    /**
+     * Checks whether every change after a sequence number is still in the
+     * log, i.e. none of them has been purged. A rolled back number right
+     * after it also reads as purged, which errs on the safe side.
+     *
+     * @param session  The session of the current transaction
+     * @param afterSeq The last sequence number known to the caller
+     * @return true if {@link #changedElsewhere} can be trusted
+     */
+    public boolean retainsAfter(Session session, long afterSeq) {
+        Number oldest = session.createNativeQuery("SELECT MIN(seq) FROM change_log", Number.class)
+                .getSingleResult();
+        return oldest == null || oldest.longValue() <= afterSeq + 1;
+    }
+
+    /**
+     * Deletes changes older than the given number of hours, a batch at a
+     * time. Any terminal may purge; the rows are only needed until every
+     * running terminal has polled them.
+     *
+     * @param hours Age in hours after which rows are deleted
+     * @param limit Maximum number of rows to delete
+     * @return The number of rows deleted
+     */
+    public int purgeOlderThan(int hours, int limit) {
+        Transaction transaction = null;
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            transaction = session.beginTransaction();
+            MutationQuery delete = session.createNativeMutationQuery(
+                    "DELETE FROM change_log WHERE changed_at < NOW() - INTERVAL :hours HOUR LIMIT :limit")
+                    .setParameter("hours", hours)
+                    .setParameter("limit", limit);
+            delete.unwrap(NativeQuery.class).addSynchronizedQuerySpace(TABLE);
+            int deleted = delete.executeUpdate();
+            transaction.commit();
+            return deleted;
+        } catch (Exception e) {
+            if (transaction != null && transaction.isActive()) {
+                transaction.rollback();
+            }
+            DatabaseHealthMonitor.reportFailure(e);
+            logger.error("Error purging change log", e);
+            throw new RuntimeException("Error purging change log", e);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.lestarieragemilang.desktop.repository;
+
+import jakarta.persistence.Id;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.OneToOne;
+import jakarta.persistence.Transient;
+import jakarta.persistence.Version;
+
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.hibernate.proxy.HibernateProxy;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A detached, serializable copy of an entity's column values, used to store
+ * pending writes in the {@link WriteJournal}.
+ *
+ * <p>Basic attributes are copied as-is. Many-to-one and one-to-one
+ * associations are stored as the identifier of the target, so a snapshot
+ * never drags a whole object graph into the journal. Collections are
+ * skipped; they are always the inverse side in this schema. Lazy columns
+ * that were not loaded are skipped too; {@link #restore(Session)} reads their
+ * stored value back so an update does not clear them.
+ *
+ * <p>Snapshots are built from the JPA annotations on the entity fields, so
+ * they can be taken while no SessionFactory exists.
+ *
+ * @param entityClass Fully qualified name of the entity class
+ * @param id          The primary key, or null for an entity not yet saved
+ * @param values      Basic attribute values by field name
+ * @param references  Identifiers of associated entities by field name
+ */
+public record EntitySnapshot(String entityClass, Serializable id, Map<String, Serializable> values,
+        Map<String, Serializable> references) implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Thrown when an entity, or an entity it refers to, has no identifier
+     * yet, e.g. a category created offline whose insert is still in the
+     * journal. A snapshot could not tell the database which row it means.
+     */
+    public static final class UnsavedEntityException extends IllegalArgumentException {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        UnsavedEntityException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Copies the current state of an entity.
+     *
+     * @param entity The entity to copy
+     * @return The snapshot
+     * @throws UnsavedEntityException if an association refers to an entity
+     *                                   without an identifier
+     */
+    public static EntitySnapshot of(Object entity) {
+        checkNotNull(entity);
+        Class<?> type = entityType(entity);
+        Map<String, Serializable> values = new HashMap<>();
+        Map<String, Serializable> references = new HashMap<>();
+        Serializable id = null;
+        for (Field field : persistentFields(type)) {
+            Object value = read(field, entity);
+            if (field.isAnnotationPresent(Id.class)) {
+                id = (Serializable) value;
+            } else if (isAssociation(field)) {
+                Serializable targetId = value == null ? null : identifierOf(value);
+                if (value != null && targetId == null) {
+                    throw new UnsavedEntityException(String.format("Field %s.%s refers to an unsaved entity",
+                            type.getSimpleName(), field.getName()));
+                }
+                references.put(field.getName(), targetId);
+            } else if (!Collection.class.isAssignableFrom(field.getType())
+                    && Hibernate.isPropertyInitialized(entity, field.getName())) {
+                checkArgument(value == null || value instanceof Serializable,
+                        "Field %s.%s is not serializable", type.getSimpleName(), field.getName());
+                values.put(field.getName(), (Serializable) value);
+            }
+        }
+        return new EntitySnapshot(type.getName(), id, values, references);
+    }
+
+    /**
+     * Returns the entity class of this snapshot.
+     *
+     * @return The entity class
+     * @throws IllegalStateException if the class no longer exists
+     */
+    public Class<?> type() {
+        try {
+            return Class.forName(entityClass);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Unknown entity " + entityClass, e);
+        }
+    }
+
+    /**
+     * Returns the version attribute value, if the entity has one.
+     *
+     * @return The version, or null for unversioned entities
+     */
+    public Serializable version() {
+        for (Field field : persistentFields(type())) {
+            if (field.isAnnotationPresent(Version.class)) {
+                return values.get(field.getName());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Builds a detached entity from this snapshot. Associations are resolved
+     * as references in the given session without loading them.
+     *
+     * @param session The session to resolve associations in
+     * @return A new, detached entity instance
+     */
+    public Object restore(Session session) {
+        Class<?> type = type();
+        Object entity;
+        try {
+            entity = type.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot instantiate " + entityClass, e);
+        }
+        for (Field field : persistentFields(type)) {
+            String name = field.getName();
+            if (field.isAnnotationPresent(Id.class)) {
+                write(field, entity, id);
+            } else if (references.containsKey(name)) {
+                Serializable targetId = references.get(name);
+                write(field, entity, targetId == null ? null : session.getReference(field.getType(), targetId));
+            } else if (values.containsKey(name)) {
+                write(field, entity, values.get(name));
+            } else if (id != null && !isAssociation(field) && !Collection.class.isAssignableFrom(field.getType())) {
+                write(field, entity, storedValue(session, type, name));
+            }
+        }
+        return entity;
+    }
+
+    /**
+     * Reads the current database value of a lazy column that was not loaded
+     * when the snapshot was taken.
+     */
+    private Object storedValue(Session session, Class<?> type, String attribute) {
+        return session.createSelectionQuery(
+                "select e." + attribute + " from " + type.getSimpleName() + " e where e.id = :id", Object.class)
+                .setParameter("id", id)
+                .uniqueResult();
+    }
+
+    private static Class<?> entityType(Object entity) {
+        Class<?> type = entity.getClass();
+        if (entity instanceof HibernateProxy proxy) {
+            type = proxy.getHibernateLazyInitializer().getPersistentClass();
+        }
+        return type;
+    }
+
+    private static Serializable identifierOf(Object entity) {
+        if (entity instanceof HibernateProxy proxy) {
+            return (Serializable) proxy.getHibernateLazyInitializer().getIdentifier();
+        }
+        for (Field field : persistentFields(entity.getClass())) {
+            if (field.isAnnotationPresent(Id.class)) {
+                return (Serializable) read(field, entity);
+            }
+        }
+        throw new IllegalArgumentException("No @Id field on " + entity.getClass().getName());
+    }
+
+    private static boolean isAssociation(Field field) {
+        return field.isAnnotationPresent(ManyToOne.class) || field.isAnnotationPresent(OneToOne.class);
+    }
+
+    private static Iterable<Field> persistentFields(Class<?> type) {
+        Map<String, Field> fields = new HashMap<>();
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                // Skips the fields added by Hibernate's bytecode enhancement
+                if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers)
+                        && !field.isSynthetic() && !field.getName().startsWith("$$_hibernate_")
+                        && !field.isAnnotationPresent(Transient.class)) {
+                    fields.putIfAbsent(field.getName(), field);
+                }
+            }
+        }
+        return fields.values();
+    }
+
+    private static Object read(Field field, Object target) {
+        try {
+            field.setAccessible(true);
+            return field.get(target);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot read " + field.getName(), e);
+        }
+    }
+
+    private static void write(Field field, Object target, Object value) {
+        try {
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot write " + field.getName(), e);
+        }
+    }
+}
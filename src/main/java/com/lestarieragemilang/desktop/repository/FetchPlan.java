@@ -0,0 +1,46 @@
+package com.lestarieragemilang.desktop.repository;
+
+/**
+ * Selects how much of an entity's association graph a {@link GenericDao}
+ * query loads. All to-one associations are mapped LAZY; a plan names the
+ * {@code @NamedEntityGraph} (e.g. "Sales.list") whose attributes are
+ * join-fetched in the same SELECT instead of with one extra query per row.
+ * Graphs also name the lazy TEXT columns (e.g. Customer.address) a view
+ * shows, so they are selected with the row rather than one by one.
+ * Entities that declare no graph for a plan are loaded without one.
+ */
+public enum FetchPlan {
+    /**
+     * Only the entity's own eager columns; associations remain uninitialized
+     * proxies and lazy columns are not loaded. Suitable for existence checks,
+     * counts and pickers.
+     */
+    NONE(null),
+
+    /**
+     * The associations and lazy columns shown by the entity's table views.
+     */
+    LIST("list"),
+
+    /**
+     * The full association graph, for edit dialogs and exports. Falls back to
+     * {@link #LIST} for entities that declare no separate detail graph.
+     */
+    DETAIL("detail");
+
+    private final String suffix;
+
+    FetchPlan(String suffix) {
+        this.suffix = suffix;
+    }
+
+    /**
+     * Returns the name of the entity graph this plan uses for an entity.
+     *
+     * @param entityClass The entity type
+     * @return The graph name, e.g. "Sales.list", or null for {@link #NONE}
+     */
+    public String graphName(Class<?> entityClass) {
+        return suffix == null ? null : entityClass.getSimpleName() + "." + suffix;
+    }
+}
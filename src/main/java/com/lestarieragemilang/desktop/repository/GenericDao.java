@@ -1,19 +1,37 @@
 package com.lestarieragemilang.desktop.repository;
 
+import jakarta.persistence.Cacheable;
+import jakarta.persistence.EntityGraph;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
 
 import org.hibernate.Session;
-import org.hibernate.SessionFactory;
 import org.hibernate.Transaction;
 import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.graph.GraphSemantic;
+import org.hibernate.graph.RootGraph;
+import org.hibernate.jpa.SpecHints;
+import org.hibernate.query.Query;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.base.Splitter;
+import com.lestarieragemilang.desktop.utils.DatabaseHealthMonitor;
 import com.lestarieragemilang.desktop.utils.HibernateUtil;
+import com.lestarieragemilang.desktop.utils.ReadRouting;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
  * Generic Data Access Object providing basic CRUD operations for entities.
@@ -23,8 +41,15 @@ import java.util.List;
  */
 public class GenericDao<T> {
     private static final Logger logger = LoggerFactory.getLogger(GenericDao.class);
+
+    /**
+     * Number of statements sent per JDBC batch; matches hibernate.jdbc.batch_size.
+     */
+    public static final int BATCH_SIZE = 50;
+
     private final Class<T> entityClass;
-    private final SessionFactory sessionFactory;
+    private final boolean cacheable;
+    private final ChangeLogDao changeLog = new ChangeLogDao();
 
     /**
      * Creates a new GenericDao instance for the specified entity class.
@@ -33,110 +58,488 @@ public class GenericDao<T> {
      */
     public GenericDao(Class<T> entityClass) {
         this.entityClass = entityClass;
-        this.sessionFactory = HibernateUtil.getSessionFactory();
+        this.cacheable = entityClass.isAnnotationPresent(Cacheable.class);
+    }
+
+    /**
+     * Returns the entity class this DAO manages.
+     *
+     * @return The entity class
+     */
+    public Class<T> getEntityClass() {
+        return entityClass;
     }
 
     /**
-     * Saves a new entity to the database.
+     * Saves a new entity to the database and records it in the change log.
      *
      * @param entity The entity to save
      */
     public void save(T entity) {
-        executeInsideTransaction(session -> session.persist(entity));
+        executeInsideTransaction(session -> {
+            session.persist(entity);
+            changeLog.record(session, entity, WriteJournal.Operation.SAVE);
+        });
     }
 
     /**
-     * Updates an existing entity in the database.
+     * Updates an existing entity in the database and records it in the change
+     * log.
      *
      * @param entity The entity to update
      */
     public void update(T entity) {
-        executeInsideTransaction(session -> session.merge(entity));
+        executeInsideTransaction(session -> changeLog.record(session, session.merge(entity),
+                WriteJournal.Operation.UPDATE));
     }
 
     /**
-     * Checks if an entity can be safely deleted without violating constraints.
+     * Saves a collection of new entities in a single transaction.
+     * Inserts are flushed in groups of {@link #BATCH_SIZE} so Hibernate can
+     * send them as JDBC batches.
      *
-     * @param entity The entity to check
-     * @throws ConstraintViolationException if deletion would violate constraints
+     * @param entities The entities to save
      */
-    public void checkDeleteConstraints(T entity) throws ConstraintViolationException {
-        try (Session session = sessionFactory.openSession()) {
-            Transaction transaction = session.beginTransaction();
-            try {
-                session.remove(entity);
+    public void saveAll(Collection<? extends T> entities) {
+        executeInsideTransaction(session -> {
+            int count = 0;
+            for (T entity : entities) {
+                session.persist(entity);
+                changeLog.record(session, entity, WriteJournal.Operation.SAVE);
+                if (++count % BATCH_SIZE == 0) {
+                    session.flush();
+                    session.clear();
+                }
+            }
+        });
+    }
+
+    /**
+     * Updates a collection of existing entities in a single transaction.
+     * Updates are flushed in groups of {@link #BATCH_SIZE} so Hibernate can
+     * send them as JDBC batches.
+     *
+     * @param entities The entities to update
+     */
+    public void updateAll(Collection<? extends T> entities) {
+        executeInsideTransaction(session -> {
+            int count = 0;
+            for (T entity : entities) {
+                changeLog.record(session, session.merge(entity), WriteJournal.Operation.UPDATE);
+                if (++count % BATCH_SIZE == 0) {
+                    session.flush();
+                    session.clear();
+                }
+            }
+        });
+    }
+
+    /**
+     * Persists a collection of new entities inside a transaction owned by the
+     * caller. Pending inserts are flushed every {@link #BATCH_SIZE} entities;
+     * the session is not cleared, so other entities the caller manages in the
+     * same session stay attached. Nothing is written to the change log; the
+     * caller records the change as a whole, e.g. the invoice the lines belong
+     * to.
+     *
+     * @param session  The session of the surrounding transaction
+     * @param entities The entities to save
+     */
+    public void saveAll(Session session, Collection<? extends T> entities) {
+        int count = 0;
+        for (T entity : entities) {
+            session.persist(entity);
+            if (++count % BATCH_SIZE == 0) {
                 session.flush();
+            }
+        }
+    }
+
+    /**
+     * Merges a collection of entities inside a transaction owned by the caller.
+     *
+     * @param session  The session of the surrounding transaction
+     * @param entities The entities to update
+     */
+    public void updateAll(Session session, Collection<? extends T> entities) {
+        int count = 0;
+        for (T entity : entities) {
+            session.merge(entity);
+            if (++count % BATCH_SIZE == 0) {
+                session.flush();
+            }
+        }
+    }
+
+    /**
+     * Runs several operations in one transaction, e.g. saving invoice lines
+     * together with the stock changes they cause. The transaction is committed
+     * when the work returns and rolled back if it throws.
+     *
+     * @param work The operations to run with the transaction's session
+     * @param <R>  The result type of the work
+     * @return The value returned by the work
+     */
+    public <R> R inTransaction(SessionWork<R> work) {
+        Transaction transaction = null;
+        try (Session session = openSession()) {
+            transaction = session.beginTransaction();
+            R result = work.execute(session);
+            transaction.commit();
+            ReadRouting.recordWrite();
+            return result;
+        } catch (Exception e) {
+            if (transaction != null && transaction.isActive()) {
                 transaction.rollback();
-            } catch (ConstraintViolationException e) {
-                transaction.rollback();
-                throw e;
-            } catch (Exception e) {
-                transaction.rollback();
-                logger.error("Error checking delete constraints", e);
-                throw new RuntimeException("Error checking delete constraints", e);
             }
+            DatabaseHealthMonitor.reportFailure(e);
+            logger.error("Transaction failed", e);
+            throw new RuntimeException("Transaction failed", e);
+        }
+    }
+
+    /**
+     * Loads several entities by primary key in one round trip.
+     * Inside a transaction the returned entities are managed by the session.
+     *
+     * @param session The session to load with
+     * @param ids     The primary keys to load
+     * @return The entities, in the order of {@code ids}; missing rows are null
+     */
+    public List<T> findAllById(Session session, List<Long> ids) {
+        return findAllById(session, ids, FetchPlan.DETAIL);
+    }
+
+    /**
+     * Loads several entities by primary key in one round trip, join-fetching
+     * the associations of the given plan.
+     *
+     * @param session The session to load with
+     * @param ids     The primary keys to load
+     * @param plan    The associations to fetch with the entities
+     * @return The entities, in the order of {@code ids}; missing rows are null
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> findAllById(Session session, List<Long> ids, FetchPlan plan) {
+        EntityGraph<? super T> graph = entityGraph(session, plan);
+        if (graph == null) {
+            return session.byMultipleIds(entityClass).multiLoad(ids);
         }
+        return session.byMultipleIds(entityClass)
+                .with((RootGraph<T>) graph, GraphSemantic.FETCH)
+                .multiLoad(ids);
     }
 
     public void delete(T entity) throws ConstraintViolationException {
-        executeInsideTransaction(session -> session.remove(entity));
+        executeInsideTransaction(session -> {
+            changeLog.record(session, entity, WriteJournal.Operation.DELETE);
+            session.remove(entity);
+        });
     }
 
+    /**
+     * Retrieves an entity with its full association graph.
+     *
+     * @param id The primary key
+     * @return The entity, or null if no row exists
+     */
     public T findById(Long id) {
-        try (Session session = sessionFactory.openSession()) {
-            return session.get(entityClass, id);
+        return findById(id, FetchPlan.DETAIL);
+    }
+
+    /**
+     * Retrieves an entity together with the associations of a fetch plan.
+     *
+     * @param id   The primary key
+     * @param plan The associations to fetch with the entity
+     * @return The entity, or null if no row exists
+     */
+    public T findById(Long id, FetchPlan plan) {
+        try (Session session = openSession()) {
+            EntityGraph<? super T> graph = entityGraph(session, plan);
+            return graph == null
+                    ? session.find(entityClass, id)
+                    : session.find(entityClass, id, Map.of(SpecHints.HINT_SPEC_FETCH_GRAPH, graph));
         } catch (Exception e) {
+            DatabaseHealthMonitor.reportFailure(e);
             logger.error("Error finding entity by id", e);
             throw new RuntimeException("Error finding entity by id", e);
         }
     }
 
+    /**
+     * Retrieves all entities with the associations shown in list views.
+     *
+     * @return All entities
+     */
     public List<T> findAll() {
-        try (Session session = sessionFactory.openSession()) {
-            CriteriaBuilder cb = session.getCriteriaBuilder();
-            CriteriaQuery<T> criteriaQuery = cb.createQuery(entityClass);
-            Root<T> root = criteriaQuery.from(entityClass);
-            criteriaQuery.select(root);
-            return session.createQuery(criteriaQuery).getResultList();
-        } catch (Exception e) {
-            logger.error("Error finding all entities", e);
-            throw new RuntimeException("Error finding all entities", e);
-        }
+        return findAll(FetchPlan.LIST);
+    }
+
+    /**
+     * Retrieves all entities together with the associations of a fetch plan.
+     * Served by the read replica when one is configured and caught up.
+     *
+     * @param plan The associations to fetch with the entities
+     * @return All entities
+     */
+    public List<T> findAll(FetchPlan plan) {
+        return ReadRouting.onReplica(() -> {
+            try (Session session = openSession()) {
+                CriteriaBuilder cb = session.getCriteriaBuilder();
+                CriteriaQuery<T> criteriaQuery = cb.createQuery(entityClass);
+                Root<T> root = criteriaQuery.from(entityClass);
+                criteriaQuery.select(root);
+                return withFetchPlan(session.createQuery(criteriaQuery), session, plan).getResultList();
+            } catch (Exception e) {
+                DatabaseHealthMonitor.reportFailure(e);
+                logger.error("Error finding all entities", e);
+                throw new RuntimeException("Error finding all entities", e);
+            }
+        });
     }
 
-    public String generateId(String prefix, int bound) {
-        try (Session session = sessionFactory.openSession()) {
-            String generatedId;
-            boolean exists;
-            do {
-                generatedId = prefix + (int) (Math.random() * bound);
+    /**
+     * Retrieves one page of entities using keyset (seek) pagination.
+     * Instead of an OFFSET, the query continues after the sort key of the last
+     * row of the previous page, so every page costs the same regardless of how
+     * far the user has scrolled.
+     *
+     * @param afterKey The sort key of the last row already loaded, or null for
+     *                 the first page
+     * @param limit    Maximum number of rows to return
+     * @param sort     The unique attribute and direction to page by
+     * @return Up to {@code limit} entities following {@code afterKey}
+     */
+    public List<T> findPage(Object afterKey, int limit, PageSort sort) {
+        return findPage(null, afterKey, limit, sort, FetchPlan.LIST);
+    }
 
+    /**
+     * Retrieves one page of the entities matching a filter, using keyset
+     * pagination. The filter and the LIMIT are applied in a single query.
+     *
+     * @param filter   The search criteria, or null to match all rows
+     * @param afterKey The sort key of the last row already loaded, or null for
+     *                 the first page
+     * @param limit    Maximum number of rows to return
+     * @param sort     The unique attribute and direction to page by
+     * @return Up to {@code limit} matching entities following {@code afterKey}
+     */
+    public List<T> findPage(SearchFilter filter, Object afterKey, int limit, PageSort sort) {
+        return findPage(filter, afterKey, limit, sort, FetchPlan.LIST);
+    }
+
+    /**
+     * Retrieves one page of the entities matching a filter, join-fetching the
+     * associations of a fetch plan in the same query. Served by the read
+     * replica when one is configured and caught up.
+     *
+     * @param filter   The search criteria, or null to match all rows
+     * @param afterKey The sort key of the last row already loaded, or null for
+     *                 the first page
+     * @param limit    Maximum number of rows to return
+     * @param sort     The unique attribute and direction to page by
+     * @param plan     The associations to fetch with the entities
+     * @return Up to {@code limit} matching entities following {@code afterKey}
+     */
+    public List<T> findPage(SearchFilter filter, Object afterKey, int limit, PageSort sort, FetchPlan plan) {
+        checkArgument(limit > 0, "Page limit must be positive");
+        checkNotNull(sort);
+        return ReadRouting.onReplica(() -> {
+            try (Session session = openSession()) {
                 CriteriaBuilder cb = session.getCriteriaBuilder();
-                CriteriaQuery<Long> criteriaQuery = cb.createQuery(Long.class);
+                CriteriaQuery<T> criteriaQuery = cb.createQuery(entityClass);
                 Root<T> root = criteriaQuery.from(entityClass);
+                Path<Object> key = root.get(sort.attribute());
 
-                criteriaQuery.select(cb.literal(1L))
-                        .where(cb.equal(root.get("id"), generatedId));
+                List<Predicate> predicates = new ArrayList<>(2);
+                if (filter != null) {
+                    predicates.add(filter.toPredicate(cb, root));
+                }
+                if (afterKey != null) {
+                    predicates.add(seekPredicate(cb, key, afterKey, sort.descending()));
+                }
 
-                exists = session.createQuery(criteriaQuery).uniqueResult() != null;
-            } while (exists);
-            return generatedId;
-        } catch (Exception e) {
-            logger.error("Error generating ID", e);
-            throw new RuntimeException("Error generating ID", e);
+                criteriaQuery.select(root)
+                        .where(predicates.toArray(Predicate[]::new))
+                        .orderBy(sort.descending() ? cb.desc(key) : cb.asc(key));
+
+                return withFetchPlan(session.createQuery(criteriaQuery), session, plan)
+                        .setMaxResults(limit)
+                        .getResultList();
+            } catch (Exception e) {
+                DatabaseHealthMonitor.reportFailure(e);
+                logger.error("Error finding page of entities", e);
+                throw new RuntimeException("Error finding page of entities", e);
+            }
+        });
+    }
+
+    /**
+     * Retrieves one page of read-only rows matching a filter, using keyset
+     * pagination. Only the columns named by the projection are selected
+     * (joining the associations they pass through) and each result is built
+     * directly into the row type, so no entity is hydrated or kept in the
+     * session. Served by the read replica when one is configured and caught up.
+     *
+     * @param projection The row type and the attributes it is built from
+     * @param filter     The search criteria on entity attributes, or null to
+     *                   match all rows
+     * @param afterKey   The sort key of the last row already loaded, or null
+     *                   for the first page
+     * @param limit      Maximum number of rows to return
+     * @param sort       The unique attribute and direction to page by
+     * @param <R>        The row type
+     * @return Up to {@code limit} matching rows following {@code afterKey}
+     */
+    public <R> List<R> findPage(Projection<R> projection, SearchFilter filter, Object afterKey, int limit,
+            PageSort sort) {
+        checkNotNull(projection);
+        checkArgument(limit > 0, "Page limit must be positive");
+        checkNotNull(sort);
+        return ReadRouting.onReplica(() -> {
+            try (Session session = openSession()) {
+                CriteriaBuilder cb = session.getCriteriaBuilder();
+                CriteriaQuery<R> criteriaQuery = cb.createQuery(projection.rowType());
+                Root<T> root = criteriaQuery.from(entityClass);
+                Path<Object> key = root.get(sort.attribute());
+
+                List<Predicate> predicates = new ArrayList<>(2);
+                if (filter != null) {
+                    predicates.add(filter.toPredicate(cb, root));
+                }
+                if (afterKey != null) {
+                    predicates.add(seekPredicate(cb, key, afterKey, sort.descending()));
+                }
+
+                Selection<?>[] columns = projection.attributes().stream()
+                        .map(attribute -> attributePath(root, attribute))
+                        .toArray(Selection<?>[]::new);
+                criteriaQuery.select(cb.construct(projection.rowType(), columns))
+                        .where(predicates.toArray(Predicate[]::new))
+                        .orderBy(sort.descending() ? cb.desc(key) : cb.asc(key));
+
+                return session.createQuery(criteriaQuery)
+                        .setCacheable(cacheable)
+                        .setReadOnly(true)
+                        .setMaxResults(limit)
+                        .getResultList();
+            } catch (Exception e) {
+                DatabaseHealthMonitor.reportFailure(e);
+                logger.error("Error finding page of rows", e);
+                throw new RuntimeException("Error finding page of rows", e);
+            }
+        });
+    }
+
+    /**
+     * Retrieves the entities matching a filter, ordered by primary key.
+     *
+     * @param filter The search criteria
+     * @param limit  Maximum number of rows to return
+     * @return Up to {@code limit} matching entities
+     */
+    public List<T> findWhere(SearchFilter filter, int limit) {
+        return findWhere(filter, limit, FetchPlan.LIST);
+    }
+
+    /**
+     * Retrieves the entities matching a filter, ordered by primary key, with
+     * the associations of a fetch plan.
+     *
+     * @param filter The search criteria
+     * @param limit  Maximum number of rows to return
+     * @param plan   The associations to fetch with the entities
+     * @return Up to {@code limit} matching entities
+     */
+    public List<T> findWhere(SearchFilter filter, int limit, FetchPlan plan) {
+        return findPage(checkNotNull(filter), null, limit, PageSort.BY_ID, plan);
+    }
+
+    /**
+     * Applies a fetch plan to a query. Queries over {@code @Cacheable}
+     * entities that need no entity graph are served from the query cache;
+     * queries with a graph always go to the database, so a cache hit never
+     * yields entities whose graph was not fetched.
+     */
+    private Query<T> withFetchPlan(Query<T> query, Session session, FetchPlan plan) {
+        EntityGraph<? super T> graph = entityGraph(session, plan);
+        if (graph != null) {
+            query.setHint(SpecHints.HINT_SPEC_FETCH_GRAPH, graph);
+        } else if (cacheable) {
+            query.setCacheable(true);
+        }
+        return query;
+    }
+
+    /**
+     * Resolves the named entity graph of a fetch plan, falling back from
+     * DETAIL to LIST when the entity declares no separate detail graph.
+     *
+     * @return The graph, or null if the entity declares none for the plan
+     */
+    private EntityGraph<? super T> entityGraph(Session session, FetchPlan plan) {
+        checkNotNull(plan);
+        if (plan == FetchPlan.NONE) {
+            return null;
+        }
+        List<EntityGraph<? super T>> graphs = session.getEntityGraphs(entityClass);
+        String name = plan.graphName(entityClass);
+        String fallback = FetchPlan.LIST.graphName(entityClass);
+        EntityGraph<? super T> match = null;
+        for (EntityGraph<? super T> graph : graphs) {
+            if (name.equals(graph.getName())) {
+                return graph;
+            }
+            if (fallback.equals(graph.getName())) {
+                match = graph;
+            }
+        }
+        return match;
+    }
+
+    /**
+     * Resolves a dotted attribute name against the query root. Nested
+     * attributes become implicit inner joins, which Hibernate shares with the
+     * joins a {@link SearchFilter} creates for the same path.
+     */
+    private static Path<Object> attributePath(Root<?> root, String attribute) {
+        List<String> parts = Splitter.on('.').splitToList(attribute);
+        Path<Object> path = root.get(parts.get(0));
+        for (String part : parts.subList(1, parts.size())) {
+            path = path.get(part);
+        }
+        return path;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Predicate seekPredicate(CriteriaBuilder cb, Path<Object> key,
+            Object afterKey, boolean descending) {
+        Expression<Comparable> comparableKey = (Expression<Comparable>) (Expression<?>) key;
+        Comparable value = (Comparable) afterKey;
+        return descending ? cb.lessThan(comparableKey, value) : cb.greaterThan(comparableKey, value);
+    }
+
+    private Session openSession() {
+        if (!HibernateUtil.isDatabaseAvailable()) {
+            throw new IllegalStateException("Database tidak tersedia");
         }
+        return HibernateUtil.getSessionFactory().openSession();
     }
 
     private void executeInsideTransaction(SessionAction action) {
         Transaction transaction = null;
-        try (Session session = sessionFactory.openSession()) {
+        try (Session session = openSession()) {
             transaction = session.beginTransaction();
             action.execute(session);
             transaction.commit();
+            ReadRouting.recordWrite();
         } catch (Exception e) {
             if (transaction != null) {
                 transaction.rollback();
             }
+            DatabaseHealthMonitor.reportFailure(e);
             logger.error("Transaction failed", e);
             throw new RuntimeException("Transaction failed", e);
         }
@@ -149,4 +552,15 @@ public class GenericDao<T> {
     private interface SessionAction {
         void execute(Session session);
     }
+
+    /**
+     * Functional interface for work that runs in a caller-defined transaction
+     * and produces a result.
+     *
+     * @param <R> The result type
+     */
+    @FunctionalInterface
+    public interface SessionWork<R> {
+        R execute(Session session) throws Exception;
+    }
 }
\ No newline at end of file
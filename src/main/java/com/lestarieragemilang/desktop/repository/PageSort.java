@@ -0,0 +1,33 @@
+package com.lestarieragemilang.desktop.repository;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Strings.isNullOrEmpty;
+
+/**
+ * Describes the ordering used for keyset (seek) pagination.
+ * The attribute must be unique and indexed (the primary key "id" or a
+ * business key such as "stockId"), because the value of the last row of a
+ * page is used as the starting point of the next one.
+ *
+ * @param attribute  The entity attribute pages are ordered and seeked by
+ * @param descending Whether rows are returned from the highest key downwards
+ */
+public record PageSort(String attribute, boolean descending) {
+
+    /**
+     * Default ordering on the primary key, oldest rows first.
+     */
+    public static final PageSort BY_ID = ascending("id");
+
+    public PageSort {
+        checkArgument(!isNullOrEmpty(attribute), "Sort attribute must not be empty");
+    }
+
+    public static PageSort ascending(String attribute) {
+        return new PageSort(attribute, false);
+    }
+
+    public static PageSort descending(String attribute) {
+        return new PageSort(attribute, true);
+    }
+}
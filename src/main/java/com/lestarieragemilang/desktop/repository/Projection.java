@@ -0,0 +1,33 @@
+package com.lestarieragemilang.desktop.repository;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Describes a flat, read-only view of an entity for table screens.
+ * Each attribute (nested attributes use dot notation, e.g.
+ * "stock.category.brand") is selected as one column and passed, in order,
+ * to the canonical constructor of the row type, so the database returns
+ * exactly the columns a table shows and no entities are managed or
+ * hydrated.
+ *
+ * @param rowType    The record that receives the selected values
+ * @param attributes The entity attributes to select, in constructor order
+ * @param <R>        The row type
+ */
+public record Projection<R>(Class<R> rowType, List<String> attributes) {
+
+    public Projection {
+        checkNotNull(rowType);
+        checkArgument(!attributes.isEmpty(), "At least one attribute is required");
+        attributes = ImmutableList.copyOf(attributes);
+    }
+
+    public static <R> Projection<R> of(Class<R> rowType, String... attributes) {
+        return new Projection<>(rowType, ImmutableList.copyOf(attributes));
+    }
+}
@@ -0,0 +1,239 @@
+package com.lestarieragemilang.desktop.repository;
+
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.IdentifiableType;
+import jakarta.persistence.metamodel.SingularAttribute;
+
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.annotations.Immutable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.lestarieragemilang.desktop.utils.HibernateUtil;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Finds the rows that still reference an entity through a foreign key, so
+ * the UI can tell whether a delete is allowed without attempting it.
+ *
+ * <p>The inbound associations of every entity (e.g. InvoiceLine.stock for
+ * Stock, Stock.category for Category) are read once from the Hibernate
+ * metamodel. {@link Immutable} entities are skipped: they map views such as
+ * {@code sales}, whose rows are the invoice lines already counted. Each check
+ * is a read-only query per association; no rows are locked and nothing is
+ * written.
+ *
+ * <p>Results are cached by entity type, id and version, so a reloaded
+ * entity with a new version is always checked again. New referencing rows do
+ * not change the version of the referenced entity, so a write drops the
+ * cached results of the types the written entity refers to (see
+ * {@link #invalidateReferencesFrom}); a new invoice line forgets the results
+ * for stock items, but not those for categories. Entries also expire after
+ * 30 seconds, for writes on other terminals that have not been seen yet. The
+ * foreign keys still guard the actual delete.
+ */
+public final class ReferenceChecker {
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceChecker.class);
+    private static final ReferenceChecker INSTANCE = new ReferenceChecker();
+
+    /**
+     * A group of rows referencing an entity through one association.
+     *
+     * @param sourceEntity The entity type holding the foreign key
+     * @param attribute    The association attribute, e.g. "stock"
+     * @param count        Number of referencing rows
+     */
+    public record Reference(Class<?> sourceEntity, String attribute, long count) {
+    }
+
+    private record Inbound(Class<?> sourceEntity, String attribute) {
+    }
+
+    private record CacheKey(Class<?> entityClass, Object id, Object version) {
+    }
+
+    private final Cache<CacheKey, List<Reference>> results = CacheBuilder.newBuilder()
+            .maximumSize(1000)
+            .expireAfterWrite(30, TimeUnit.SECONDS)
+            .build();
+
+    private volatile ImmutableListMultimap<Class<?>, Inbound> inbound;
+
+    private ReferenceChecker() {
+    }
+
+    public static ReferenceChecker getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Checks whether any row references the entity.
+     *
+     * @param entity The entity to check
+     * @return true if a foreign key still points at the entity
+     */
+    public boolean isReferenced(Object entity) {
+        return !findReferences(entity).isEmpty();
+    }
+
+    /**
+     * Lists every association that still references the entity, with the
+     * number of referencing rows.
+     *
+     * @param entity The entity to check
+     * @return The blocking references; empty if the entity can be deleted
+     */
+    public List<Reference> findReferences(Object entity) {
+        checkNotNull(entity);
+        SessionFactory sessionFactory = HibernateUtil.getSessionFactory();
+        Class<?> entityClass = Hibernate.getClass(entity);
+        Object id = sessionFactory.getPersistenceUnitUtil().getIdentifier(entity);
+        if (id == null) {
+            return ImmutableList.of();
+        }
+
+        CacheKey key = new CacheKey(entityClass, id, versionOf(sessionFactory, entityClass, entity));
+        try {
+            return results.get(key, () -> countReferences(sessionFactory, entityClass, id));
+        } catch (ExecutionException e) {
+            logger.error("Error checking references", e.getCause());
+            throw new RuntimeException("Error checking references", e.getCause());
+        }
+    }
+
+    /**
+     * Formats blocking references for a message, e.g. "Sales: 3, Purchasing: 2".
+     *
+     * @param references The references returned by {@link #findReferences}
+     * @return A comma separated summary
+     */
+    public static String describe(List<Reference> references) {
+        return references.stream()
+                .map(reference -> reference.sourceEntity().getSimpleName() + ": " + reference.count())
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Forgets cached results, e.g. after rows were deleted in bulk.
+     */
+    public void invalidateAll() {
+        results.invalidateAll();
+    }
+
+    /**
+     * Forgets the cached results that rows of the given types may have
+     * changed: those of the entity types these types refer to.
+     *
+     * @param writtenTypes The entity types that were inserted, updated or
+     *                     deleted
+     */
+    public void invalidateReferencesFrom(Class<?>... writtenTypes) {
+        SessionFactory sessionFactory = HibernateUtil.getSessionFactory();
+        if (sessionFactory == null) {
+            results.invalidateAll();
+            return;
+        }
+        Set<Class<?>> written = ImmutableSet.copyOf(writtenTypes);
+        ImmutableSet<Class<?>> referenced = inboundOf(sessionFactory).entries().stream()
+                .filter(entry -> written.contains(entry.getValue().sourceEntity()))
+                .map(Map.Entry::getKey)
+                .collect(ImmutableSet.toImmutableSet());
+        if (!referenced.isEmpty()) {
+            results.asMap().keySet().removeIf(key -> referenced.contains(key.entityClass()));
+        }
+    }
+
+    private List<Reference> countReferences(SessionFactory sessionFactory, Class<?> entityClass, Object id) {
+        ImmutableList.Builder<Reference> references = ImmutableList.builder();
+        try (Session session = sessionFactory.openSession()) {
+            Object target = session.getReference(entityClass, id);
+            for (Inbound association : inboundOf(sessionFactory).get(entityClass)) {
+                String from = " from " + association.sourceEntity().getSimpleName() + " r where r."
+                        + association.attribute() + " = :target";
+                // EXISTS-style probe first; only referenced associations are counted
+                boolean exists = !session.createSelectionQuery("select 1" + from, Integer.class)
+                        .setParameter("target", target)
+                        .setMaxResults(1)
+                        .getResultList()
+                        .isEmpty();
+                if (exists) {
+                    long count = session.createSelectionQuery("select count(r)" + from, Long.class)
+                            .setParameter("target", target)
+                            .getSingleResult();
+                    references.add(new Reference(association.sourceEntity(), association.attribute(), count));
+                }
+            }
+        }
+        return references.build();
+    }
+
+    private ImmutableListMultimap<Class<?>, Inbound> inboundOf(SessionFactory sessionFactory) {
+        ImmutableListMultimap<Class<?>, Inbound> current = inbound;
+        if (current == null) {
+            ImmutableListMultimap.Builder<Class<?>, Inbound> builder = ImmutableListMultimap.builder();
+            for (EntityType<?> source : sessionFactory.getMetamodel().getEntities()) {
+                if (source.getJavaType().isAnnotationPresent(Immutable.class)) {
+                    continue;
+                }
+                for (SingularAttribute<?, ?> attribute : source.getSingularAttributes()) {
+                    Attribute.PersistentAttributeType type = attribute.getPersistentAttributeType();
+                    if (type == Attribute.PersistentAttributeType.MANY_TO_ONE
+                            || type == Attribute.PersistentAttributeType.ONE_TO_ONE) {
+                        builder.put(attribute.getJavaType(), new Inbound(source.getJavaType(), attribute.getName()));
+                    }
+                }
+            }
+            current = builder.build();
+            inbound = current;
+        }
+        return current;
+    }
+
+    private static Object versionOf(SessionFactory sessionFactory, Class<?> entityClass, Object entity) {
+        IdentifiableType<?> type = sessionFactory.getMetamodel().entity(entityClass);
+        if (!type.hasVersionAttribute()) {
+            return null;
+        }
+        for (SingularAttribute<?, ?> attribute : type.getSingularAttributes()) {
+            if (attribute.isVersion()) {
+                return readMember(attribute.getJavaMember(), entity);
+            }
+        }
+        return null;
+    }
+
+    private static Object readMember(Member member, Object entity) {
+        try {
+            if (member instanceof Field field) {
+                field.setAccessible(true);
+                return field.get(entity);
+            }
+            if (member instanceof Method method) {
+                return method.invoke(entity);
+            }
+        } catch (ReflectiveOperationException e) {
+            logger.warn("Could not read version of {}", entity.getClass().getSimpleName(), e);
+        }
+        return null;
+    }
+
+}
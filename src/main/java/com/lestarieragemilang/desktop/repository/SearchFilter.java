@@ -0,0 +1,184 @@
+package com.lestarieragemilang.desktop.repository;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Typed search criteria that are translated into a single JPA Criteria
+ * predicate, so filtering happens in the database instead of in memory.
+ * Conditions name an entity attribute (nested attributes use dot notation,
+ * e.g. "category.brand"), an operator and a value, and can be combined with
+ * AND/OR.
+ */
+public sealed interface SearchFilter permits SearchFilter.Condition, SearchFilter.Group {
+
+    /**
+     * Comparison operators supported by a {@link Condition}.
+     */
+    enum Operator {
+        EQUAL,
+        NOT_EQUAL,
+        CONTAINS,
+        STARTS_WITH,
+        GREATER_THAN,
+        GREATER_OR_EQUAL,
+        LESS_THAN,
+        LESS_OR_EQUAL
+    }
+
+    /**
+     * Builds the predicate for this filter against the given query root.
+     *
+     * @param cb   The criteria builder of the current session
+     * @param root The root of the query being filtered
+     * @return The predicate equivalent to this filter
+     */
+    Predicate toPredicate(CriteriaBuilder cb, Root<?> root);
+
+    default SearchFilter and(SearchFilter other) {
+        return allOf(this, other);
+    }
+
+    default SearchFilter or(SearchFilter other) {
+        return anyOf(this, other);
+    }
+
+    static SearchFilter where(String field, Operator operator, Object value) {
+        return new Condition(field, operator, value);
+    }
+
+    static SearchFilter equal(String field, Object value) {
+        return new Condition(field, Operator.EQUAL, value);
+    }
+
+    /**
+     * Case-insensitive substring match on a field.
+     */
+    static SearchFilter contains(String field, String value) {
+        return new Condition(field, Operator.CONTAINS, value);
+    }
+
+    /**
+     * Prefix match on a field. Unlike {@link #contains}, the field is not
+     * wrapped in LOWER(), so an index on it can serve the match; it is still
+     * case-insensitive through the _ci collation of the schema.
+     */
+    static SearchFilter startsWith(String field, String value) {
+        return new Condition(field, Operator.STARTS_WITH, value);
+    }
+
+    static SearchFilter allOf(SearchFilter... filters) {
+        return new Group(true, ImmutableList.copyOf(filters));
+    }
+
+    static SearchFilter anyOf(SearchFilter... filters) {
+        return new Group(false, ImmutableList.copyOf(filters));
+    }
+
+    /**
+     * Matches rows where any of the given fields contains the search term,
+     * the usual behaviour of the search boxes on the list screens.
+     *
+     * @param term   The text typed by the user
+     * @param fields The attributes to search in
+     * @return An OR filter over all fields
+     */
+    static SearchFilter containsAny(String term, String... fields) {
+        checkArgument(fields.length > 0, "At least one field is required");
+        return new Group(false, Arrays.stream(fields)
+                .map(field -> contains(field, term))
+                .collect(ImmutableList.toImmutableList()));
+    }
+
+    /**
+     * A single comparison of an attribute against a value.
+     */
+    record Condition(String field, Operator operator, Object value) implements SearchFilter {
+        private static final char ESCAPE = '\\';
+
+        public Condition {
+            checkNotNull(field);
+            checkNotNull(operator);
+        }
+
+        @Override
+        public Predicate toPredicate(CriteriaBuilder cb, Root<?> root) {
+            Path<Object> path = resolve(root, field);
+            return switch (operator) {
+                case EQUAL -> value == null ? cb.isNull(path) : cb.equal(path, value);
+                case NOT_EQUAL -> value == null ? cb.isNotNull(path) : cb.notEqual(path, value);
+                case CONTAINS -> cb.like(cb.lower(path.as(String.class)), "%" + escape(value) + "%", ESCAPE);
+                case STARTS_WITH -> cb.like(asString(path), escape(value) + "%", ESCAPE);
+                default -> compare(cb, path);
+            };
+        }
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        private Predicate compare(CriteriaBuilder cb, Path<Object> path) {
+            Expression<Comparable> comparable = (Expression<Comparable>) (Expression<?>) path;
+            Comparable bound = (Comparable) checkNotNull(value, "Range operators require a value");
+            return switch (operator) {
+                case GREATER_THAN -> cb.greaterThan(comparable, bound);
+                case GREATER_OR_EQUAL -> cb.greaterThanOrEqualTo(comparable, bound);
+                case LESS_THAN -> cb.lessThan(comparable, bound);
+                case LESS_OR_EQUAL -> cb.lessThanOrEqualTo(comparable, bound);
+                default -> throw new IllegalStateException("Unsupported operator: " + operator);
+            };
+        }
+
+        /**
+         * Uses a string attribute as is; a cast would keep the database from
+         * using an index on it.
+         */
+        @SuppressWarnings("unchecked")
+        private static Expression<String> asString(Path<Object> path) {
+            return String.class.equals(path.getJavaType())
+                    ? (Expression<String>) (Expression<?>) path
+                    : path.as(String.class);
+        }
+
+        private static Path<Object> resolve(Root<?> root, String field) {
+            List<String> parts = Splitter.on('.').splitToList(field);
+            Path<Object> path = root.get(parts.get(0));
+            for (String part : parts.subList(1, parts.size())) {
+                path = path.get(part);
+            }
+            return path;
+        }
+
+        private static String escape(Object value) {
+            String text = value == null ? "" : value.toString().toLowerCase(Locale.ROOT);
+            return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        }
+    }
+
+    /**
+     * A conjunction or disjunction of other filters.
+     */
+    record Group(boolean conjunction, List<SearchFilter> filters) implements SearchFilter {
+
+        public Group {
+            checkNotNull(filters);
+        }
+
+        @Override
+        public Predicate toPredicate(CriteriaBuilder cb, Root<?> root) {
+            Predicate[] predicates = filters.stream()
+                    .map(filter -> filter.toPredicate(cb, root))
+                    .toArray(Predicate[]::new);
+            return conjunction ? cb.and(predicates) : cb.or(predicates);
+        }
+    }
+}
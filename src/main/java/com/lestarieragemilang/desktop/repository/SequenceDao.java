@@ -0,0 +1,130 @@
+package com.lestarieragemilang.desktop.repository;
+
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.lestarieragemilang.desktop.model.IdSequence;
+import com.lestarieragemilang.desktop.utils.HibernateUtil;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Data access for the {@code id_sequences} table, which holds the next free
+ * number of every business-ID sequence (e.g. "BRG" for stock codes).
+ * Numbers are handed out in blocks so callers can issue IDs from memory.
+ */
+public class SequenceDao {
+    private static final Logger logger = LoggerFactory.getLogger(SequenceDao.class);
+
+    /**
+     * First number of a sequence that has no row yet. Codes generated before
+     * sequences existed were random numbers below 1000, so starting above
+     * them cannot collide.
+     */
+    public static final long INITIAL_VALUE = 1000;
+
+    /**
+     * Reserves {@code size} consecutive numbers of a sequence. The row is
+     * incremented and read back in one short transaction; the row lock taken
+     * by the UPDATE serializes concurrent clients, so no two clients ever
+     * receive overlapping blocks.
+     *
+     * @param name The sequence name
+     * @param size Number of values to reserve
+     * @return The first value of the reserved block
+     * @throws RuntimeException if the reservation fails
+     */
+    public long reserve(String name, int size) {
+        return reserve(name, size, INITIAL_VALUE);
+    }
+
+    /**
+     * Reserves {@code size} consecutive numbers of a sequence, creating the
+     * sequence at {@code initialValue} if it does not exist yet.
+     *
+     * @param name         The sequence name
+     * @param size         Number of values to reserve
+     * @param initialValue First value of a new sequence
+     * @return The first value of the reserved block
+     * @throws RuntimeException if the reservation fails
+     */
+    public long reserve(String name, int size, long initialValue) {
+        checkNotNull(name);
+        checkArgument(size > 0, "Block size must be positive");
+        try {
+            return reserveOnce(name, size, initialValue);
+        } catch (RuntimeException e) {
+            // Another client may have created the row concurrently; the
+            // second attempt then takes the UPDATE path.
+            logger.debug("Retrying reservation for sequence {}", name, e);
+            return reserveOnce(name, size, initialValue);
+        }
+    }
+
+    /**
+     * Deletes the sequences named {@code prefix + "-" + ... + "-" + suffix}
+     * that sort before {@code before}, e.g. the per-day invoice counters of a
+     * terminal for the days before today. Only sequences whose middle part
+     * sorts in time order, such as a yyyyMMdd day, may be purged this way.
+     *
+     * @param prefix The first part of the names, e.g. "JUL"
+     * @param suffix The last part of the names, e.g. the terminal node
+     * @param before The first name to keep
+     * @return The number of sequences deleted
+     * @throws RuntimeException if the delete fails
+     */
+    public int deleteBefore(String prefix, String suffix, String before) {
+        checkNotNull(before);
+        Transaction transaction = null;
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            transaction = session.beginTransaction();
+            int deleted = session.createMutationQuery(
+                    "delete from IdSequence s where s.name like :pattern and s.name < :before")
+                    .setParameter("pattern", checkNotNull(prefix) + "-%-" + checkNotNull(suffix))
+                    .setParameter("before", before)
+                    .executeUpdate();
+            transaction.commit();
+            return deleted;
+        } catch (Exception e) {
+            if (transaction != null && transaction.isActive()) {
+                transaction.rollback();
+            }
+            logger.error("Error deleting old sequences", e);
+            throw new RuntimeException("Error deleting old sequences", e);
+        }
+    }
+
+    private long reserveOnce(String name, int size, long initialValue) {
+        Transaction transaction = null;
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            transaction = session.beginTransaction();
+            int updated = session.createMutationQuery(
+                    "update IdSequence s set s.nextValue = s.nextValue + :size where s.name = :name")
+                    .setParameter("size", (long) size)
+                    .setParameter("name", name)
+                    .executeUpdate();
+
+            long first;
+            if (updated == 0) {
+                first = initialValue;
+                session.persist(new IdSequence(name, first + size));
+            } else {
+                first = session.createSelectionQuery(
+                        "select s.nextValue from IdSequence s where s.name = :name", Long.class)
+                        .setParameter("name", name)
+                        .getSingleResult() - size;
+            }
+            transaction.commit();
+            return first;
+        } catch (Exception e) {
+            if (transaction != null && transaction.isActive()) {
+                transaction.rollback();
+            }
+            logger.error("Error reserving sequence block", e);
+            throw new RuntimeException("Error reserving sequence block", e);
+        }
+    }
+}
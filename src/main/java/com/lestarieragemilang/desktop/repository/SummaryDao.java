@@ -0,0 +1,386 @@
+package com.lestarieragemilang.desktop.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.query.MutationQuery;
+import org.hibernate.query.NativeQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.lestarieragemilang.desktop.utils.DatabaseHealthMonitor;
+import com.lestarieragemilang.desktop.utils.HibernateUtil;
+import com.lestarieragemilang.desktop.utils.ReadRouting;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Maintains the pre-aggregated sales and purchasing totals:
+ * <ul>
+ * <li>{@code daily_stock_summary}: sold and purchased lines, quantities and
+ * amounts per day and stock item,
+ * <li>{@code daily_customer_summary}: sales per day and customer,
+ * <li>{@code monthly_supplier_summary}: purchases per month and supplier.
+ * </ul>
+ * The confirmation and return flows call this class inside their own
+ * transaction, so a summary never disagrees with the committed detail rows.
+ * Each update is one {@code INSERT ... SELECT ... ON DUPLICATE KEY UPDATE}
+ * per table that adds the totals of an invoice's lines, grouped in the
+ * database, to the existing summary rows. A return is booked as its
+ * quantity, times the price of the returned line, on the summary rows of
+ * that line's date, stock and party. Returns recorded before they named a
+ * line are not summed.
+ *
+ * <p>The report screens read their totals through {@link #salesTotals},
+ * {@link #purchaseTotals}, {@link #customerTotals} and
+ * {@link #supplierTotals}, which sum the pre-aggregated rows instead of
+ * scanning the invoice lines.
+ */
+public class SummaryDao {
+    private static final Logger logger = LoggerFactory.getLogger(SummaryDao.class);
+
+    /** Return type of a return against a sales invoice. */
+    public static final String SALES_RETURN = "Jual";
+    /** Return type of a return against a purchase invoice. */
+    public static final String PURCHASE_RETURN = "Beli";
+
+    private static final String SALES = "FROM sales l";
+    private static final String PURCHASING = "FROM purchasing l";
+    private static final String BY_INVOICE = " WHERE l.invoice_number = :invoice";
+    private static final String RETURNED_SALES = "FROM (SELECT s.sale_date, s.stock_id, s.customer_id,"
+            + " r.quantity, r.quantity * s.price AS sub_total"
+            + " FROM returns r JOIN sales s ON s.id = r.invoice_line_id"
+            + " WHERE r.return_type = '" + SALES_RETURN + "'%s) l";
+    private static final String RETURNED_PURCHASES = "FROM (SELECT p.purchase_date, p.stock_id, p.supplier_id,"
+            + " r.quantity, r.quantity * p.price AS sub_total"
+            + " FROM returns r JOIN purchasing p ON p.id = r.invoice_line_id"
+            + " WHERE r.return_type = '" + PURCHASE_RETURN + "'%s) l";
+    private static final String BY_RETURN = " AND r.id = :returnId";
+    private static final String MONTH_OF_PURCHASE = "l.purchase_date - INTERVAL (DAYOFMONTH(l.purchase_date) - 1) DAY";
+
+    private static final List<String> TABLES = ImmutableList.of(
+            "daily_stock_summary", "daily_customer_summary", "monthly_supplier_summary");
+
+    private static final List<Rollup> SALES_ROLLUPS = ImmutableList.of(
+            new Rollup("daily_stock_summary", "summary_date", "l.sale_date", "stock_id", "l.stock_id",
+                    "sold_lines", "sold_quantity", "sales_amount"),
+            new Rollup("daily_customer_summary", "summary_date", "l.sale_date", "customer_id", "l.customer_id",
+                    "line_count", "quantity", "amount"));
+
+    private static final List<Rollup> SALES_RETURN_ROLLUPS = ImmutableList.of(
+            new Rollup("daily_stock_summary", "summary_date", "l.sale_date", "stock_id", "l.stock_id",
+                    null, "returned_sales_quantity", "returned_sales_amount"),
+            new Rollup("daily_customer_summary", "summary_date", "l.sale_date", "customer_id", "l.customer_id",
+                    null, "returned_quantity", "returned_amount"));
+
+    private static final List<Rollup> PURCHASE_ROLLUPS = ImmutableList.of(
+            new Rollup("daily_stock_summary", "summary_date", "l.purchase_date", "stock_id", "l.stock_id",
+                    "purchased_lines", "purchased_quantity", "purchase_amount"),
+            new Rollup("monthly_supplier_summary", "summary_month", MONTH_OF_PURCHASE, "supplier_id",
+                    "l.supplier_id", "line_count", "quantity", "amount"));
+
+    private static final List<Rollup> PURCHASE_RETURN_ROLLUPS = ImmutableList.of(
+            new Rollup("daily_stock_summary", "summary_date", "l.purchase_date", "stock_id", "l.stock_id",
+                    null, "returned_purchase_quantity", "returned_purchase_amount"),
+            new Rollup("monthly_supplier_summary", "summary_month", MONTH_OF_PURCHASE, "supplier_id",
+                    "l.supplier_id", null, "returned_quantity", "returned_amount"));
+
+    /**
+     * Summed totals of a period, customer or supplier.
+     *
+     * @param lines            Number of invoice lines
+     * @param quantity         Quantity on those lines
+     * @param amount           Sum of their sub totals
+     * @param returnedQuantity Quantity returned
+     * @param returnedAmount   Amount returned
+     */
+    public record Totals(long lines, long quantity, BigDecimal amount, long returnedQuantity,
+            BigDecimal returnedAmount) {
+
+        /** Totals of nothing. */
+        public static final Totals EMPTY = new Totals(0, 0, BigDecimal.ZERO, 0, BigDecimal.ZERO);
+
+        /**
+         * Returns the amount less the returned amount.
+         *
+         * @return The net amount
+         */
+        public BigDecimal netAmount() {
+            return amount.subtract(returnedAmount);
+        }
+
+        private static Totals of(Object[] row, int offset) {
+            return new Totals(((Number) row[offset]).longValue(), ((Number) row[offset + 1]).longValue(),
+                    decimal(row[offset + 2]), ((Number) row[offset + 3]).longValue(), decimal(row[offset + 4]));
+        }
+
+        private static BigDecimal decimal(Object value) {
+            return value instanceof BigDecimal amount ? amount : new BigDecimal(value.toString());
+        }
+    }
+
+    /**
+     * One summary table and the columns a kind of line is added to.
+     *
+     * @param table          The summary table
+     * @param periodColumn   The day or month column of the table
+     * @param period         SQL expression for the period of a line {@code l}
+     * @param ownerColumn    The stock, customer or supplier column of the table
+     * @param owner          SQL expression for the owner of a line {@code l}
+     * @param linesColumn    Column counting lines, or null if not counted
+     * @param quantityColumn Column summing {@code l.quantity}
+     * @param amountColumn   Column summing {@code l.sub_total}
+     */
+    private record Rollup(String table, String periodColumn, String period, String ownerColumn, String owner,
+            String linesColumn, String quantityColumn, String amountColumn) {
+
+        /**
+         * Builds the statement adding the grouped lines selected by
+         * {@code source}, multiplied by {@code :sign}, to the table.
+         */
+        String sql(String source) {
+            StringBuilder columns = new StringBuilder(periodColumn).append(", ").append(ownerColumn);
+            StringBuilder deltas = new StringBuilder(period).append(" AS period, ").append(owner).append(" AS owner");
+            StringBuilder updates = new StringBuilder();
+            if (linesColumn != null) {
+                add(columns, deltas, updates, linesColumn, "COUNT(*)");
+            }
+            add(columns, deltas, updates, quantityColumn, "SUM(l.quantity)");
+            add(columns, deltas, updates, amountColumn, "SUM(l.sub_total)");
+            return "INSERT INTO " + table + " (" + columns + ")"
+                    + " SELECT * FROM (SELECT " + deltas + " " + source + " GROUP BY period, owner) AS delta"
+                    + " ON DUPLICATE KEY UPDATE " + updates;
+        }
+
+        private void add(StringBuilder columns, StringBuilder deltas, StringBuilder updates, String column,
+                String aggregate) {
+            columns.append(", ").append(column);
+            deltas.append(", ").append(aggregate).append(" * :sign AS ").append(column);
+            if (!updates.isEmpty()) {
+                updates.append(", ");
+            }
+            // Qualified: the derived table has a column of the same name
+            updates.append(column).append(" = ").append(table).append('.').append(column)
+                    .append(" + delta.").append(column);
+        }
+    }
+
+    /**
+     * Adds the lines of a confirmed sales invoice to the summaries. The lines
+     * must have been persisted in the same session; they are flushed first.
+     *
+     * @param session       The session of the confirming transaction
+     * @param invoiceNumber The invoice number shared by the lines
+     */
+    public void addSales(Session session, String invoiceNumber) {
+        apply(session, SALES_ROLLUPS, SALES + BY_INVOICE, "invoice", checkNotNull(invoiceNumber), 1);
+    }
+
+    /**
+     * Adds the lines of a confirmed purchase invoice to the summaries. The
+     * lines must have been persisted in the same session; they are flushed
+     * first.
+     *
+     * @param session       The session of the confirming transaction
+     * @param invoiceNumber The invoice number shared by the lines
+     */
+    public void addPurchases(Session session, String invoiceNumber) {
+        apply(session, PURCHASE_ROLLUPS, PURCHASING + BY_INVOICE, "invoice", checkNotNull(invoiceNumber), 1);
+    }
+
+    /**
+     * Books a stored return on the summary rows of its invoice line, or takes
+     * it back off them. The row is read in the given session, so call this
+     * after persisting a new return and before removing or changing a stored
+     * one. A return without a line books nothing.
+     *
+     * @param session    The session of the transaction saving the return
+     * @param returnType {@link #SALES_RETURN} or {@link #PURCHASE_RETURN}
+     * @param returnId   The primary key of the return
+     * @param sign       1 when a return is added, -1 when it is removed
+     */
+    public void addReturn(Session session, String returnType, Long returnId, int sign) {
+        checkArgument(sign == 1 || sign == -1, "Sign must be 1 or -1");
+        checkNotNull(returnId);
+        if (SALES_RETURN.equals(returnType)) {
+            apply(session, SALES_RETURN_ROLLUPS, String.format(RETURNED_SALES, BY_RETURN), "returnId", returnId,
+                    sign);
+        } else if (PURCHASE_RETURN.equals(returnType)) {
+            apply(session, PURCHASE_RETURN_ROLLUPS, String.format(RETURNED_PURCHASES, BY_RETURN), "returnId",
+                    returnId, sign);
+        } else {
+            logger.warn("Return {} of unknown type {} is not summarized", returnId, returnType);
+        }
+    }
+
+    /**
+     * Recomputes all summary tables from the sales, purchasing and returns
+     * rows in one transaction. Used to backfill the tables and to repair them
+     * after writes that bypassed this class, such as an offline journal
+     * replay. The summary rows stay locked until the rebuild commits, so
+     * concurrent confirmations wait instead of being counted twice.
+     *
+     * @throws RuntimeException if the rebuild fails; the old totals are kept
+     */
+    public void rebuild() {
+        Transaction transaction = null;
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            transaction = session.beginTransaction();
+            long started = System.currentTimeMillis();
+            for (String table : TABLES) {
+                // DELETE instead of TRUNCATE, which would commit implicitly
+                MutationQuery delete = session.createNativeMutationQuery("DELETE FROM " + table);
+                delete.unwrap(NativeQuery.class).addSynchronizedQuerySpace(table);
+                delete.executeUpdate();
+            }
+            apply(session, SALES_ROLLUPS, SALES, null, null, 1);
+            apply(session, PURCHASE_ROLLUPS, PURCHASING, null, null, 1);
+            apply(session, SALES_RETURN_ROLLUPS, String.format(RETURNED_SALES, ""), null, null, 1);
+            apply(session, PURCHASE_RETURN_ROLLUPS, String.format(RETURNED_PURCHASES, ""), null, null, 1);
+            transaction.commit();
+            ReadRouting.recordWrite();
+            logger.info("Rebuilt summary tables in {} ms", System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            if (transaction != null && transaction.isActive()) {
+                transaction.rollback();
+            }
+            logger.error("Error rebuilding summary tables", e);
+            throw new RuntimeException("Error rebuilding summary tables", e);
+        }
+    }
+
+    /**
+     * Sums the sales of the days in a range from {@code daily_stock_summary}.
+     *
+     * @param from First day, or null for no lower bound
+     * @param to   Last day, or null for no upper bound
+     * @return The sales totals, returns included
+     */
+    public Totals salesTotals(LocalDate from, LocalDate to) {
+        return periodTotals("sold_lines", "sold_quantity", "sales_amount", "returned_sales_quantity",
+                "returned_sales_amount", from, to);
+    }
+
+    /**
+     * Sums the purchases of the days in a range from
+     * {@code daily_stock_summary}.
+     *
+     * @param from First day, or null for no lower bound
+     * @param to   Last day, or null for no upper bound
+     * @return The purchase totals, returns included
+     */
+    public Totals purchaseTotals(LocalDate from, LocalDate to) {
+        return periodTotals("purchased_lines", "purchased_quantity", "purchase_amount",
+                "returned_purchase_quantity", "returned_purchase_amount", from, to);
+    }
+
+    /**
+     * Sums the sales of each customer over all days from
+     * {@code daily_customer_summary}.
+     *
+     * @param customerIds The customers, e.g. those on one page of a table
+     * @return The totals by customer id; customers without sales are missing
+     */
+    public Map<Long, Totals> customerTotals(Collection<Long> customerIds) {
+        return ownerTotals("daily_customer_summary", "customer_id", customerIds);
+    }
+
+    /**
+     * Sums the purchases from each supplier over all months from
+     * {@code monthly_supplier_summary}.
+     *
+     * @param supplierIds The suppliers, e.g. those on one page of a table
+     * @return The totals by supplier id; suppliers without purchases are
+     *         missing
+     */
+    public Map<Long, Totals> supplierTotals(Collection<Long> supplierIds) {
+        return ownerTotals("monthly_supplier_summary", "supplier_id", supplierIds);
+    }
+
+    private static Totals periodTotals(String linesColumn, String quantityColumn, String amountColumn,
+            String returnedQuantityColumn, String returnedAmountColumn, LocalDate from, LocalDate to) {
+        List<String> conditions = new ArrayList<>();
+        if (from != null) {
+            conditions.add("summary_date >= :from");
+        }
+        if (to != null) {
+            conditions.add("summary_date <= :to");
+        }
+        String sql = "SELECT " + sum(linesColumn) + ", " + sum(quantityColumn) + ", " + sum(amountColumn) + ", "
+                + sum(returnedQuantityColumn) + ", " + sum(returnedAmountColumn) + " FROM daily_stock_summary"
+                + (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions));
+        return ReadRouting.onReplica(() -> {
+            try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+                NativeQuery<Object[]> query = session.createNativeQuery(sql, Object[].class);
+                if (from != null) {
+                    query.setParameter("from", from);
+                }
+                if (to != null) {
+                    query.setParameter("to", to);
+                }
+                return Totals.of(query.getSingleResult(), 0);
+            } catch (Exception e) {
+                DatabaseHealthMonitor.reportFailure(e);
+                logger.error("Error reading summary totals", e);
+                throw new RuntimeException("Error reading summary totals", e);
+            }
+        });
+    }
+
+    private static Map<Long, Totals> ownerTotals(String table, String ownerColumn, Collection<Long> ownerIds) {
+        checkNotNull(ownerIds);
+        if (ownerIds.isEmpty()) {
+            return ImmutableMap.of();
+        }
+        String sql = "SELECT " + ownerColumn + ", " + sum("line_count") + ", " + sum("quantity") + ", "
+                + sum("amount") + ", " + sum("returned_quantity") + ", " + sum("returned_amount")
+                + " FROM " + table + " WHERE " + ownerColumn + " IN (:ids) GROUP BY " + ownerColumn;
+        return ReadRouting.onReplica(() -> {
+            try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+                ImmutableMap.Builder<Long, Totals> totals = ImmutableMap.builder();
+                for (Object[] row : session.createNativeQuery(sql, Object[].class)
+                        .setParameterList("ids", ownerIds)
+                        .getResultList()) {
+                    totals.put(((Number) row[0]).longValue(), Totals.of(row, 1));
+                }
+                return totals.build();
+            } catch (Exception e) {
+                DatabaseHealthMonitor.reportFailure(e);
+                logger.error("Error reading summary totals", e);
+                throw new RuntimeException("Error reading summary totals", e);
+            }
+        });
+    }
+
+    private static String sum(String column) {
+        return "COALESCE(SUM(" + column + "), 0)";
+    }
+
+    /**
+     * Runs the rollups of one source. The query space limits second-level
+     * cache invalidation to the summary table; without it Hibernate would
+     * evict every cached entity after a native statement.
+     */
+    private static void apply(Session session, List<Rollup> rollups, String source, String parameter,
+            Object value, int sign) {
+        session.flush();
+        for (Rollup rollup : rollups) {
+            MutationQuery statement = session.createNativeMutationQuery(rollup.sql(source))
+                    .setParameter("sign", sign);
+            if (parameter != null) {
+                statement.setParameter(parameter, value);
+            }
+            statement.unwrap(NativeQuery.class).addSynchronizedQuerySpace(rollup.table());
+            statement.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,595 @@
+package com.lestarieragemilang.desktop.repository;
+
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.OptimisticLockException;
+
+import org.hibernate.Session;
+import org.hibernate.StaleObjectStateException;
+import org.hibernate.Transaction;
+import org.hibernate.exception.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.lestarieragemilang.desktop.utils.DatabaseHealthMonitor;
+import com.lestarieragemilang.desktop.utils.HibernateUtil;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serial;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Local append-only journal of writes made while the database is
+ * unavailable.
+ *
+ * <p>Each entry is a {@link EntitySnapshot} with the operation to apply,
+ * framed as {@code [length][crc32][payload]}. Appends from all threads are
+ * handed to one writer thread, which writes whatever has queued up and then
+ * forces the file to disk once for the whole batch (group commit). A caller
+ * returns only after its entry is durable, but many concurrent callers share
+ * one fsync.
+ *
+ * <p>{@link #replay()} applies the entries in the order they were written,
+ * each in its own transaction. An entry that cannot be applied is a
+ * conflict: an insert whose business code is already taken, an update or
+ * delete of a row that no longer exists, or a stale version of a versioned
+ * entity. Entities without a version column are checked against the
+ * {@code change_log}: an update or delete conflicts if another terminal
+ * changed the row after the last change this terminal had seen when the
+ * entry was made. If that cannot be told (the entry was made before the
+ * change log was first read, or the rows have been purged), the entry is
+ * applied anyway, last writer wins, and a note goes to the conflict log.
+ * Conflicts are logged to {@code offline-conflicts.log} next to the
+ * journal and skipped, so one bad entry never blocks the rest. The offset of
+ * the last processed entry is checkpointed, so a crash during replay does
+ * not apply entries twice.
+ *
+ * <p>When the journal is opened, everything from the first torn or corrupt
+ * entry on (e.g. after a power cut during a write) is cut off the file and
+ * moved to {@code offline-journal.corrupt} for inspection, so new entries are
+ * appended after the last good one. A batch whose write fails is cut off the
+ * same way. Should a replay still meet an unreadable entry, it fails rather
+ * than wait for it.
+ *
+ * <p>The journal lives in {@code ~/.lestari-gemilang/} unless the
+ * {@value #DIRECTORY_PROPERTY} system property names another directory.
+ */
+public final class WriteJournal {
+    private static final Logger logger = LoggerFactory.getLogger(WriteJournal.class);
+
+    /**
+     * System property that overrides the journal directory.
+     */
+    public static final String DIRECTORY_PROPERTY = "lestari.journal.dir";
+
+    private static final String JOURNAL_FILE = "offline-journal.bin";
+    private static final String CHECKPOINT_FILE = "offline-journal.pos";
+    private static final String CONFLICT_FILE = "offline-conflicts.log";
+    private static final String CORRUPT_FILE = "offline-journal.corrupt";
+    private static final int HEADER_BYTES = 8;
+    private static final int MAX_ENTRY_BYTES = 1 << 20;
+
+    private static final WriteJournal INSTANCE = new WriteJournal(defaultDirectory());
+
+    /**
+     * The write recorded by a journal entry.
+     */
+    public enum Operation {
+        SAVE, UPDATE, DELETE
+    }
+
+    /**
+     * One journaled write.
+     *
+     * @param operation     The write to apply
+     * @param snapshot      The entity state at the time of the write
+     * @param recordedAt    When the write was made
+     * @param seenChangeSeq The newest change log entry this terminal had
+     *                      seen at that time, or null if unknown
+     */
+    public record Entry(Operation operation, EntitySnapshot snapshot, Instant recordedAt, Long seenChangeSeq)
+            implements Serializable {
+        @Serial
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * A journaled write that could not be applied.
+     *
+     * @param entry  The entry
+     * @param reason Why it was rejected
+     */
+    public record Conflict(Entry entry, String reason) {
+    }
+
+    /**
+     * Outcome of a replay.
+     *
+     * @param applied   Number of entries written to the database
+     * @param conflicts Entries that were skipped
+     */
+    public record ReplayResult(int applied, List<Conflict> conflicts) {
+        public boolean isEmpty() {
+            return applied == 0 && conflicts.isEmpty();
+        }
+    }
+
+    private record PendingAppend(byte[] frame, CompletableFuture<Void> durable) {
+    }
+
+    private final Path directory;
+    private final Path journalFile;
+    private final Path checkpointFile;
+    private final Path conflictFile;
+    private final BlockingQueue<PendingAppend> queue = new LinkedBlockingQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Object fileLock = new Object();
+    private final Object replayLock = new Object();
+    private final ChangeLogDao changeLog = new ChangeLogDao();
+    private Thread writer;
+
+    // Package-private for tests, which use a journal in a temporary directory
+    WriteJournal(Path directory) {
+        this.directory = directory;
+        this.journalFile = directory.resolve(JOURNAL_FILE);
+        this.checkpointFile = directory.resolve(CHECKPOINT_FILE);
+        this.conflictFile = directory.resolve(CONFLICT_FILE);
+        this.pending.set(recover());
+    }
+
+    public static WriteJournal getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Checks whether entries are waiting to be replayed. While this is true
+     * new writes must also go to the journal, so they are applied after the
+     * earlier ones.
+     *
+     * @return true if the journal holds unapplied entries
+     */
+    public boolean hasPending() {
+        return pending.get() > 0;
+    }
+
+    /**
+     * Number of entries waiting to be replayed.
+     *
+     * @return The pending entry count
+     */
+    public int pendingCount() {
+        return pending.get();
+    }
+
+    /**
+     * Appends a write to the journal and waits until it is on disk.
+     *
+     * @param operation The write to record
+     * @param entity    The entity being written
+     * @throws UncheckedIOException if the journal cannot be written
+     * @throws EntitySnapshot.UnsavedEntityException if the entity to update
+     *                                               or delete, or an entity
+     *                                               it refers to, has no
+     *                                               identifier yet
+     */
+    public void append(Operation operation, Object entity) {
+        checkNotNull(operation);
+        Entry entry = new Entry(operation, EntitySnapshot.of(entity), Instant.now(), ChangeLogDao.seenSeq());
+        if (operation != Operation.SAVE && entry.snapshot().id() == null) {
+            throw new EntitySnapshot.UnsavedEntityException(
+                    "Cannot journal " + operation + " of an unsaved " + entry.snapshot().type().getSimpleName());
+        }
+        PendingAppend append = new PendingAppend(frame(entry), new CompletableFuture<>());
+        ensureWriter();
+        pending.incrementAndGet();
+        queue.add(append);
+        try {
+            append.durable().join();
+        } catch (CompletionException e) {
+            pending.decrementAndGet();
+            throw new UncheckedIOException("Gagal menulis jurnal offline", (IOException) e.getCause());
+        }
+        logger.info("Journaled offline {} of {}", operation, entry.snapshot().type().getSimpleName());
+    }
+
+    /**
+     * Applies all pending entries to the database in journal order.
+     * Entries appended while the replay runs are applied too, so once this
+     * returns normally the journal is empty and writes may go straight to the
+     * database again.
+     *
+     * @return How many entries were applied and which conflicted
+     * @throws IllegalStateException if the database is unavailable or the
+     *                               journal holds an unreadable entry
+     * @throws RuntimeException      if the connection is lost again; the
+     *                               remaining entries stay in the journal
+     */
+    public ReplayResult replay() {
+        checkState(HibernateUtil.isDatabaseAvailable(), "Database tidak tersedia");
+        return replay(this::apply);
+    }
+
+    /**
+     * Replays the pending entries through the given function.
+     *
+     * @param applier Applies one entry and returns the conflict reason, or
+     *                null if it was applied
+     */
+    ReplayResult replay(Function<Entry, String> applier) {
+        synchronized (replayLock) {
+            int applied = 0;
+            List<Conflict> conflicts = new ArrayList<>();
+            try {
+                long offset = readCheckpoint();
+                while (true) {
+                    Positioned next = readAt(offset);
+                    if (next != null) {
+                        String reason = applier.apply(next.entry());
+                        if (reason == null) {
+                            applied++;
+                        } else {
+                            Conflict conflict = new Conflict(next.entry(), reason);
+                            conflicts.add(conflict);
+                            logConflict(conflict);
+                        }
+                        offset = next.end();
+                        writeCheckpoint(offset);
+                        pending.decrementAndGet();
+                        continue;
+                    }
+                    synchronized (fileLock) {
+                        if (readAt(offset) == null) {
+                            // The writer is not mid-batch, so bytes left here can never be read
+                            checkState(!Files.exists(journalFile) || Files.size(journalFile) <= offset,
+                                    "Jurnal offline rusak pada posisi %s; periksa %s", offset, journalFile);
+                            // Nothing left on disk and nothing waiting for the writer
+                            if (pending.get() <= 0) {
+                                Files.deleteIfExists(journalFile);
+                                Files.deleteIfExists(checkpointFile);
+                                pending.set(0);
+                                break;
+                            }
+                        }
+                    }
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+                }
+            } catch (IOException e) {
+                logger.error("Error replaying offline journal", e);
+                throw new UncheckedIOException("Gagal membaca jurnal offline", e);
+            }
+            if (applied > 0 || !conflicts.isEmpty()) {
+                logger.info("Replayed offline journal: {} applied, {} conflicts", applied, conflicts.size());
+            }
+            return new ReplayResult(applied, ImmutableList.copyOf(conflicts));
+        }
+    }
+
+    /**
+     * Returns the file conflicting entries are written to.
+     *
+     * @return The conflict log path
+     */
+    public Path getConflictFile() {
+        return conflictFile;
+    }
+
+    private String apply(Entry entry) {
+        EntitySnapshot snapshot = entry.snapshot();
+        Transaction transaction = null;
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            transaction = session.beginTransaction();
+            Object entity = snapshot.restore(session);
+            RemoteCheck check = RemoteCheck.CLEAN;
+            if (entry.operation() != Operation.SAVE) {
+                if (session.find(snapshot.type(), snapshot.id()) == null) {
+                    transaction.rollback();
+                    return "Data sudah dihapus";
+                }
+                check = checkRemoteChanges(session, entry);
+                if (check == RemoteCheck.CHANGED) {
+                    transaction.rollback();
+                    return "Data telah diubah oleh pengguna lain";
+                }
+            }
+            switch (entry.operation()) {
+                case SAVE -> session.persist(entity);
+                case UPDATE -> session.merge(entity);
+                case DELETE -> session.remove(session.merge(entity));
+            }
+            changeLog.record(session, entity, entry.operation());
+            transaction.commit();
+            if (check == RemoteCheck.UNKNOWN) {
+                writeConflictLine(entry, "Diterapkan tanpa pemeriksaan perubahan dari terminal lain");
+            }
+            return null;
+        } catch (RuntimeException e) {
+            if (transaction != null && transaction.isActive()) {
+                transaction.rollback();
+            }
+            if (DatabaseHealthMonitor.isConnectionFailure(e)) {
+                // Not a conflict; keep the entry for the next replay
+                DatabaseHealthMonitor.reportFailure(e);
+                throw e;
+            }
+            return conflictReason(e);
+        }
+    }
+
+    private enum RemoteCheck {
+        CLEAN, CHANGED, UNKNOWN
+    }
+
+    /**
+     * Versioned entities are covered by optimistic locking. For the others,
+     * looks for changes to the row by other terminals that this terminal had
+     * not seen when the entry was made.
+     */
+    private RemoteCheck checkRemoteChanges(Session session, Entry entry) {
+        EntitySnapshot snapshot = entry.snapshot();
+        if (snapshot.version() != null) {
+            return RemoteCheck.CLEAN;
+        }
+        Long seen = entry.seenChangeSeq();
+        if (seen == null || !changeLog.retainsAfter(session, seen)) {
+            return RemoteCheck.UNKNOWN;
+        }
+        return changeLog.changedElsewhere(session, snapshot.type(), snapshot.id(), seen)
+                ? RemoteCheck.CHANGED
+                : RemoteCheck.CLEAN;
+    }
+
+    private static String conflictReason(Throwable e) {
+        for (Throwable cause : Throwables.getCausalChain(e)) {
+            if (cause instanceof OptimisticLockException || cause instanceof StaleObjectStateException) {
+                return "Data telah diubah oleh pengguna lain";
+            }
+            if (cause instanceof ConstraintViolationException violation) {
+                return "Melanggar batasan data: "
+                        + Objects.toString(violation.getConstraintName(), violation.getMessage());
+            }
+            if (cause instanceof EntityNotFoundException) {
+                return "Data referensi tidak ditemukan";
+            }
+        }
+        return "Gagal diterapkan: " + Throwables.getRootCause(e).getMessage();
+    }
+
+    private void ensureWriter() {
+        synchronized (queue) {
+            if (writer == null || !writer.isAlive()) {
+                writer = new Thread(this::drain, "offline-journal-writer");
+                writer.setDaemon(true);
+                writer.start();
+            }
+        }
+    }
+
+    private void drain() {
+        List<PendingAppend> batch = new ArrayList<>();
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(batch);
+            try {
+                synchronized (fileLock) {
+                    Files.createDirectories(directory);
+                    try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.CREATE,
+                            StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                        long start = channel.size();
+                        try {
+                            for (PendingAppend append : batch) {
+                                ByteBuffer buffer = ByteBuffer.wrap(append.frame());
+                                while (buffer.hasRemaining()) {
+                                    channel.write(buffer);
+                                }
+                            }
+                            channel.force(false);
+                        } catch (IOException e) {
+                            // Leave no partial frame for later appends to land behind
+                            channel.truncate(start);
+                            channel.force(false);
+                            throw e;
+                        }
+                    }
+                }
+                batch.forEach(append -> append.durable().complete(null));
+            } catch (IOException e) {
+                logger.error("Error writing offline journal", e);
+                batch.forEach(append -> append.durable().completeExceptionally(e));
+            }
+            batch.clear();
+        }
+    }
+
+    private static byte[] frame(Entry entry) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(entry);
+            }
+            byte[] payload = bytes.toByteArray();
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            return ByteBuffer.allocate(HEADER_BYTES + payload.length)
+                    .putInt(payload.length)
+                    .putInt((int) crc.getValue())
+                    .put(payload)
+                    .array();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot serialize journal entry", e);
+        }
+    }
+
+    private record Positioned(Entry entry, long end) {
+    }
+
+    /**
+     * Reads the entry starting at the given offset.
+     *
+     * @return The entry and the offset after it, or null at the end of the
+     *         file or at a torn or corrupt entry
+     */
+    private Positioned readAt(long offset) throws IOException {
+        if (!Files.exists(journalFile)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.READ)) {
+            channel.position(offset);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            if (!readFully(channel, header)) {
+                return null;
+            }
+            int length = header.getInt(0);
+            int checksum = header.getInt(4);
+            if (length <= 0 || length > MAX_ENTRY_BYTES) {
+                logger.warn("Ignoring corrupt offline journal tail at offset {}", offset);
+                return null;
+            }
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            if (!readFully(channel, payload)) {
+                return null;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(payload.array());
+            if ((int) crc.getValue() != checksum) {
+                logger.warn("Ignoring offline journal entry with bad checksum at offset {}", offset);
+                return null;
+            }
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(payload.array()))) {
+                return new Positioned((Entry) in.readObject(), channel.position());
+            } catch (ClassNotFoundException e) {
+                throw new IOException("Unknown journal entry type", e);
+            }
+        }
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Counts the pending entries and cuts a torn or corrupt tail off the
+     * journal, keeping a copy of the cut bytes.
+     *
+     * @return The number of readable pending entries
+     */
+    private int recover() {
+        int count = 0;
+        try {
+            long offset = readCheckpoint();
+            Positioned next;
+            while ((next = readAt(offset)) != null) {
+                offset = next.end();
+                count++;
+            }
+            truncateAt(offset);
+        } catch (IOException e) {
+            logger.error("Error reading offline journal", e);
+        }
+        if (count > 0) {
+            logger.info("Offline journal holds {} pending entries", count);
+        }
+        return count;
+    }
+
+    private void truncateAt(long offset) throws IOException {
+        if (!Files.exists(journalFile)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            if (size <= offset) {
+                return;
+            }
+            ByteBuffer tail = ByteBuffer.allocate(Math.toIntExact(Math.min(size - offset, Integer.MAX_VALUE)));
+            channel.position(offset);
+            readFully(channel, tail);
+            Files.write(directory.resolve(CORRUPT_FILE), tail.array(), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            channel.truncate(offset);
+            channel.force(true);
+            logger.warn("Cut {} unreadable bytes off the offline journal at offset {}; kept in {}",
+                    size - offset, offset, CORRUPT_FILE);
+        }
+    }
+
+    private long readCheckpoint() {
+        try {
+            return Files.exists(checkpointFile)
+                    ? Long.parseLong(Files.readString(checkpointFile, StandardCharsets.US_ASCII).trim())
+                    : 0L;
+        } catch (IOException | NumberFormatException e) {
+            logger.warn("Ignoring unreadable offline journal checkpoint", e);
+            return 0L;
+        }
+    }
+
+    private void writeCheckpoint(long offset) throws IOException {
+        Files.writeString(checkpointFile, Long.toString(offset), StandardCharsets.US_ASCII,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE, StandardOpenOption.SYNC);
+    }
+
+    private void logConflict(Conflict conflict) {
+        Entry entry = conflict.entry();
+        writeConflictLine(entry, conflict.reason());
+        logger.warn("Offline journal conflict: {} {} - {}", entry.operation(),
+                entry.snapshot().entityClass(), conflict.reason());
+    }
+
+    private void writeConflictLine(Entry entry, String reason) {
+        String line = String.format("%s\t%s\t%s\tid=%s\t%s\t%s", Instant.now(), entry.recordedAt(),
+                entry.operation(), entry.snapshot().id(), entry.snapshot().entityClass(), reason)
+                + "\t" + entry.snapshot().values() + System.lineSeparator();
+        try {
+            Files.writeString(conflictFile, line, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            logger.error("Error writing offline conflict log", e);
+        }
+    }
+
+    private static Path defaultDirectory() {
+        String configured = System.getProperty(DIRECTORY_PROPERTY);
+        return configured != null && !configured.isBlank()
+                ? Path.of(configured)
+                : Path.of(System.getProperty("user.home"), ".lestari-gemilang");
+    }
+}
@@ -0,0 +1,207 @@
+package com.lestarieragemilang.desktop.service;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.prefs.BackingStoreException;
+import java.util.prefs.Preferences;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Splitter;
+import com.google.common.primitives.Longs;
+import com.lestarieragemilang.desktop.repository.SequenceDao;
+import com.lestarieragemilang.desktop.utils.HibernateUtil;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Issues sequential business IDs such as "BRG-1001" or "RET-1002".
+ * Each allocator reserves a block of numbers from the {@code id_sequences}
+ * table in one short transaction and then hands them out from memory, so
+ * new IDs need no existence checks: uniqueness is guaranteed by the
+ * sequence row, and the UNIQUE constraint on the code column remains the
+ * last line of defence.
+ *
+ * <p>IDs are never reused. Numbers reserved but not saved (e.g. a form
+ * that was cancelled, or unused numbers at shutdown) leave gaps.
+ *
+ * <p>Prefix allocators also keep an offline reserve: a second block taken
+ * from the same sequence while the database is reachable and remembered in
+ * the user preferences of this machine. While the database is down, IDs come
+ * from that reserve, so records created offline and replayed later from the
+ * write journal never collide with codes issued by other terminals. When the
+ * reserve runs out, no further IDs are issued until the connection is back.
+ */
+public final class BusinessIdAllocator {
+    /**
+     * Numbers reserved per database round trip.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 20;
+
+    /**
+     * Numbers kept in the offline reserve of each prefix. The reserve is
+     * topped up once fewer than half of them are left.
+     */
+    public static final int OFFLINE_RESERVE_SIZE = 50;
+
+    private static final Logger logger = LoggerFactory.getLogger(BusinessIdAllocator.class);
+    private static final String RESERVE_PREF_PREFIX = "offlineIds.";
+    private static final String RESERVE_EMPTY_MESSAGE =
+            "Nomor kode offline habis; sambungkan kembali database untuk menambah data baru";
+
+    private static final ConcurrentMap<String, BusinessIdAllocator> ALLOCATORS = new ConcurrentHashMap<>();
+    private static final SequenceDao SEQUENCE_DAO = new SequenceDao();
+
+    private final String prefix;
+    private final int blockSize;
+    private final long initialValue;
+    private final boolean offlineReserve;
+    private volatile Block block;
+
+    private BusinessIdAllocator(String prefix, int blockSize, long initialValue, boolean offlineReserve) {
+        this.prefix = prefix;
+        this.blockSize = blockSize;
+        this.initialValue = initialValue;
+        this.offlineReserve = offlineReserve;
+    }
+
+    /**
+     * Returns the shared allocator for an ID prefix.
+     *
+     * @param prefix The code prefix, also used as the sequence name (e.g. "BRG")
+     * @return The allocator for that prefix
+     */
+    public static BusinessIdAllocator forPrefix(String prefix) {
+        checkNotNull(prefix);
+        checkArgument(!prefix.isEmpty(), "Prefix cannot be empty");
+        return ALLOCATORS.computeIfAbsent(prefix,
+                p -> new BusinessIdAllocator(p, DEFAULT_BLOCK_SIZE, SequenceDao.INITIAL_VALUE, true));
+    }
+
+    /**
+     * Returns the shared allocator for a sequence with its own starting value
+     * and block size, e.g. the per-day invoice counters. Sequences have no
+     * offline reserve.
+     *
+     * @param name         The sequence name, also used as the ID prefix
+     * @param initialValue First value issued if the sequence does not exist yet
+     * @param blockSize    Numbers reserved per database round trip
+     * @return The allocator for that sequence
+     */
+    public static BusinessIdAllocator forSequence(String name, long initialValue, int blockSize) {
+        checkNotNull(name);
+        checkArgument(blockSize > 0, "Block size must be positive");
+        return ALLOCATORS.computeIfAbsent(name, n -> new BusinessIdAllocator(n, blockSize, initialValue, false));
+    }
+
+    /**
+     * Drops the shared allocator of a sequence that will not be used again,
+     * e.g. the invoice counter of a past day. Unused reserved numbers are lost.
+     *
+     * @param name The sequence name
+     */
+    public static void discard(String name) {
+        ALLOCATORS.remove(name);
+    }
+
+    /**
+     * Returns the next ID of this sequence, formatted as "PREFIX-NNN".
+     * Only the first call of every reserved block reaches the database.
+     * Without a database the ID is taken from the offline reserve.
+     *
+     * @return A new, never issued ID
+     * @throws IllegalStateException if the database is unavailable and there
+     *                               is no offline reserve left
+     */
+    public String nextId() {
+        if (!HibernateUtil.isDatabaseAvailable()) {
+            return nextOfflineId();
+        }
+        while (true) {
+            Block current = block;
+            if (current != null) {
+                long value = current.next.getAndIncrement();
+                if (value < current.end) {
+                    return format(value);
+                }
+            }
+            refill(current);
+        }
+    }
+
+    private synchronized void refill(Block exhausted) {
+        // Another thread may already have replaced the block we saw empty.
+        if (block == exhausted) {
+            long first = SEQUENCE_DAO.reserve(prefix, blockSize, initialValue);
+            block = new Block(new AtomicLong(first), first + blockSize);
+            if (offlineReserve) {
+                topUpOfflineReserve();
+            }
+        }
+    }
+
+    private void topUpOfflineReserve() {
+        Block reserve = loadReserve();
+        if (reserve != null && reserve.end - reserve.next.get() >= OFFLINE_RESERVE_SIZE / 2) {
+            return;
+        }
+        try {
+            // The rest of the old reserve is given up; the new block is rarely adjacent.
+            long first = SEQUENCE_DAO.reserve(prefix, OFFLINE_RESERVE_SIZE, initialValue);
+            storeReserve(first, first + OFFLINE_RESERVE_SIZE);
+        } catch (RuntimeException e) {
+            logger.warn("Could not top up the offline {} reserve; retrying with the next block", prefix);
+        }
+    }
+
+    private synchronized String nextOfflineId() {
+        checkState(offlineReserve, "Database tidak tersedia");
+        Block reserve = loadReserve();
+        checkState(reserve != null && reserve.next.get() < reserve.end, RESERVE_EMPTY_MESSAGE);
+        long value = reserve.next.get();
+        // Stored before the ID is handed out, so a crash can only lose a number
+        storeReserve(value + 1, reserve.end);
+        return format(value);
+    }
+
+    private Block loadReserve() {
+        String stored = preferences().get(RESERVE_PREF_PREFIX + prefix, null);
+        if (stored == null) {
+            return null;
+        }
+        List<String> parts = Splitter.on(':').splitToList(stored);
+        Long next = parts.size() == 2 ? Longs.tryParse(parts.get(0)) : null;
+        Long end = parts.size() == 2 ? Longs.tryParse(parts.get(1)) : null;
+        if (next == null || end == null) {
+            logger.warn("Ignoring malformed offline {} reserve '{}'", prefix, stored);
+            return null;
+        }
+        return new Block(new AtomicLong(next), end);
+    }
+
+    private void storeReserve(long next, long end) {
+        Preferences prefs = preferences();
+        prefs.put(RESERVE_PREF_PREFIX + prefix, next + ":" + end);
+        try {
+            prefs.flush();
+        } catch (BackingStoreException e) {
+            logger.warn("Could not persist the offline {} reserve", prefix, e);
+        }
+    }
+
+    private String format(long value) {
+        return String.format("%s-%03d", prefix, value);
+    }
+
+    private static Preferences preferences() {
+        return Preferences.userNodeForPackage(BusinessIdAllocator.class);
+    }
+
+    private record Block(AtomicLong next, long end) {
+    }
+}
@@ -0,0 +1,219 @@
+package com.lestarieragemilang.desktop.service;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.SetMultimap;
+import com.lestarieragemilang.desktop.model.Invoice;
+import com.lestarieragemilang.desktop.model.InvoiceType;
+import com.lestarieragemilang.desktop.repository.ChangeLogDao;
+import com.lestarieragemilang.desktop.repository.FetchPlan;
+import com.lestarieragemilang.desktop.repository.GenericDao;
+import com.lestarieragemilang.desktop.repository.ReferenceChecker;
+import com.lestarieragemilang.desktop.utils.HibernateUtil;
+import com.lestarieragemilang.desktop.utils.ReadRouting;
+
+import jakarta.persistence.metamodel.EntityType;
+
+/**
+ * Follows the {@code change_log} table so that writes made on other
+ * terminals show up here without a restart or a manual reload.
+ *
+ * <p>Every couple of seconds the rows after the last seen sequence number are
+ * read by primary key range. For each change made by another terminal the
+ * changed entity is evicted from the second-level cache, the query cache is
+ * cleared, the reference checker forgets the results the change may affect,
+ * and the entity's event is posted on
+ * {@link DomainEvents} with {@code remote} set, so the screens showing it
+ * reload. Changes made by this terminal are skipped; the services have
+ * already posted their events.
+ *
+ * <p>Sequence numbers are assigned at insert but become visible at commit, so
+ * a lower number may appear after a higher one. Numbers missing between the
+ * last seen and the newest row are waited for a few seconds before they are
+ * given up as rolled back.
+ *
+ * <p>The newest number whose changes have been delivered is published through
+ * {@link ChangeLogDao#markSeen(long)}; the offline journal compares against
+ * it to tell whether a row it is about to overwrite changed elsewhere.
+ */
+public final class ChangeFeed {
+    private static final Logger logger = LoggerFactory.getLogger(ChangeFeed.class);
+    private static final ChangeFeed INSTANCE = new ChangeFeed();
+
+    private static final long POLL_INTERVAL_MILLIS = 2000;
+    private static final int BATCH_SIZE = 500;
+    private static final long GAP_TIMEOUT_MILLIS = 10_000;
+    private static final int RETENTION_HOURS = 24;
+    private static final int PURGE_BATCH_SIZE = 5000;
+    private static final int POLLS_PER_PURGE = 1800;
+
+    private final ChangeLogDao changeLog = new ChangeLogDao();
+    private final GenericDao<Invoice> invoiceDao = new GenericDao<>(Invoice.class);
+
+    // Confined to the poll thread
+    private final Set<Long> delivered = new HashSet<>();
+    private long confirmedSeq = -1;
+    private long gapSeq = -1;
+    private long gapSeenAt;
+    private int polls;
+    private Map<String, Class<?>> entityTypes;
+
+    private ScheduledExecutorService scheduler;
+
+    private ChangeFeed() {
+    }
+
+    public static ChangeFeed getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Starts following the change log. Only changes made after the first
+     * successful poll are delivered; screens load their current state anyway.
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "change-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::poll, POLL_INTERVAL_MILLIS, POLL_INTERVAL_MILLIS,
+                TimeUnit.MILLISECONDS);
+        logger.info("Change feed started (origin {})", ChangeLogDao.ORIGIN);
+    }
+
+    /**
+     * Stops following the change log.
+     */
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    private void poll() {
+        try {
+            if (!HibernateUtil.isDatabaseAvailable()) {
+                return;
+            }
+            if (confirmedSeq < 0) {
+                confirmedSeq = changeLog.latestSeq();
+                ChangeLogDao.markSeen(confirmedSeq);
+                return;
+            }
+            List<ChangeLogDao.Change> changes = changeLog.findAfter(confirmedSeq, BATCH_SIZE);
+            List<ChangeLogDao.Change> remote = changes.stream()
+                    .filter(change -> delivered.add(change.seq()))
+                    .filter(ChangeLogDao.Change::isRemote)
+                    .toList();
+            advance(changes);
+            if (!remote.isEmpty()) {
+                apply(remote);
+            }
+            ChangeLogDao.markSeen(confirmedSeq);
+            if (++polls % POLLS_PER_PURGE == 0) {
+                changeLog.purgeOlderThan(RETENTION_HOURS, PURGE_BATCH_SIZE);
+            }
+        } catch (RuntimeException e) {
+            // Already logged by the DAO; keep polling
+            logger.debug("Change feed poll failed", e);
+        }
+    }
+
+    /**
+     * Moves the confirmed sequence number over every change that has no
+     * missing number before it, waiting out gaps that may still be filled.
+     */
+    private void advance(List<ChangeLogDao.Change> changes) {
+        long next = confirmedSeq;
+        for (ChangeLogDao.Change change : changes) {
+            if (change.seq() != next + 1) {
+                long now = System.currentTimeMillis();
+                if (gapSeq != next + 1) {
+                    gapSeq = next + 1;
+                    gapSeenAt = now;
+                }
+                if (now - gapSeenAt < GAP_TIMEOUT_MILLIS) {
+                    break;
+                }
+                logger.debug("Change log gap {}..{} given up", next + 1, change.seq() - 1);
+            }
+            next = change.seq();
+        }
+        long confirmed = next;
+        confirmedSeq = confirmed;
+        delivered.removeIf(seq -> seq <= confirmed);
+    }
+
+    private void apply(List<ChangeLogDao.Change> changes) {
+        SessionFactory sessionFactory = HibernateUtil.getSessionFactory();
+        Cache cache = sessionFactory.getCache();
+        Set<Class<?>> changedTypes = new HashSet<>();
+        SetMultimap<Class<?>, Long> changedIds = HashMultimap.create();
+        for (ChangeLogDao.Change change : changes) {
+            Class<?> type = entityType(sessionFactory, change.entity());
+            if (type == null) {
+                continue;
+            }
+            changedTypes.add(type);
+            if (change.entityId() != null) {
+                cache.evictEntityData(type, change.entityId());
+                changedIds.put(type, change.entityId());
+            } else {
+                cache.evictEntityData(type);
+            }
+        }
+        cache.evictQueryRegions();
+        ReferenceChecker.getInstance().invalidateReferencesFrom(changedTypes.toArray(new Class<?>[0]));
+        // Our replica may lag behind the other terminal's write as well
+        ReadRouting.recordWrite();
+        logger.debug("{} remote changes to {}", changes.size(), changedTypes);
+        for (Class<?> type : changedTypes) {
+            if (type == Invoice.class) {
+                postConfirmed(changedIds.get(type));
+            } else {
+                DomainEvents.postChanged(type, changedIds.get(type), true);
+            }
+        }
+    }
+
+    /**
+     * Invoices are only ever inserted, by a confirmed sale or purchase; the
+     * header says which.
+     */
+    private void postConfirmed(Set<Long> invoiceIds) {
+        for (Long id : invoiceIds) {
+            Invoice invoice = invoiceDao.findById(id, FetchPlan.NONE);
+            if (invoice != null) {
+                DomainEvents.post(invoice.getType() == InvoiceType.SALE
+                        ? new DomainEvents.SaleConfirmed(invoice.getInvoiceNumber(), true)
+                        : new DomainEvents.PurchaseConfirmed(invoice.getInvoiceNumber(), true));
+            }
+        }
+    }
+
+    private Class<?> entityType(SessionFactory sessionFactory, String entityName) {
+        if (entityTypes == null) {
+            entityTypes = sessionFactory.getMetamodel().getEntities().stream()
+                    .collect(Collectors.toMap(EntityType::getName, EntityType::getJavaType));
+        }
+        return entityTypes.get(entityName);
+    }
+}
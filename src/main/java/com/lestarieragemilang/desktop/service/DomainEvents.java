@@ -0,0 +1,187 @@
+package com.lestarieragemilang.desktop.service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.eventbus.EventBus;
+import com.google.common.eventbus.Subscribe;
+import com.lestarieragemilang.desktop.model.Category;
+import com.lestarieragemilang.desktop.model.Customer;
+import com.lestarieragemilang.desktop.model.Returns;
+import com.lestarieragemilang.desktop.model.Stock;
+import com.lestarieragemilang.desktop.model.Supplier;
+
+import javafx.application.Platform;
+
+/**
+ * The shared event bus for changes to the data shown on screen.
+ *
+ * <p>Services post a typed event once a write has committed, and
+ * {@link ChangeFeed} posts the same events for writes made on other
+ * terminals. Controllers register themselves and receive only the event
+ * types their {@link Subscribe} methods accept, so a change to a customer
+ * reloads the customer table and nothing else. Events are always delivered
+ * on the JavaFX Application Thread.
+ *
+ * <p>A registered controller stays reachable from the bus; {@code SceneManager}
+ * unregisters it when its scene leaves the scene cache.
+ */
+public final class DomainEvents {
+    private static final Logger logger = LoggerFactory.getLogger(DomainEvents.class);
+    private static final String NULL_LISTENER_MESSAGE = "Listener cannot be null";
+
+    private static final EventBus EVENT_BUS = new EventBus((e, context) -> logger.error(
+            "Error handling {} in {}", context.getEvent().getClass().getSimpleName(),
+            context.getSubscriber().getClass().getName(), e));
+
+    /** Builds the change event for each entity type that has one. */
+    private static final ImmutableMap<Class<?>, BiFunction<Set<Long>, Boolean, Object>> CHANGE_EVENTS =
+            ImmutableMap.<Class<?>, BiFunction<Set<Long>, Boolean, Object>>of(
+                    Stock.class, StockChanged::new,
+                    Category.class, CategoryChanged::new,
+                    Customer.class, CustomerChanged::new,
+                    Supplier.class, SupplierChanged::new,
+                    Returns.class, ReturnChanged::new);
+
+    private static final Set<Object> registered = Collections.synchronizedSet(
+            Collections.newSetFromMap(new IdentityHashMap<>()));
+
+    /**
+     * Stock items were saved, updated or deleted, or their quantities changed.
+     *
+     * @param ids    The primary keys of the changed items; empty if unknown
+     * @param remote true if another terminal made the change
+     */
+    public record StockChanged(Set<Long> ids, boolean remote) {
+    }
+
+    /**
+     * Categories were saved, updated or deleted.
+     *
+     * @param ids    The primary keys of the changed categories; empty if unknown
+     * @param remote true if another terminal made the change
+     */
+    public record CategoryChanged(Set<Long> ids, boolean remote) {
+    }
+
+    /**
+     * Customers were saved, updated or deleted.
+     *
+     * @param ids    The primary keys of the changed customers; empty if unknown
+     * @param remote true if another terminal made the change
+     */
+    public record CustomerChanged(Set<Long> ids, boolean remote) {
+    }
+
+    /**
+     * Suppliers were saved, updated or deleted.
+     *
+     * @param ids    The primary keys of the changed suppliers; empty if unknown
+     * @param remote true if another terminal made the change
+     */
+    public record SupplierChanged(Set<Long> ids, boolean remote) {
+    }
+
+    /**
+     * Returns were saved, updated or deleted.
+     *
+     * @param ids    The primary keys of the changed returns; empty if unknown
+     * @param remote true if another terminal made the change
+     */
+    public record ReturnChanged(Set<Long> ids, boolean remote) {
+    }
+
+    /**
+     * A sales invoice was confirmed. The stock it took out is announced
+     * separately by a {@link StockChanged} event.
+     *
+     * @param invoiceNumber The confirmed invoice number
+     * @param remote        true if another terminal confirmed it
+     */
+    public record SaleConfirmed(String invoiceNumber, boolean remote) {
+    }
+
+    /**
+     * A purchase invoice was confirmed. The stock it added is announced
+     * separately by a {@link StockChanged} event.
+     *
+     * @param invoiceNumber The confirmed invoice number
+     * @param remote        true if another terminal confirmed it
+     */
+    public record PurchaseConfirmed(String invoiceNumber, boolean remote) {
+    }
+
+    private DomainEvents() {
+    }
+
+    /**
+     * Registers an object whose {@link Subscribe} methods receive the events
+     * they accept. Registering the same object twice has no effect.
+     *
+     * @param listener The listener to register, typically a controller
+     */
+    public static void register(Object listener) {
+        Preconditions.checkNotNull(listener, NULL_LISTENER_MESSAGE);
+        if (registered.add(listener)) {
+            EVENT_BUS.register(listener);
+        }
+    }
+
+    /**
+     * Unregisters a listener. Does nothing if it was not registered.
+     *
+     * @param listener The listener to unregister
+     */
+    public static void unregister(Object listener) {
+        Preconditions.checkNotNull(listener, NULL_LISTENER_MESSAGE);
+        if (registered.remove(listener)) {
+            EVENT_BUS.unregister(listener);
+        }
+    }
+
+    /**
+     * Posts an event to the registered listeners on the JavaFX Application
+     * Thread. Called from any thread once the change has committed.
+     *
+     * @param event The event to post
+     */
+    public static void post(Object event) {
+        Preconditions.checkNotNull(event);
+        if (Platform.isFxApplicationThread()) {
+            EVENT_BUS.post(event);
+        } else {
+            Platform.runLater(() -> EVENT_BUS.post(event));
+        }
+    }
+
+    /**
+     * Posts the change event of an entity type, if it has one.
+     *
+     * @param entityType The entity class that changed
+     * @param ids        The primary keys of the changed rows; empty if unknown
+     * @param remote     true if another terminal made the change
+     */
+    public static void postChanged(Class<?> entityType, Collection<Long> ids, boolean remote) {
+        BiFunction<Set<Long>, Boolean, Object> event = CHANGE_EVENTS.get(entityType);
+        if (event != null) {
+            post(event.apply(ImmutableSet.copyOf(ids), remote));
+        }
+    }
+
+    /**
+     * Posts a change event for every entity type with unknown rows, e.g.
+     * after replaying the offline journal.
+     */
+    public static void postAllChanged() {
+        CHANGE_EVENTS.keySet().forEach(type -> postChanged(type, Set.of(), false));
+    }
+}
@@ -2,11 +2,26 @@ package com.lestarieragemilang.desktop.service;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import javafx.application.Platform;
 
 import org.hibernate.exception.ConstraintViolationException;
 
-import com.lestarieragemilang.desktop.App;
+import com.lestarieragemilang.desktop.repository.EntitySnapshot;
+import com.lestarieragemilang.desktop.repository.FetchPlan;
 import com.lestarieragemilang.desktop.repository.GenericDao;
+import com.lestarieragemilang.desktop.repository.PageSort;
+import com.lestarieragemilang.desktop.repository.Projection;
+import com.lestarieragemilang.desktop.repository.ReferenceChecker;
+import com.lestarieragemilang.desktop.repository.SearchFilter;
+import com.lestarieragemilang.desktop.repository.WriteJournal;
 import com.lestarieragemilang.desktop.utils.HibernateUtil;
 import org.hibernate.SessionFactory;
 
@@ -15,19 +30,25 @@ import org.hibernate.SessionFactory;
  * operations for entities.
  * This class serves as a base service layer implementation that handles:
  * - Database operations through a generic DAO
- * - Scene cache invalidation for UI updates
+ * - Change events for UI updates
  * - ID generation for new entities
- * - Database availability checks
+ * - Database availability checks, journaling writes while offline
  *
  * @param <T> The entity type this service manages (e.g., Product, Customer,
  *            Order)
  */
 public class GenericService<T> {
+    /**
+     * Runs the asynchronous variants; every call gets its own virtual thread,
+     * so a slow query never holds up another.
+     */
+    private static final ExecutorService ASYNC_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    private static final String UNSAVED_ENTITY_MESSAGE = "Data terkait dibuat saat offline dan belum tersimpan"
+            + " ke database; ulangi setelah koneksi database pulih";
+
     private final GenericDao<T> dao;
     private final String idPrefix;
-    private final int bound;
-    private final SessionFactory sessionFactory;
-    private final String[] affectedScenes;
 
     /**
      * Creates a new GenericService instance.
@@ -35,70 +56,49 @@ public class GenericService<T> {
      * @param dao            The data access object for the entity type
      * @param idPrefix       Prefix used for ID generation (e.g., "PROD" for
      *                       products)
-     * @param bound          Upper bound for random ID generation (e.g., 1000 for
-     *                       IDs up to 999)
-     * @param affectedScenes Array of scene names that should be invalidated on data
-     *                       changes
-     *                       to ensure UI consistency
      */
-    public GenericService(GenericDao<T> dao, String idPrefix, int bound, String... affectedScenes) {
+    public GenericService(GenericDao<T> dao, String idPrefix) {
         this.dao = dao;
         this.idPrefix = idPrefix;
-        this.bound = bound;
-        this.sessionFactory = HibernateUtil.getSessionFactory();
-        this.affectedScenes = affectedScenes;
-    }
-
-    /**
-     * Invalidates cache for all known scenes to ensure data consistency across the
-     * application.
-     * This is typically called after database operations that might affect multiple
-     * views.
-     */
-    private void invalidateAllCaches() {
-        if (App.sceneManager != null) {
-            App.sceneManager.invalidateScenes(
-                    "stokbesi",
-                    "kategori",
-                    "transaksi",
-                    "retur",
-                    "supplier",
-                    "customer");
-        }
     }
 
     /**
      * Saves a new entity to the database and updates the UI cache.
-     * If the database is unavailable, the operation is skipped silently.
+     * If the database is unavailable, the save is recorded in the offline
+     * {@link WriteJournal} and applied once the connection is back.
      *
      * @param entity The entity to save
      * @throws RuntimeException if there's an error during the save operation
      */
     public void save(T entity) {
-        if (!HibernateUtil.isDatabaseAvailable())
+        if (shouldJournal()) {
+            journal(WriteJournal.Operation.SAVE, entity);
             return;
+        }
         dao.save(entity);
-        invalidateAllCaches();
-        invalidateAffectedScenes();
+        afterWrite(entity);
     }
 
     /**
      * Updates an existing entity in the database and refreshes the UI cache.
-     * If the database is unavailable, the operation is skipped silently.
+     * If the database is unavailable, the update is recorded in the offline
+     * {@link WriteJournal} and applied once the connection is back.
      *
      * @param entity The entity to update
      * @throws RuntimeException if there's an error during the update operation
      */
     public void update(T entity) {
-        if (!HibernateUtil.isDatabaseAvailable())
+        if (shouldJournal()) {
+            journal(WriteJournal.Operation.UPDATE, entity);
             return;
+        }
         dao.update(entity);
-        invalidateAllCaches();
-        invalidateAffectedScenes();
+        afterWrite(entity);
     }
 
     /**
      * Checks if an entity can be safely deleted without violating any constraints.
+     * Only reads are issued; see {@link ReferenceChecker}.
      *
      * @param entity The entity to check
      * @return true if the entity can be deleted, false if it would violate
@@ -107,28 +107,39 @@ public class GenericService<T> {
     public boolean canDelete(T entity) {
         if (!HibernateUtil.isDatabaseAvailable())
             return false;
-        try {
-            dao.checkDeleteConstraints(entity);
-            return true;
-        } catch (ConstraintViolationException e) {
-            return false;
-        }
+        return !ReferenceChecker.getInstance().isReferenced(entity);
+    }
+
+    /**
+     * Lists the rows that prevent an entity from being deleted, grouped by
+     * referencing association.
+     *
+     * @param entity The entity to check
+     * @return The blocking references, or empty list if the entity can be
+     *         deleted or the database is unavailable
+     */
+    public List<ReferenceChecker.Reference> findBlockingReferences(T entity) {
+        if (!HibernateUtil.isDatabaseAvailable())
+            return new ArrayList<>();
+        return ReferenceChecker.getInstance().findReferences(entity);
     }
 
     /**
      * Deletes an entity from the database and updates the UI cache.
-     * If the database is unavailable, the operation is skipped silently.
+     * If the database is unavailable, the delete is recorded in the offline
+     * {@link WriteJournal} and applied once the connection is back.
      *
      * @param entity The entity to delete
      * @throws ConstraintViolationException if deletion would violate database
      *                                      constraints
      */
     public void delete(T entity) throws ConstraintViolationException {
-        if (!HibernateUtil.isDatabaseAvailable())
+        if (shouldJournal()) {
+            journal(WriteJournal.Operation.DELETE, entity);
             return;
+        }
         dao.delete(entity);
-        invalidateAllCaches();
-        invalidateAffectedScenes();
+        afterWrite(entity);
     }
 
     /**
@@ -155,35 +166,313 @@ public class GenericService<T> {
     }
 
     /**
-     * Generates a unique ID for a new entity using the configured prefix and bound.
-     * Format: prefix + random number (e.g., "PROD123")
+     * Retrieves all entities of type T, loading only what the given fetch
+     * plan includes. {@link FetchPlan#NONE} skips associations and lazy
+     * columns, which is enough for pickers that show codes and names.
+     *
+     * @param plan The associations and lazy columns to fetch
+     * @return List of all entities, or empty list if database is unavailable
+     */
+    public List<T> findAll(FetchPlan plan) {
+        if (!HibernateUtil.isDatabaseAvailable())
+            return new ArrayList<>();
+        return dao.findAll(plan);
+    }
+
+    /**
+     * Retrieves one page of entities ordered by a unique key, continuing after
+     * the key of the last row the caller already has.
+     *
+     * @param afterKey The sort key of the last loaded row, or null for the first
+     *                 page
+     * @param limit    Maximum number of rows to return
+     * @param sort     The unique attribute and direction to page by
+     * @return The next page of entities, or empty list if database is unavailable
+     */
+    public List<T> findPage(Object afterKey, int limit, PageSort sort) {
+        if (!HibernateUtil.isDatabaseAvailable())
+            return new ArrayList<>();
+        return dao.findPage(afterKey, limit, sort);
+    }
+
+    /**
+     * Retrieves one page of the entities matching a filter. Filtering, ordering
+     * and the LIMIT are all applied by the database in a single query.
+     *
+     * @param filter   The search criteria, or null to match all rows
+     * @param afterKey The sort key of the last loaded row, or null for the first
+     *                 page
+     * @param limit    Maximum number of rows to return
+     * @param sort     The unique attribute and direction to page by
+     * @return The next page of matching entities, or empty list if database is
+     *         unavailable
+     */
+    public List<T> findPage(SearchFilter filter, Object afterKey, int limit, PageSort sort) {
+        if (!HibernateUtil.isDatabaseAvailable())
+            return new ArrayList<>();
+        return dao.findPage(filter, afterKey, limit, sort);
+    }
+
+    /**
+     * Retrieves one page of read-only table rows matching a filter. Only the
+     * columns of the projection are selected; load the entity with
+     * {@link #findById(Long)} before editing or deleting a row.
+     *
+     * @param projection The row type and the attributes it is built from
+     * @param filter     The search criteria, or null to match all rows
+     * @param afterKey   The sort key of the last loaded row, or null for the
+     *                   first page
+     * @param limit      Maximum number of rows to return
+     * @param sort       The unique attribute and direction to page by
+     * @param <R>        The row type
+     * @return The next page of matching rows, or empty list if database is
+     *         unavailable
+     */
+    public <R> List<R> findPage(Projection<R> projection, SearchFilter filter, Object afterKey, int limit,
+            PageSort sort) {
+        if (!HibernateUtil.isDatabaseAvailable())
+            return new ArrayList<>();
+        return dao.findPage(projection, filter, afterKey, limit, sort);
+    }
+
+    /**
+     * Retrieves up to {@code limit} entities matching a filter.
+     *
+     * @param filter The search criteria
+     * @param limit  Maximum number of rows to return
+     * @return Matching entities, or empty list if database is unavailable
+     */
+    public List<T> findWhere(SearchFilter filter, int limit) {
+        if (!HibernateUtil.isDatabaseAvailable())
+            return new ArrayList<>();
+        return dao.findWhere(filter, limit);
+    }
+
+    /**
+     * Retrieves up to {@code limit} entities matching a filter, loading only
+     * the associations of the given fetch plan.
+     *
+     * @param filter The search criteria
+     * @param limit  Maximum number of rows to return
+     * @param plan   The associations to fetch with the entities
+     * @return Matching entities, or empty list if database is unavailable
+     */
+    public List<T> findWhere(SearchFilter filter, int limit, FetchPlan plan) {
+        if (!HibernateUtil.isDatabaseAvailable())
+            return new ArrayList<>();
+        return dao.findWhere(filter, limit, plan);
+    }
+
+    /**
+     * Retrieves all entities on a virtual thread.
+     *
+     * @return A future completed on the JavaFX Application Thread with all
+     *         entities, or an empty list if the database is unavailable
+     */
+    public CompletableFuture<List<T>> findAllAsync() {
+        return supplyAsync(this::findAll);
+    }
+
+    /**
+     * Retrieves all entities on a virtual thread, loading only what the given
+     * fetch plan includes. See {@link #findAll(FetchPlan)}.
+     *
+     * @param plan The associations and lazy columns to fetch
+     * @return A future completed on the JavaFX Application Thread with all
+     *         entities, or an empty list if the database is unavailable
+     */
+    public CompletableFuture<List<T>> findAllAsync(FetchPlan plan) {
+        return supplyAsync(() -> findAll(plan));
+    }
+
+    /**
+     * Retrieves an entity by its ID on a virtual thread.
+     *
+     * @param id The ID of the entity to find
+     * @return A future completed on the JavaFX Application Thread with the
+     *         entity, or null if not found or if database is unavailable
+     */
+    public CompletableFuture<T> findByIdAsync(Long id) {
+        return supplyAsync(() -> findById(id));
+    }
+
+    /**
+     * Lists the rows that prevent an entity from being deleted on a virtual
+     * thread. See {@link #findBlockingReferences(Object)}.
+     *
+     * @param entity The entity to check
+     * @return A future completed on the JavaFX Application Thread with the
+     *         blocking references
+     */
+    public CompletableFuture<List<ReferenceChecker.Reference>> findBlockingReferencesAsync(T entity) {
+        return supplyAsync(() -> findBlockingReferences(entity));
+    }
+
+    /**
+     * Saves a new entity on a virtual thread. See {@link #save(Object)}.
+     *
+     * @param entity The entity to save
+     * @return A future completed on the JavaFX Application Thread once saved
+     */
+    public CompletableFuture<Void> saveAsync(T entity) {
+        return runAsync(() -> save(entity));
+    }
+
+    /**
+     * Updates an entity on a virtual thread. See {@link #update(Object)}.
+     *
+     * @param entity The entity to update
+     * @return A future completed on the JavaFX Application Thread once updated
+     */
+    public CompletableFuture<Void> updateAsync(T entity) {
+        return runAsync(() -> update(entity));
+    }
+
+    /**
+     * Deletes an entity on a virtual thread. See {@link #delete(Object)}.
+     *
+     * @param entity The entity to delete
+     * @return A future completed on the JavaFX Application Thread once deleted
+     */
+    public CompletableFuture<Void> deleteAsync(T entity) {
+        return runAsync(() -> delete(entity));
+    }
+
+    /**
+     * Returns the virtual-thread executor the async methods run on, for
+     * other background database work such as table paging.
+     *
+     * @return The shared virtual-thread executor
+     */
+    public static Executor asyncExecutor() {
+        return ASYNC_EXECUTOR;
+    }
+
+    /**
+     * Runs a database call on a new virtual thread and completes the returned
+     * future on the JavaFX Application Thread, so dependent stages such as
+     * {@code thenAccept} may update controls directly. A failed future holds
+     * the original exception, not a {@link CompletionException}.
+     *
+     * @param task The database call
+     * @param <R>  The result type
+     * @return A future completed on the JavaFX Application Thread
+     */
+    protected static <R> CompletableFuture<R> supplyAsync(Supplier<R> task) {
+        CompletableFuture<R> result = new CompletableFuture<>();
+        CompletableFuture.supplyAsync(task, ASYNC_EXECUTOR)
+                .whenComplete((value, error) -> Platform.runLater(() -> {
+                    if (error == null) {
+                        result.complete(value);
+                    } else {
+                        result.completeExceptionally(unwrap(error));
+                    }
+                }));
+        return result;
+    }
+
+    /**
+     * Runs a database call without a result; see {@link #supplyAsync(Supplier)}.
+     *
+     * @param task The database call
+     * @return A future completed on the JavaFX Application Thread
+     */
+    protected static CompletableFuture<Void> runAsync(Runnable task) {
+        return supplyAsync(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Strips the {@link CompletionException} wrapper added by dependent
+     * stages, for showing the underlying error to the user.
+     *
+     * @param error The exception passed to {@code exceptionally}
+     * @return The underlying exception
+     */
+    public static Throwable unwrap(Throwable error) {
+        Throwable current = error;
+        while (current instanceof CompletionException && current.getCause() != null) {
+            current = current.getCause();
+        }
+        return current;
+    }
+
+    /**
+     * Generates a unique ID for a new entity from the sequence of the
+     * configured prefix.
+     * Format: prefix + "-" + sequence number (e.g., "PROD-1001")
+     * While the database is unavailable the ID comes from the offline
+     * reserve of {@link BusinessIdAllocator}.
      *
      * @return A new unique identifier string
+     * @throws IllegalStateException if offline and the reserve is used up
      */
     public String generateId() {
-        if (!HibernateUtil.isDatabaseAvailable()) {
-            return idPrefix + (int) (Math.random() * bound);
-        }
-        return dao.generateId(idPrefix, bound);
+        return BusinessIdAllocator.forPrefix(idPrefix).nextId();
     }
 
     /**
-     * Returns the Hibernate SessionFactory used by this service.
-     * Primarily used by subclasses that need direct database access.
+     * Generates a unique ID on a virtual thread. See {@link #generateId()};
+     * reserving a new block of numbers takes a database round trip.
      *
-     * @return The configured Hibernate SessionFactory instance
+     * @return A future completed on the JavaFX Application Thread with the
+     *         new identifier
+     */
+    public CompletableFuture<String> generateIdAsync() {
+        return supplyAsync(this::generateId);
+    }
+
+    /**
+     * Returns the current Hibernate SessionFactory.
+     * Primarily used by subclasses that need direct database access. The
+     * factory is looked up on every call because it is replaced when the
+     * connection is re-established.
+     *
+     * @return The current Hibernate SessionFactory instance
      */
     protected SessionFactory getSessionFactory() {
-        return sessionFactory;
+        return HibernateUtil.getSessionFactory();
     }
 
     /**
-     * Invalidates the cache for scenes that are specifically affected by
-     * changes to this entity type.
+     * Records a write in the offline journal. A record that refers to data
+     * created offline cannot be journaled: that data has no ID until the
+     * journal is replayed.
+     *
+     * @throws IllegalStateException with a message for the user if the entity
+     *                               or a referenced entity is not saved yet
      */
-    private void invalidateAffectedScenes() {
-        if (App.sceneManager != null && affectedScenes != null && affectedScenes.length > 0) {
-            App.sceneManager.invalidateScenes(affectedScenes);
+    private static void journal(WriteJournal.Operation operation, Object entity) {
+        try {
+            WriteJournal.getInstance().append(operation, entity);
+        } catch (EntitySnapshot.UnsavedEntityException e) {
+            throw new IllegalStateException(UNSAVED_ENTITY_MESSAGE, e);
         }
     }
+
+    /**
+     * Writes go to the journal while the database is down, and also while
+     * earlier journaled writes are still being replayed, so they are applied
+     * in the order they were made.
+     */
+    protected static boolean shouldJournal() {
+        return !HibernateUtil.isDatabaseAvailable() || WriteJournal.getInstance().hasPending();
+    }
+
+    /**
+     * Refreshes the reference cache after a write reached the database and
+     * posts the entity's change event (see {@link DomainEvents}) so the
+     * screens showing it reload. Subclasses that write in their own
+     * transaction call this once it has committed.
+     *
+     * @param entity The saved, updated or deleted entity
+     */
+    protected void afterWrite(T entity) {
+        ReferenceChecker.getInstance().invalidateReferencesFrom(dao.getEntityClass());
+        Object id = HibernateUtil.getSessionFactory().getPersistenceUnitUtil().getIdentifier(entity);
+        DomainEvents.postChanged(dao.getEntityClass(),
+                id instanceof Number number ? Set.of(number.longValue()) : Set.of(), false);
+    }
 }
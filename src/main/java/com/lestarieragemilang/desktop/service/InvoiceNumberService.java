@@ -0,0 +1,163 @@
+package com.lestarieragemilang.desktop.service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.prefs.Preferences;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.CharMatcher;
+import com.google.common.base.Strings;
+import com.lestarieragemilang.desktop.repository.SequenceDao;
+import com.lestarieragemilang.desktop.utils.HibernateUtil;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Issues final invoice numbers of the form {@code BLI-20250116-T01-001}:
+ * document prefix, business day, terminal node and a per-day counter.
+ *
+ * <p>Every terminal has its own counter row per prefix and day in
+ * {@code id_sequences}, so terminals never compete for the same numbers and
+ * an invoice number can never be issued twice, even across restarts.
+ * Counter values are reserved in small blocks and handed out from memory,
+ * which keeps invoice confirmation free of retries on unique-key conflicts.
+ * When the day changes, the terminal deletes its counter rows of earlier
+ * days, which are never read again.
+ *
+ * <p>The node name comes from the {@value #NODE_PROPERTY} system property if
+ * set. Otherwise it is a number drawn once from the shared "NODE" sequence
+ * and remembered in the user preferences of this machine.
+ */
+public class InvoiceNumberService {
+    private static final Logger logger = LoggerFactory.getLogger(InvoiceNumberService.class);
+
+    /**
+     * System property that overrides the node name of this terminal.
+     */
+    public static final String NODE_PROPERTY = "lestari.node";
+
+    private static final String NODE_PREF_KEY = "invoiceNode";
+    private static final String NODE_SEQUENCE = "NODE";
+    private static final int MAX_NODE_LENGTH = 6;
+    private static final int BLOCK_SIZE = 5;
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+
+    /** The sequence each prefix currently issues from, across instances. */
+    private static final ConcurrentMap<String, String> CURRENT_SEQUENCES = new ConcurrentHashMap<>();
+
+    private final SequenceDao sequenceDao = new SequenceDao();
+    private volatile String node;
+
+    /**
+     * Returns the next invoice number for today.
+     *
+     * @param prefix The document prefix, "BLI" for purchases or "JUL" for sales
+     * @return A new invoice number unique across all terminals
+     * @throws IllegalStateException if the database is unavailable
+     */
+    public String nextInvoiceNumber(String prefix) {
+        return nextInvoiceNumber(prefix, LocalDate.now());
+    }
+
+    /**
+     * Returns the next invoice number for a business day.
+     *
+     * @param prefix The document prefix, "BLI" for purchases or "JUL" for sales
+     * @param day    The business day the invoice belongs to
+     * @return A new invoice number unique across all terminals
+     * @throws IllegalStateException if the database is unavailable
+     */
+    public String nextInvoiceNumber(String prefix, LocalDate day) {
+        checkArgument(!Strings.isNullOrEmpty(prefix), "Prefix cannot be empty");
+        checkState(HibernateUtil.isDatabaseAvailable(), "Database tidak tersedia");
+
+        String sequence = sequenceName(prefix, day);
+        String previous = CURRENT_SEQUENCES.put(prefix, sequence);
+        if (!sequence.equals(previous)) {
+            if (previous != null) {
+                BusinessIdAllocator.discard(previous);
+            }
+            purgeEarlierDays(prefix, sequence);
+        }
+        return BusinessIdAllocator.forSequence(sequence, 1, BLOCK_SIZE).nextId();
+    }
+
+    /**
+     * Returns the next invoice number for today on a virtual thread.
+     * See {@link #nextInvoiceNumber(String)}.
+     *
+     * @param prefix The document prefix, "BLI" for purchases or "JUL" for sales
+     * @return A future completed on the JavaFX Application Thread with the
+     *         new invoice number
+     */
+    public CompletableFuture<String> nextInvoiceNumberAsync(String prefix) {
+        return GenericService.supplyAsync(() -> nextInvoiceNumber(prefix));
+    }
+
+    /**
+     * Returns the node name of this terminal, assigning one on first use.
+     *
+     * @return The node name, e.g. "T01"
+     */
+    public String getNode() {
+        String current = node;
+        if (current == null) {
+            synchronized (this) {
+                if (node == null) {
+                    node = resolveNode();
+                }
+                current = node;
+            }
+        }
+        return current;
+    }
+
+    private String sequenceName(String prefix, LocalDate day) {
+        return prefix + "-" + day.format(DAY_FORMAT) + "-" + getNode();
+    }
+
+    /**
+     * Deletes this terminal's counters of the days before the sequence now in
+     * use. Numbering goes on if that fails; the rows are just kept longer.
+     */
+    private void purgeEarlierDays(String prefix, String sequence) {
+        try {
+            int deleted = sequenceDao.deleteBefore(prefix, getNode(), sequence);
+            if (deleted > 0) {
+                logger.debug("Deleted {} earlier {} counters of node {}", deleted, prefix, getNode());
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Could not delete earlier {} counters; retrying on the next day change", prefix);
+        }
+    }
+
+    private String resolveNode() {
+        String configured = sanitize(System.getProperty(NODE_PROPERTY));
+        if (!configured.isEmpty()) {
+            return configured;
+        }
+
+        Preferences prefs = Preferences.userNodeForPackage(InvoiceNumberService.class);
+        String saved = sanitize(prefs.get(NODE_PREF_KEY, null));
+        if (!saved.isEmpty()) {
+            return saved;
+        }
+
+        String assigned = String.format("T%02d", sequenceDao.reserve(NODE_SEQUENCE, 1, 1));
+        prefs.put(NODE_PREF_KEY, assigned);
+        logger.info("Assigned invoice node {} to this terminal", assigned);
+        return assigned;
+    }
+
+    private static String sanitize(String value) {
+        String cleaned = CharMatcher.inRange('A', 'Z').or(CharMatcher.inRange('0', '9'))
+                .retainFrom(Strings.nullToEmpty(value).toUpperCase());
+        return cleaned.length() > MAX_NODE_LENGTH ? cleaned.substring(0, MAX_NODE_LENGTH) : cleaned;
+    }
+}
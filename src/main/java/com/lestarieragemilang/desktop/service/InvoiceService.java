@@ -0,0 +1,123 @@
+package com.lestarieragemilang.desktop.service;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+
+import com.google.common.base.CharMatcher;
+import com.google.common.base.Strings;
+import com.lestarieragemilang.desktop.model.Invoice;
+import com.lestarieragemilang.desktop.model.InvoiceLine;
+import com.lestarieragemilang.desktop.model.InvoiceType;
+import com.lestarieragemilang.desktop.repository.FetchPlan;
+import com.lestarieragemilang.desktop.repository.GenericDao;
+import com.lestarieragemilang.desktop.repository.PageSort;
+import com.lestarieragemilang.desktop.repository.SearchFilter;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Service for invoice-level queries. Invoices are created by
+ * {@link TransactionService} when a sale or purchase is confirmed; this class
+ * reads their headers, one row per invoice, and their lines on demand.
+ * Lookups by number are a single read of the unique
+ * {@code (invoice_number, invoice_type)} index.
+ */
+public class InvoiceService extends GenericService<Invoice> {
+    private static final PageSort NEWEST_FIRST = PageSort.descending("id");
+    private static final PageSort BY_NUMBER_DESCENDING = PageSort.descending("invoiceNumber");
+
+    private final GenericDao<Invoice> invoiceDao;
+    private final GenericDao<InvoiceLine> lineDao = new GenericDao<>(InvoiceLine.class);
+
+    public InvoiceService() {
+        this(new GenericDao<>(Invoice.class));
+    }
+
+    private InvoiceService(GenericDao<Invoice> invoiceDao) {
+        super(invoiceDao, "INV");
+        this.invoiceDao = invoiceDao;
+    }
+
+    /**
+     * Finds an invoice header by its number, with its customer or supplier.
+     *
+     * @param type          Whether to look for a sales or a purchase invoice
+     * @param invoiceNumber The invoice number, e.g. "JUL-20250116-T01-001"
+     * @return The invoice, or null if there is none
+     */
+    public Invoice findByNumber(InvoiceType type, String invoiceNumber) {
+        List<Invoice> found = invoiceDao.findWhere(SearchFilter.allOf(
+                SearchFilter.equal("invoiceNumber", checkNotNull(invoiceNumber)),
+                SearchFilter.equal("type", checkNotNull(type))), 1);
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    /**
+     * Finds the invoice headers of a type whose number starts with a search
+     * term, with their customer or supplier. A term without the document
+     * prefix is taken as the rest of the number, so "20250116" finds
+     * "JUL-20250116-T01-001". The match is a range read of the invoice number
+     * index, newest number first; an empty term returns the newest invoices.
+     *
+     * @param type  Sales or purchase invoices
+     * @param term  The start of the invoice number, possibly without prefix
+     * @param limit Maximum number of invoices to return
+     * @return Up to {@code limit} matching invoice headers
+     */
+    public List<Invoice> search(InvoiceType type, String term, int limit) {
+        String prefix = numberPrefix(checkNotNull(type), term);
+        if (prefix.isEmpty()) {
+            return invoiceDao.findPage(SearchFilter.equal("type", type), null, limit, NEWEST_FIRST,
+                    FetchPlan.LIST);
+        }
+        return invoiceDao.findPage(SearchFilter.allOf(
+                SearchFilter.equal("type", type),
+                SearchFilter.startsWith("invoiceNumber", prefix)), null, limit, BY_NUMBER_DESCENDING,
+                FetchPlan.LIST);
+    }
+
+    /**
+     * Retrieves the lines of an invoice with their stock item and category.
+     *
+     * @param invoice A stored invoice
+     * @return The lines in the order they were entered
+     */
+    public List<InvoiceLine> findLines(Invoice invoice) {
+        return lineDao.findWhere(SearchFilter.equal("invoice.id", checkNotNull(invoice.getId())),
+                Integer.MAX_VALUE, FetchPlan.LIST);
+    }
+
+    /**
+     * Finds an invoice header by its number on a virtual thread.
+     * See {@link #findByNumber(InvoiceType, String)}.
+     */
+    public CompletableFuture<Invoice> findByNumberAsync(InvoiceType type, String invoiceNumber) {
+        return supplyAsync(() -> findByNumber(type, invoiceNumber));
+    }
+
+    /**
+     * Searches invoice headers on a virtual thread.
+     * See {@link #search(InvoiceType, String, int)}.
+     */
+    public CompletableFuture<List<Invoice>> searchAsync(InvoiceType type, String term, int limit) {
+        return supplyAsync(() -> search(type, term, limit));
+    }
+
+    /**
+     * Retrieves the lines of an invoice on a virtual thread.
+     * See {@link #findLines(Invoice)}.
+     */
+    public CompletableFuture<List<InvoiceLine>> findLinesAsync(Invoice invoice) {
+        return supplyAsync(() -> findLines(invoice));
+    }
+
+    private static String numberPrefix(InvoiceType type, String term) {
+        String prefix = CharMatcher.whitespace().removeFrom(Strings.nullToEmpty(term)).toUpperCase(Locale.ROOT);
+        String documentPrefix = type.getPrefix() + "-";
+        if (prefix.isEmpty() || prefix.startsWith(documentPrefix) || documentPrefix.startsWith(prefix)) {
+            return prefix;
+        }
+        return documentPrefix + prefix;
+    }
+}
@@ -0,0 +1,66 @@
+package com.lestarieragemilang.desktop.service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.lestarieragemilang.desktop.repository.ReferenceChecker;
+import com.lestarieragemilang.desktop.repository.SummaryDao;
+import com.lestarieragemilang.desktop.repository.WriteJournal;
+import com.lestarieragemilang.desktop.utils.HibernateUtil;
+
+/**
+ * Replays the offline {@link WriteJournal} once the database is reachable
+ * again, off the JavaFX Application Thread. Journaled returns bypass the
+ * summary bookkeeping, so the summary tables are rebuilt after a replay.
+ */
+public final class OfflineSyncService {
+    private static final Logger logger = LoggerFactory.getLogger(OfflineSyncService.class);
+
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "offline-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private OfflineSyncService() {
+    }
+
+    /**
+     * Applies the journaled writes in the background. Does nothing if the
+     * journal is empty or the database is still unavailable.
+     *
+     * @return The replay outcome; empty if nothing was replayed
+     */
+    public static CompletableFuture<WriteJournal.ReplayResult> replayAsync() {
+        return CompletableFuture.supplyAsync(OfflineSyncService::replay, EXECUTOR);
+    }
+
+    private static WriteJournal.ReplayResult replay() {
+        WriteJournal journal = WriteJournal.getInstance();
+        if (!journal.hasPending() || !HibernateUtil.isDatabaseAvailable()) {
+            return new WriteJournal.ReplayResult(0, List.of());
+        }
+        logger.info("Replaying {} offline writes", journal.pendingCount());
+        WriteJournal.ReplayResult result = journal.replay();
+        if (!result.isEmpty()) {
+            rebuildSummaries();
+            ReferenceChecker.getInstance().invalidateAll();
+            DomainEvents.postAllChanged();
+        }
+        return result;
+    }
+
+    private static void rebuildSummaries() {
+        try {
+            new SummaryDao().rebuild();
+        } catch (RuntimeException e) {
+            // The journal itself was applied; the totals can be rebuilt later
+            logger.error("Summary tables are out of date; run --rebuild-summaries", e);
+        }
+    }
+}
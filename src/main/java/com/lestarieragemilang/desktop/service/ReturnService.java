@@ -0,0 +1,84 @@
+package com.lestarieragemilang.desktop.service;
+
+import com.lestarieragemilang.desktop.model.Returns;
+import com.lestarieragemilang.desktop.repository.ChangeLogDao;
+import com.lestarieragemilang.desktop.repository.GenericDao;
+import com.lestarieragemilang.desktop.repository.SummaryDao;
+import com.lestarieragemilang.desktop.repository.WriteJournal;
+
+/**
+ * Service for returns. Saving, changing or deleting a return books it on the
+ * sales and purchasing summaries (see {@link SummaryDao}) in the same
+ * transaction.
+ *
+ * <p>While the database is unavailable, writes are journaled like any other
+ * entity; the summaries are rebuilt after the journal has been replayed.
+ */
+public class ReturnService extends GenericService<Returns> {
+    private final GenericDao<Returns> returnsDao;
+    private final SummaryDao summaryDao = new SummaryDao();
+    private final ChangeLogDao changeLog = new ChangeLogDao();
+
+    public ReturnService() {
+        this(new GenericDao<>(Returns.class));
+    }
+
+    private ReturnService(GenericDao<Returns> returnsDao) {
+        super(returnsDao, "RET");
+        this.returnsDao = returnsDao;
+    }
+
+    @Override
+    public void save(Returns entity) {
+        if (shouldJournal()) {
+            super.save(entity);
+            return;
+        }
+        returnsDao.inTransaction(session -> {
+            session.persist(entity);
+            summaryDao.addReturn(session, entity.getReturnType(), entity.getId(), 1);
+            changeLog.record(session, entity, WriteJournal.Operation.SAVE);
+            return null;
+        });
+        afterWrite(entity);
+    }
+
+    @Override
+    public void update(Returns entity) {
+        if (shouldJournal()) {
+            super.update(entity);
+            return;
+        }
+        returnsDao.inTransaction(session -> {
+            // The line, quantity or type may have changed: take the stored
+            // return off the summaries before booking the new one
+            Returns stored = session.find(Returns.class, entity.getId());
+            if (stored != null) {
+                summaryDao.addReturn(session, stored.getReturnType(), stored.getId(), -1);
+            }
+            Returns merged = session.merge(entity);
+            summaryDao.addReturn(session, merged.getReturnType(), merged.getId(), 1);
+            changeLog.record(session, merged, WriteJournal.Operation.UPDATE);
+            return null;
+        });
+        afterWrite(entity);
+    }
+
+    @Override
+    public void delete(Returns entity) {
+        if (shouldJournal()) {
+            super.delete(entity);
+            return;
+        }
+        returnsDao.inTransaction(session -> {
+            Returns stored = session.find(Returns.class, entity.getId());
+            if (stored != null) {
+                summaryDao.addReturn(session, stored.getReturnType(), stored.getId(), -1);
+                changeLog.record(session, stored, WriteJournal.Operation.DELETE);
+                session.remove(stored);
+            }
+            return null;
+        });
+        afterWrite(entity);
+    }
+}
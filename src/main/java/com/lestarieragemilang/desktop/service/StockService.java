@@ -0,0 +1,143 @@
+package com.lestarieragemilang.desktop.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.Session;
+import org.hibernate.query.MutationQuery;
+
+import com.lestarieragemilang.desktop.model.Stock;
+import com.lestarieragemilang.desktop.repository.ChangeLogDao;
+import com.lestarieragemilang.desktop.repository.GenericDao;
+import com.lestarieragemilang.desktop.repository.WriteJournal;
+import com.lestarieragemilang.desktop.utils.HibernateUtil;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Service class handling stock-related operations.
+ * Extends GenericService to inherit basic CRUD operations for Stock entities
+ * and adds atomic quantity adjustments that are evaluated by the database.
+ */
+public class StockService extends GenericService<Stock> {
+    private final GenericDao<Stock> stockDao;
+    private final ChangeLogDao changeLog = new ChangeLogDao();
+
+    public StockService() {
+        this(new GenericDao<>(Stock.class));
+    }
+
+    private StockService(GenericDao<Stock> stockDao) {
+        super(stockDao, "BRG");
+        this.stockDao = stockDao;
+    }
+
+    /**
+     * Adds {@code delta} to the quantity of a stock item in a single UPDATE
+     * statement. The statement only matches if the resulting quantity is not
+     * negative, so concurrent sales can never drive stock below zero.
+     *
+     * @param stockId The primary key of the stock item
+     * @param delta   The quantity to add (negative to remove)
+     * @throws IllegalStateException if the item does not exist or has
+     *                               insufficient quantity
+     */
+    public void adjustQuantity(Long stockId, int delta) {
+        adjustQuantities(Map.of(stockId, delta));
+    }
+
+    /**
+     * Applies several quantity adjustments atomically in their own
+     * transaction. Either all adjustments are applied or none.
+     *
+     * @param deltas Quantity change per stock primary key
+     * @throws IllegalStateException if any item does not exist or has
+     *                               insufficient quantity
+     */
+    public void adjustQuantities(Map<Long, Integer> deltas) {
+        checkState(HibernateUtil.isDatabaseAvailable(), "Database tidak tersedia");
+        stockDao.inTransaction(session -> {
+            adjustQuantities(session, deltas);
+            return null;
+        });
+    }
+
+    /**
+     * Applies several quantity adjustments inside a transaction owned by the
+     * caller, using one UPDATE statement for all items:
+     *
+     * <pre>
+     * UPDATE stocks SET quantity = quantity + CASE id WHEN ? THEN ? ... END
+     * WHERE id IN (...) AND quantity + CASE id WHEN ? THEN ? ... END >= 0
+     * </pre>
+     *
+     * The version column is incremented so that stale entities still held by
+     * other screens fail with an optimistic lock error when merged. Each item
+     * is recorded in the change log so other terminals refresh its quantity.
+     *
+     * @param session The session of the surrounding transaction
+     * @param deltas  Quantity change per stock primary key
+     * @throws IllegalStateException if any item does not exist or has
+     *                               insufficient quantity; the caller's
+     *                               transaction must then be rolled back
+     */
+    public void adjustQuantities(Session session, Map<Long, Integer> deltas) {
+        checkNotNull(deltas);
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        List<Long> ids = new ArrayList<>(deltas.keySet());
+        StringBuilder delta = new StringBuilder("case s.id");
+        for (int i = 0; i < ids.size(); i++) {
+            delta.append(" when :id").append(i).append(" then :delta").append(i);
+        }
+        delta.append(" else 0 end");
+
+        MutationQuery update = session.createMutationQuery(
+                "update versioned Stock s set s.quantity = s.quantity + " + delta
+                        + " where s.id in :ids and s.quantity + " + delta + " >= 0");
+        update.setParameter("ids", ids);
+        for (int i = 0; i < ids.size(); i++) {
+            update.setParameter("id" + i, ids.get(i));
+            update.setParameter("delta" + i, deltas.get(ids.get(i)));
+        }
+
+        int updated = update.executeUpdate();
+        if (updated != ids.size()) {
+            throw new IllegalStateException(describeShortage(deltas));
+        }
+        for (Long id : ids) {
+            changeLog.record(session, Stock.class, id, WriteJournal.Operation.UPDATE);
+        }
+    }
+
+    /**
+     * Explains why the guarded UPDATE matched fewer rows than requested.
+     * The quantities are read in a session of their own: the caller's session
+     * may still hold the items as they were loaded earlier, and its
+     * transaction has already applied the adjustments that fitted, so neither
+     * shows the quantities the UPDATE was checked against.
+     */
+    private static String describeShortage(Map<Long, Integer> deltas) {
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            List<Object[]> rows = session.createSelectionQuery(
+                    "select s.id, s.quantity, c.brand, c.productType from Stock s join s.category c"
+                            + " where s.id in :ids", Object[].class)
+                    .setParameter("ids", deltas.keySet())
+                    .getResultList();
+            for (Object[] row : rows) {
+                if (((Number) row[1]).intValue() + deltas.get((Long) row[0]) < 0) {
+                    return "Stok tidak mencukupi untuk " + row[2] + " " + row[3];
+                }
+            }
+            if (rows.size() < deltas.size()) {
+                return "Barang tidak ditemukan";
+            }
+            // The quantity went back up after the UPDATE was rejected
+            return "Stok barang baru saja berubah, silakan coba lagi";
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.lestarieragemilang.desktop.service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+
+import org.hibernate.Session;
+
+import com.lestarieragemilang.desktop.model.Customer;
+import com.lestarieragemilang.desktop.model.Invoice;
+import com.lestarieragemilang.desktop.model.InvoiceLine;
+import com.lestarieragemilang.desktop.model.InvoiceType;
+import com.lestarieragemilang.desktop.model.Purchasing;
+import com.lestarieragemilang.desktop.model.Sales;
+import com.lestarieragemilang.desktop.model.Stock;
+import com.lestarieragemilang.desktop.model.Supplier;
+import com.lestarieragemilang.desktop.repository.ChangeLogDao;
+import com.lestarieragemilang.desktop.repository.GenericDao;
+import com.lestarieragemilang.desktop.repository.ReferenceChecker;
+import com.lestarieragemilang.desktop.repository.SummaryDao;
+import com.lestarieragemilang.desktop.repository.WriteJournal;
+import com.lestarieragemilang.desktop.utils.HibernateUtil;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Service that confirms pending purchase and sales invoices.
+ * The invoice header and all of its lines are inserted, the stock changes
+ * they cause are applied with one atomic UPDATE and the invoice is added to
+ * the summary tables, in a single transaction.
+ */
+public class TransactionService {
+    private static final String MIXED_LINES = "Semua barang dalam satu faktur harus memiliki tanggal dan pihak yang sama";
+
+    private final GenericDao<InvoiceLine> lineDao;
+    private final GenericDao<Stock> stockDao;
+    private final StockService stockService;
+    private final SummaryDao summaryDao;
+    private final ChangeLogDao changeLog;
+
+    public TransactionService() {
+        this.lineDao = new GenericDao<>(InvoiceLine.class);
+        this.stockDao = new GenericDao<>(Stock.class);
+        this.stockService = new StockService();
+        this.summaryDao = new SummaryDao();
+        this.changeLog = new ChangeLogDao();
+    }
+
+    /**
+     * Saves the pending purchase lines as one invoice and adds the purchased
+     * quantities to stock. All lines must be from the same supplier and date.
+     *
+     * @param lines         The pending purchase lines
+     * @param invoiceNumber The final invoice number
+     * @throws RuntimeException if the database is unavailable or the
+     *                          transaction fails
+     */
+    public void confirmPurchases(List<Purchasing> lines, String invoiceNumber) {
+        checkArgument(!lines.isEmpty(), "Invoice has no lines");
+        Purchasing first = lines.getFirst();
+        checkArgument(lines.stream().allMatch(line -> Objects.equals(line.getPurchaseDate(), first.getPurchaseDate())
+                && Objects.equals(line.getSupplier().getId(), first.getSupplier().getId())), MIXED_LINES);
+
+        Invoice invoice = new Invoice(InvoiceType.PURCHASE, invoiceNumber, first.getPurchaseDate());
+        invoice.setSupplier(first.getSupplier());
+        for (Purchasing line : lines) {
+            invoice.addLine(new InvoiceLine(line.getStock(), line.getQuantity(), line.getPrice(), line.getSubTotal(),
+                    line.getBrand(), line.getType()));
+        }
+        confirm(invoice, 1);
+    }
+
+    /**
+     * Confirms pending purchase lines on a virtual thread.
+     * See {@link #confirmPurchases(List, String)}.
+     *
+     * @return A future completed on the JavaFX Application Thread
+     */
+    public CompletableFuture<Void> confirmPurchasesAsync(List<Purchasing> lines, String invoiceNumber) {
+        return GenericService.runAsync(() -> confirmPurchases(lines, invoiceNumber));
+    }
+
+    /**
+     * Saves the pending sales lines as one invoice and removes the sold
+     * quantities from stock. All lines must be for the same customer and
+     * date. The whole invoice is rejected if any stock item does not have
+     * enough quantity for the lines that use it; the check is made by the
+     * database at update time, so concurrent sales cannot oversell.
+     *
+     * @param lines         The pending sales lines
+     * @param invoiceNumber The final invoice number
+     * @throws RuntimeException if the database is unavailable, stock is
+     *                          insufficient or the transaction fails
+     */
+    public void confirmSales(List<Sales> lines, String invoiceNumber) {
+        checkArgument(!lines.isEmpty(), "Invoice has no lines");
+        Sales first = lines.getFirst();
+        checkArgument(lines.stream().allMatch(line -> Objects.equals(line.getSaleDate(), first.getSaleDate())
+                && Objects.equals(line.getCustomer().getId(), first.getCustomer().getId())), MIXED_LINES);
+
+        Invoice invoice = new Invoice(InvoiceType.SALE, invoiceNumber, first.getSaleDate());
+        invoice.setCustomer(first.getCustomer());
+        for (Sales line : lines) {
+            invoice.addLine(new InvoiceLine(line.getStock(), line.getQuantity(), line.getPrice(), line.getSubTotal(),
+                    line.getBrand(), line.getType()));
+        }
+        confirm(invoice, -1);
+    }
+
+    /**
+     * Confirms pending sales lines on a virtual thread.
+     * See {@link #confirmSales(List, String)}.
+     *
+     * @return A future completed on the JavaFX Application Thread
+     */
+    public CompletableFuture<Void> confirmSalesAsync(List<Sales> lines, String invoiceNumber) {
+        return GenericService.runAsync(() -> confirmSales(lines, invoiceNumber));
+    }
+
+    /**
+     * Stores a new invoice with its lines and books it on stock and the
+     * summaries. The stock items, customer and supplier of the invoice may be
+     * detached; they are replaced by the instances of the transaction.
+     *
+     * @param sign 1 to add the line quantities to stock, -1 to remove them
+     */
+    private void confirm(Invoice invoice, int sign) {
+        checkNotNull(invoice.getInvoiceNumber());
+        checkState(HibernateUtil.isDatabaseAvailable(), "Database tidak tersedia");
+
+        List<Long> stockIds = invoice.getLines().stream().map(line -> line.getStock().getId()).distinct().toList();
+        lineDao.inTransaction(session -> {
+            Map<Long, Stock> stocks = loadStocks(session, stockIds);
+            invoice.getLines().forEach(line -> line.setStock(stocks.get(line.getStock().getId())));
+            if (invoice.getCustomer() != null) {
+                invoice.setCustomer(session.getReference(Customer.class, invoice.getCustomer().getId()));
+            }
+            if (invoice.getSupplier() != null) {
+                invoice.setSupplier(session.getReference(Supplier.class, invoice.getSupplier().getId()));
+            }
+            session.persist(invoice);
+            lineDao.saveAll(session, invoice.getLines());
+            changeLog.record(session, invoice, WriteJournal.Operation.SAVE);
+            stockService.adjustQuantities(session, quantityDeltas(invoice.getLines(), sign));
+            if (invoice.getType() == InvoiceType.SALE) {
+                summaryDao.addSales(session, invoice.getInvoiceNumber());
+            } else {
+                summaryDao.addPurchases(session, invoice.getInvoiceNumber());
+            }
+            return null;
+        });
+        afterConfirm(invoice, stockIds);
+    }
+
+    private static Map<Long, Integer> quantityDeltas(List<InvoiceLine> lines, int sign) {
+        Map<Long, Integer> deltas = new LinkedHashMap<>();
+        for (InvoiceLine line : lines) {
+            deltas.merge(line.getStock().getId(), sign * line.getQuantity(), Integer::sum);
+        }
+        return deltas;
+    }
+
+    private Map<Long, Stock> loadStocks(Session session, List<Long> stockIds) {
+        Map<Long, Stock> stocks = new LinkedHashMap<>();
+        for (Stock stock : stockDao.findAllById(session, stockIds)) {
+            checkState(stock != null, "Barang tidak ditemukan");
+            stocks.put(stock.getId(), stock);
+        }
+        return stocks;
+    }
+
+    private static void afterConfirm(Invoice invoice, List<Long> stockIds) {
+        ReferenceChecker.getInstance().invalidateReferencesFrom(Invoice.class, InvoiceLine.class);
+        DomainEvents.post(invoice.getType() == InvoiceType.SALE
+                ? new DomainEvents.SaleConfirmed(invoice.getInvoiceNumber(), false)
+                : new DomainEvents.PurchaseConfirmed(invoice.getInvoiceNumber(), false));
+        DomainEvents.postChanged(Stock.class, stockIds, false);
+    }
+}
@@ -2,10 +2,10 @@ package com.lestarieragemilang.desktop.service;
 
 import com.lestarieragemilang.desktop.model.User;
 import com.lestarieragemilang.desktop.repository.GenericDao;
-import com.lestarieragemilang.desktop.utils.HibernateUtil;
 import org.mindrot.jbcrypt.BCrypt;
 import org.hibernate.Session;
-import org.hibernate.SessionFactory;
+
+import java.util.concurrent.CompletableFuture;
 
 import jakarta.persistence.NoResultException;
 import jakarta.persistence.criteria.CriteriaBuilder;
@@ -17,11 +17,8 @@ import jakarta.persistence.criteria.Root;
  * Extends GenericService to inherit basic CRUD operations for User entities.
  */
 public class UserService extends GenericService<User> {
-    private final SessionFactory sessionFactory;
-    
     public UserService() {
-        super(new GenericDao<>(User.class), "USR", 10000);
-        this.sessionFactory = HibernateUtil.getSessionFactory();
+        super(new GenericDao<>(User.class), "USR");
     }
 
     /**
@@ -33,7 +30,7 @@ public class UserService extends GenericService<User> {
      * @return The authenticated User object if successful, null otherwise
      */
     public User authenticate(String username, String password) {
-        try (Session session = sessionFactory.openSession()) {
+        try (Session session = getSessionFactory().openSession()) {
             CriteriaBuilder cb = session.getCriteriaBuilder();
             CriteriaQuery<User> query = cb.createQuery(User.class);
             Root<User> root = query.from(User.class);
@@ -49,6 +46,20 @@ public class UserService extends GenericService<User> {
         return null;
     }
 
+    /**
+     * Authenticates a user on a virtual thread. Waits for the database
+     * bootstrap if it is still running, so the login screen can be used
+     * before the connection is ready. See {@link #authenticate(String, String)}.
+     *
+     * @param username The username to authenticate
+     * @param password The plain text password to verify
+     * @return A future completed on the JavaFX Application Thread with the
+     *         authenticated User, or null if the credentials are invalid
+     */
+    public CompletableFuture<User> authenticateAsync(String username, String password) {
+        return supplyAsync(() -> authenticate(username, password));
+    }
+
     /**
      * Checks if a username already exists in the database.
      *
@@ -56,7 +67,7 @@ public class UserService extends GenericService<User> {
      * @return true if the username exists, false otherwise
      */
     public boolean isUsernameExists(String username) {
-        try (Session session = sessionFactory.openSession()) {
+        try (Session session = getSessionFactory().openSession()) {
             CriteriaBuilder cb = session.getCriteriaBuilder();
             CriteriaQuery<Long> query = cb.createQuery(Long.class);
             Root<User> root = query.from(User.class);
@@ -72,7 +83,7 @@ public class UserService extends GenericService<User> {
      * @return true if the email exists, false otherwise
      */
     public boolean isEmailExists(String email) {
-        try (Session session = sessionFactory.openSession()) {
+        try (Session session = getSessionFactory().openSession()) {
             CriteriaBuilder cb = session.getCriteriaBuilder();
             CriteriaQuery<Long> query = cb.createQuery(Long.class);
             Root<User> root = query.from(User.class);
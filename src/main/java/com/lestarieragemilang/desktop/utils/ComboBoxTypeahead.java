@@ -0,0 +1,162 @@
+package com.lestarieragemilang.desktop.utils;
+
+import javafx.animation.PauseTransition;
+import javafx.scene.control.ComboBox;
+import javafx.util.Duration;
+import javafx.util.StringConverter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import com.google.common.base.Strings;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Asynchronous typeahead for an editable ComboBox.
+ * The combo box only ever holds the top matches of what the user typed:
+ * after a short pause in typing, the search runs in the background and its
+ * results replace the items. Results of older searches that arrive late are
+ * dropped, so the list always matches the current text.
+ *
+ * @param <T> The type of the items offered
+ */
+public class ComboBoxTypeahead<T> {
+    private static final Logger logger = LoggerFactory.getLogger(ComboBoxTypeahead.class);
+
+    /**
+     * Default number of matches shown.
+     */
+    public static final int DEFAULT_LIMIT = 20;
+
+    private static final Duration TYPING_PAUSE = Duration.millis(200);
+
+    private final ComboBox<T> comboBox;
+    private final Function<T, String> display;
+    private final Search<T> search;
+    private final int limit;
+    private final PauseTransition pause = new PauseTransition(TYPING_PAUSE);
+
+    private int generation;
+    private boolean replacingItems;
+
+    /**
+     * Functional interface for searching the items matching a text.
+     *
+     * @param <T> The item type
+     */
+    @FunctionalInterface
+    public interface Search<T> {
+        /**
+         * @param term  The text typed, stripped of surrounding whitespace
+         * @param limit Maximum number of matches to return
+         * @return A future completed on the JavaFX Application Thread, like
+         *         the asynchronous methods of the services
+         */
+        CompletableFuture<List<T>> search(String term, int limit);
+    }
+
+    /**
+     * Makes the combo box editable and attaches the typeahead to its editor.
+     *
+     * @param comboBox The combo box to offer the matches in
+     * @param display  The text shown for an item, also used to match typed
+     *                 text back to an item when the edit is committed
+     * @param search   Finds the matches of the typed text
+     * @param limit    Maximum number of matches shown
+     */
+    public ComboBoxTypeahead(ComboBox<T> comboBox, Function<T, String> display, Search<T> search, int limit) {
+        checkArgument(limit > 0, "Limit must be positive");
+        this.comboBox = checkNotNull(comboBox);
+        this.display = checkNotNull(display);
+        this.search = checkNotNull(search);
+        this.limit = limit;
+
+        comboBox.setEditable(true);
+        comboBox.setConverter(new StringConverter<>() {
+            @Override
+            public String toString(T item) {
+                return item == null ? "" : display.apply(item);
+            }
+
+            @Override
+            public T fromString(String text) {
+                return comboBox.getItems().stream()
+                        .filter(item -> display.apply(item).equals(text))
+                        .findFirst()
+                        .orElse(null);
+            }
+        });
+        pause.setOnFinished(_ -> refresh());
+        comboBox.getEditor().textProperty().addListener((_, _, text) -> {
+            T value = comboBox.getValue();
+            // Ignore the editor showing a selected item, only typing searches
+            if (replacingItems || (value != null && display.apply(value).equals(text))) {
+                return;
+            }
+            pause.playFromStart();
+        });
+    }
+
+    public ComboBoxTypeahead(ComboBox<T> comboBox, Function<T, String> display, Search<T> search) {
+        this(comboBox, display, search, DEFAULT_LIMIT);
+    }
+
+    /**
+     * Offers a known item and selects it, without searching.
+     *
+     * @param item The item to select
+     */
+    public void select(T item) {
+        pause.stop();
+        generation++;
+        replacingItems = true;
+        try {
+            comboBox.getItems().setAll(List.of(item));
+            comboBox.setValue(item);
+        } finally {
+            replacingItems = false;
+        }
+    }
+
+    /**
+     * Searches for the current text right away, e.g. after the search scope
+     * changed.
+     */
+    public void refresh() {
+        pause.stop();
+        int request = ++generation;
+        String term = Strings.nullToEmpty(comboBox.getEditor().getText()).strip();
+        search.search(term, limit)
+                .thenAccept(matches -> {
+                    if (request != generation) {
+                        return;
+                    }
+                    showMatches(matches);
+                })
+                .exceptionally(e -> {
+                    logger.error("Typeahead search failed", e);
+                    return null;
+                });
+    }
+
+    private void showMatches(List<T> matches) {
+        String text = Strings.nullToEmpty(comboBox.getEditor().getText());
+        replacingItems = true;
+        try {
+            comboBox.getItems().setAll(matches);
+            // Replacing the items may reset the editor; keep what was typed
+            comboBox.getEditor().setText(text);
+            comboBox.getEditor().positionCaret(text.length());
+        } finally {
+            replacingItems = false;
+        }
+        if (!matches.isEmpty() && comboBox.getEditor().isFocused()) {
+            comboBox.show();
+        }
+    }
+}
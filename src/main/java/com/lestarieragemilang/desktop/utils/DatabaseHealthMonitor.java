@@ -0,0 +1,266 @@
+package com.lestarieragemilang.desktop.utils;
+
+import java.net.ConnectException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.hibernate.exception.JDBCConnectionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Throwables;
+
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Watches the database connection in the background and acts as a circuit
+ * breaker for all database access.
+ *
+ * <p>While the circuit is {@link CircuitState#CLOSED} the database is probed
+ * every few seconds. A failed probe, or a connection failure reported by a
+ * DAO through {@link #reportFailure(Throwable)}, opens the circuit: the
+ * database is marked unavailable so further calls fail immediately instead
+ * of waiting for the pool's connection timeout. While
+ * {@link CircuitState#OPEN} the probe is retried with exponential backoff.
+ * Once the server answers, the circuit goes {@link CircuitState#HALF_OPEN},
+ * the connection pool is rebuilt if needed, and the circuit closes again.
+ *
+ * <p>Probes use a single direct JDBC connection with short timeouts and
+ * never run on the JavaFX Application Thread.
+ */
+public final class DatabaseHealthMonitor {
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseHealthMonitor.class);
+    private static final DatabaseHealthMonitor INSTANCE = new DatabaseHealthMonitor();
+
+    private static final long CHECK_INTERVAL_SECONDS = 5;
+    private static final long MAX_BACKOFF_SECONDS = 60;
+    private static final int PROBE_TIMEOUT_SECONDS = 3;
+
+    /**
+     * State of the circuit breaker.
+     */
+    public enum CircuitState {
+        /** Database reachable; calls go through. */
+        CLOSED,
+        /** Database unreachable; calls fail fast until a probe succeeds. */
+        OPEN,
+        /** Probe succeeded; the connection is being restored. */
+        HALF_OPEN
+    }
+
+    private final List<Consumer<CircuitState>> listeners = new CopyOnWriteArrayList<>();
+    private final ReadOnlyObjectWrapper<CircuitState> stateProperty = new ReadOnlyObjectWrapper<>(CircuitState.CLOSED);
+
+    private volatile CircuitState state = CircuitState.CLOSED;
+    private ScheduledExecutorService scheduler;
+    private ScheduledFuture<?> nextCheck;
+    private long backoffSeconds = CHECK_INTERVAL_SECONDS;
+
+    private DatabaseHealthMonitor() {
+    }
+
+    public static DatabaseHealthMonitor getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Starts background monitoring. The initial state follows
+     * {@link HibernateUtil#isDatabaseAvailable()}, so an application started
+     * without a database reconnects on its own once the server comes up.
+     */
+    public synchronized void start() {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "db-health-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (!HibernateUtil.isDatabaseAvailable()) {
+            transition(CircuitState.OPEN);
+        }
+        schedule(CHECK_INTERVAL_SECONDS);
+        logger.info("Database health monitor started ({})", state);
+    }
+
+    /**
+     * Stops background monitoring.
+     */
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+            nextCheck = null;
+        }
+    }
+
+    /**
+     * Reports a failed database call. Opens the circuit if the failure was
+     * caused by a lost connection; other errors (constraint violations,
+     * invalid queries) are ignored.
+     *
+     * @param failure The exception thrown by the database call
+     */
+    public static void reportFailure(Throwable failure) {
+        if (failure != null && isConnectionFailure(failure)) {
+            INSTANCE.trip(failure);
+        }
+    }
+
+    /**
+     * Returns the current state of the circuit.
+     *
+     * @return The circuit state
+     */
+    public CircuitState getState() {
+        return state;
+    }
+
+    /**
+     * Returns the circuit state as a property updated on the JavaFX
+     * Application Thread, for binding status indicators.
+     *
+     * @return The read-only state property
+     */
+    public ReadOnlyObjectProperty<CircuitState> stateProperty() {
+        return stateProperty.getReadOnlyProperty();
+    }
+
+    /**
+     * Registers a listener called on every state change. Listeners run on the
+     * monitor thread and must hand UI work to {@link Platform#runLater}.
+     *
+     * @param listener The listener to add
+     */
+    public void addListener(Consumer<CircuitState> listener) {
+        listeners.add(checkNotNull(listener));
+    }
+
+    public void removeListener(Consumer<CircuitState> listener) {
+        listeners.remove(listener);
+    }
+
+    private synchronized void trip(Throwable cause) {
+        if (state != CircuitState.CLOSED) {
+            return;
+        }
+        logger.warn("Database connection lost, opening circuit: {}", Throwables.getRootCause(cause).getMessage());
+        HibernateUtil.setDatabaseAvailable(false);
+        backoffSeconds = CHECK_INTERVAL_SECONDS;
+        transition(CircuitState.OPEN);
+        schedule(backoffSeconds);
+    }
+
+    private void check() {
+        boolean reachable = HibernateUtil.probe(PROBE_TIMEOUT_SECONDS);
+        synchronized (this) {
+            if (state == CircuitState.CLOSED) {
+                if (reachable) {
+                    schedule(CHECK_INTERVAL_SECONDS);
+                } else {
+                    trip(new ConnectException("Database probe failed"));
+                }
+                return;
+            }
+            if (reachable) {
+                recover();
+            } else {
+                backoffSeconds = Math.min(backoffSeconds * 2, MAX_BACKOFF_SECONDS);
+                logger.debug("Database still unreachable, next probe in {} s", backoffSeconds);
+                schedule(backoffSeconds);
+            }
+        }
+    }
+
+    private void recover() {
+        transition(CircuitState.HALF_OPEN);
+        // The pool survives short outages; rebuild only if it is gone
+        HibernateUtil.setDatabaseAvailable(true);
+        if (!HibernateUtil.isDatabaseAvailable()) {
+            HibernateUtil.reinitialize();
+        }
+
+        if (HibernateUtil.isDatabaseAvailable()) {
+            logger.info("Database connection restored, closing circuit");
+            backoffSeconds = CHECK_INTERVAL_SECONDS;
+            transition(CircuitState.CLOSED);
+            schedule(CHECK_INTERVAL_SECONDS);
+        } else {
+            backoffSeconds = Math.min(backoffSeconds * 2, MAX_BACKOFF_SECONDS);
+            transition(CircuitState.OPEN);
+            schedule(backoffSeconds);
+        }
+    }
+
+    private void schedule(long delaySeconds) {
+        if (scheduler == null) {
+            return;
+        }
+        if (nextCheck != null) {
+            nextCheck.cancel(false);
+        }
+        nextCheck = scheduler.schedule(this::safeCheck, delaySeconds, TimeUnit.SECONDS);
+    }
+
+    private void safeCheck() {
+        try {
+            check();
+        } catch (Exception e) {
+            logger.error("Database health check failed", e);
+            synchronized (this) {
+                schedule(backoffSeconds);
+            }
+        }
+    }
+
+    private void transition(CircuitState newState) {
+        if (state == newState) {
+            return;
+        }
+        state = newState;
+        if (Platform.isFxApplicationThread()) {
+            stateProperty.set(newState);
+        } else {
+            try {
+                Platform.runLater(() -> stateProperty.set(newState));
+            } catch (IllegalStateException e) {
+                // FX toolkit not running (e.g. during shutdown)
+                logger.debug("Skipping state property update", e);
+            }
+        }
+        for (Consumer<CircuitState> listener : listeners) {
+            try {
+                listener.accept(newState);
+            } catch (Exception e) {
+                logger.error("Circuit state listener failed", e);
+            }
+        }
+    }
+
+    /**
+     * Checks whether a failure was caused by a lost or refused connection,
+     * as opposed to an error in the statement or the data.
+     *
+     * @param failure The exception thrown by a database call
+     * @return true if the causal chain contains a connection error
+     */
+    public static boolean isConnectionFailure(Throwable failure) {
+        return Throwables.getCausalChain(failure).stream()
+                .anyMatch(cause -> cause instanceof JDBCConnectionException
+                        || cause instanceof SQLTransientConnectionException
+                        || cause instanceof SQLNonTransientConnectionException
+                        || cause instanceof ConnectException);
+    }
+}
@@ -1,10 +1,19 @@
 package com.lestarieragemilang.desktop.utils;
 
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.cfg.Configuration;
 import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
 import org.hibernate.service.ServiceRegistry;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -17,70 +26,162 @@ import com.zaxxer.hikari.HikariDataSource;
  */
 public class HibernateUtil {
     private static final Logger logger = LoggerFactory.getLogger(HibernateUtil.class);
-    private static SessionFactory sessionFactory;
-    private static boolean databaseAvailable = false;
+    private static volatile SessionFactory sessionFactory;
+    private static volatile boolean databaseAvailable = false;
     private static HikariDataSource hikariDataSource;
+    private static volatile Properties connectionSettings;
 
-    static {
-        try {
-            Configuration configuration = new Configuration().configure(
-                    App.class.getResource("hibernate.cfg.xml"));
-            sessionFactory = configuration.buildSessionFactory();
-            databaseAvailable = true;
-
-            ServiceRegistry serviceRegistry = ((org.hibernate.internal.SessionFactoryImpl) sessionFactory)
-                    .getServiceRegistry();
-            hikariDataSource = serviceRegistry
-                    .getService(ConnectionProvider.class)
-                    .unwrap(HikariDataSource.class);
-        } catch (Exception e) {
-            logger.warn("Koneksi database gagal. Aplikasi akan berjalan dalam mode terbatas.", e);
-            sessionFactory = null;
-            hikariDataSource = null;
-            databaseAvailable = false;
+    private static final CompletableFuture<Boolean> bootstrap = new CompletableFuture<>();
+    private static final AtomicBoolean bootstrapStarted = new AtomicBoolean();
+
+    /**
+     * Starts building the SessionFactory on a background thread, so the first
+     * window can be shown while the schema is migrated and the pool filled.
+     * Later calls return the same bootstrap.
+     *
+     * <p>Callers of {@link #getSessionFactory()} and
+     * {@link #isDatabaseAvailable()} wait for the bootstrap to finish, and
+     * start it themselves if nobody has. Keep such calls off the JavaFX
+     * Application Thread until the returned future is complete.
+     *
+     * @return A future completed with the database availability once the
+     *         bootstrap has finished; it never completes exceptionally
+     */
+    public static CompletableFuture<Boolean> bootstrapAsync() {
+        if (bootstrapStarted.compareAndSet(false, true)) {
+            Thread.ofPlatform()
+                    .name("hibernate-bootstrap")
+                    .daemon()
+                    .start(HibernateUtil::bootstrap);
+        }
+        return bootstrap.copy();
+    }
+
+    /**
+     * Checks whether the bootstrap has finished, successfully or not.
+     *
+     * @return true once {@link #getSessionFactory()} no longer blocks
+     */
+    public static boolean isBootstrapped() {
+        return bootstrap.isDone();
+    }
+
+    private static void bootstrap() {
+        synchronized (HibernateUtil.class) {
+            try {
+                buildSessionFactory();
+            } catch (Exception e) {
+                logger.warn("Koneksi database gagal. Aplikasi akan berjalan dalam mode terbatas.", e);
+                sessionFactory = null;
+                hikariDataSource = null;
+                databaseAvailable = false;
+            }
+        }
+        bootstrap.complete(databaseAvailable);
+    }
+
+    private static void awaitBootstrap() {
+        if (!bootstrap.isDone()) {
+            bootstrapAsync().join();
+        }
+    }
+
+    private static void buildSessionFactory() {
+        if (System.getProperty("org.graalvm.nativeimage.imagecode") != null) {
+            // A native image cannot define proxy classes at runtime; the
+            // entities are enhanced at build time instead
+            System.setProperty("hibernate.bytecode.provider", "none");
         }
+        Configuration configuration = new Configuration().configure(
+                App.class.getResource("hibernate.cfg.xml"));
+        connectionSettings = configuration.getProperties();
+        SchemaMigrator.migrate(connectionSettings);
+        sessionFactory = configuration.buildSessionFactory();
+        databaseAvailable = true;
+
+        ServiceRegistry serviceRegistry = ((org.hibernate.internal.SessionFactoryImpl) sessionFactory)
+                .getServiceRegistry();
+        hikariDataSource = serviceRegistry
+                .getService(ConnectionProvider.class)
+                .unwrap(HikariDataSource.class);
     }
 
     /**
      * Returns the Hibernate SessionFactory instance.
+     * The instance is replaced by {@link #reinitialize()}, so callers should
+     * not keep it beyond a single operation. Waits for
+     * {@link #bootstrapAsync()} if it is still running.
      *
      * @return the SessionFactory or null if database connection failed
      */
     public static SessionFactory getSessionFactory() {
+        awaitBootstrap();
         return sessionFactory;
     }
 
     /**
      * Checks if the database connection is available.
+     * Returns false as soon as the {@link DatabaseHealthMonitor} detects an
+     * outage, so callers fail fast instead of waiting for a pool timeout.
+     * Waits for {@link #bootstrapAsync()} if it is still running.
      *
      * @return true if database is connected and operational, false otherwise
      */
     public static boolean isDatabaseAvailable() {
+        awaitBootstrap();
         return databaseAvailable;
     }
 
+    /**
+     * Changes the availability flag without touching the pool.
+     * Used by the health monitor when it opens or closes its circuit breaker.
+     *
+     * @param available Whether callers may use the database
+     */
+    static void setDatabaseAvailable(boolean available) {
+        databaseAvailable = available && sessionFactory != null && !sessionFactory.isClosed();
+    }
+
+    /**
+     * Opens a throwaway JDBC connection, bypassing the pool, to test whether
+     * the database server answers. Both connecting and validating are bounded
+     * by the timeout, so the probe never blocks for the pool's
+     * connectionTimeout.
+     *
+     * @param timeoutSeconds Maximum time to wait for the server
+     * @return true if the server accepted a connection and validated it
+     */
+    public static boolean probe(int timeoutSeconds) {
+        Properties settings = connectionSettings;
+        if (settings == null) {
+            return false;
+        }
+        Properties info = new Properties();
+        info.setProperty("user", settings.getProperty("hibernate.connection.username", ""));
+        info.setProperty("password", settings.getProperty("hibernate.connection.password", ""));
+        info.setProperty("connectTimeout", String.valueOf(timeoutSeconds * 1000));
+        info.setProperty("socketTimeout", String.valueOf(timeoutSeconds * 1000));
+        try (Connection connection = DriverManager.getConnection(
+                settings.getProperty("hibernate.connection.url"), info)) {
+            return connection.isValid(timeoutSeconds);
+        } catch (SQLException e) {
+            logger.debug("Database probe failed", e);
+            return false;
+        }
+    }
+
     /**
      * Reinitializes the database connection.
      * Closes existing connections and attempts to establish a new connection.
      * Updates the database availability status based on the result.
      */
-    public static void reinitialize() {
+    public static synchronized void reinitialize() {
         if (sessionFactory != null && !sessionFactory.isClosed()) {
             shutdown();
         }
 
         try {
-            Configuration configuration = new Configuration().configure(
-                    App.class.getResource("hibernate.cfg.xml"));
-            sessionFactory = configuration.buildSessionFactory();
-            databaseAvailable = true;
-
-            ServiceRegistry serviceRegistry = ((org.hibernate.internal.SessionFactoryImpl) sessionFactory)
-                    .getServiceRegistry();
-            hikariDataSource = serviceRegistry
-                    .getService(ConnectionProvider.class)
-                    .unwrap(HikariDataSource.class);
-
+            buildSessionFactory();
             logger.info("Database connection reinitialized successfully");
         } catch (Exception e) {
             logger.error("Failed to reinitialize database connection", e);
@@ -90,6 +191,49 @@ public class HibernateUtil {
         }
     }
 
+    /**
+     * Returns the runtime statistics of the current SessionFactory, including
+     * second-level and query cache hit/miss counters.
+     *
+     * @return the statistics, or null if database connection failed
+     */
+    public static Statistics getStatistics() {
+        return sessionFactory != null ? sessionFactory.getStatistics() : null;
+    }
+
+    /**
+     * Summarizes cache effectiveness: overall second-level and query cache
+     * counters, followed by the hit/miss counts of each entity region.
+     *
+     * @return a multi-line summary, or an empty string if database connection
+     *         failed
+     */
+    public static String describeCacheStatistics() {
+        Statistics statistics = getStatistics();
+        if (statistics == null) {
+            return "";
+        }
+        StringBuilder summary = new StringBuilder()
+                .append("Second-level cache: hits=").append(statistics.getSecondLevelCacheHitCount())
+                .append(" misses=").append(statistics.getSecondLevelCacheMissCount())
+                .append(" puts=").append(statistics.getSecondLevelCachePutCount())
+                .append("\nQuery cache: hits=").append(statistics.getQueryCacheHitCount())
+                .append(" misses=").append(statistics.getQueryCacheMissCount())
+                .append(" puts=").append(statistics.getQueryCachePutCount())
+                .append("\nDatabase: queries=").append(statistics.getQueryExecutionCount())
+                .append(" entity loads=").append(statistics.getEntityLoadCount());
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+            if (regionStatistics != null) {
+                summary.append("\n  ").append(region)
+                        .append(": hits=").append(regionStatistics.getHitCount())
+                        .append(" misses=").append(regionStatistics.getMissCount())
+                        .append(" elements=").append(regionStatistics.getElementCountInMemory());
+            }
+        }
+        return summary.toString();
+    }
+
     /**
      * Safely shuts down all database connections.
      * Closes the HikariCP connection pool and Hibernate SessionFactory.
@@ -108,6 +252,7 @@ public class HibernateUtil {
 
         if (sessionFactory != null && !sessionFactory.isClosed()) {
             try {
+                logger.info("Cache statistics:\n{}", describeCacheStatistics());
                 logger.info("Closing Hibernate SessionFactory");
                 sessionFactory.close();
             } catch (Exception e) {
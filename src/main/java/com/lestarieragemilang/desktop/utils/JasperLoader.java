@@ -5,6 +5,7 @@ import com.google.common.base.Strings;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
 import javafx.application.Platform;
@@ -21,6 +22,7 @@ import java.net.URL;
 import java.sql.Connection;
 import java.util.Date;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.io.File;
@@ -34,7 +36,20 @@ public class JasperLoader {
     private static final Logger logger = LoggerFactory.getLogger(JasperLoader.class);
     private static final float DEFAULT_ZOOM_RATIO = 0.7752f;
 
-    private final LoadingCache<URL, JasperReport> reportCache = CacheBuilder.newBuilder()
+    /** Compiled templates loaded by {@link #warmUpAsync()}. */
+    private static final ImmutableList<String> REPORT_TEMPLATES = ImmutableList.of(
+            "category-list.jasper",
+            "customer-list.jasper",
+            "purchasing-list.jasper",
+            "purchasing.jasper",
+            "returns-list.jasper",
+            "sales-list.jasper",
+            "sales.jasper",
+            "stock-list.jasper",
+            "supplier-list.jasper");
+
+    /** Shared by all loaders, so templates loaded at startup are reused. */
+    private static final LoadingCache<URL, JasperReport> reportCache = CacheBuilder.newBuilder()
             .maximumSize(100)
             .expireAfterWrite(1, TimeUnit.HOURS)
             .build(new CacheLoader<URL, JasperReport>() {
@@ -79,17 +94,47 @@ public class JasperLoader {
         context.setProperty("net.sf.jasperreports.default.pdf.embedded", "true");
     }
 
+    /**
+     * Initializes the JasperReports context and loads the report templates in
+     * the background, so the first report the user opens does not pay for
+     * class loading and template deserialization.
+     *
+     * @return A future completed once all templates are cached
+     */
+    public static CompletableFuture<Void> warmUpAsync() {
+        return CompletableFuture.runAsync(() -> {
+            for (String template : REPORT_TEMPLATES) {
+                URL location = JasperLoader.class.getResource("/com/lestarieragemilang/desktop/jasper/" + template);
+                if (location == null) {
+                    logger.warn("Report template not found: {}", template);
+                    continue;
+                }
+                reportCache.getUnchecked(location);
+            }
+        }, runnable -> Thread.ofVirtual().name("jasper-warmup").start(runnable));
+    }
+
     /**
      * Shows a report with the given parameters.
+     * Reports only read, so they run on the read replica when one is
+     * configured and caught up, keeping heavy scans off the primary pool.
      * @param location The URL location of the report template
      * @param parameters The parameters to pass to the report
      */
     private void showReport(URL location, Map<String, Object> parameters) {
+        ReadRouting.onReplica(() -> {
+            fillAndShowReport(location, parameters);
+            return null;
+        });
+    }
+
+    private void fillAndShowReport(URL location, Map<String, Object> parameters) {
         Session session = null;
         Connection connection = null;
 
         try {
             session = HibernateUtil.getSessionFactory().openSession();
+            session.setDefaultReadOnly(true);
             session.beginTransaction();
 
             connection = session.doReturningWork(conn -> conn);
@@ -218,13 +263,15 @@ public class JasperLoader {
 
     public void showJasperReportBuy(URL location, String currentPendingBuyInvoice) {
         Map<String, Object> parameters = Maps.newHashMap();
-        parameters.put("invoicePurchasing", "%" + currentPendingBuyInvoice.toString() + "%");
+        // Exact number: a single read of the invoice number index
+        parameters.put("invoicePurchasing", currentPendingBuyInvoice);
         showReport(location, parameters);
     }
 
     public void showJasperReportSell(URL location, String currentPendingSellInvoice) {
         Map<String, Object> parameters = Maps.newHashMap();
-        parameters.put("invoiceSales", "%" + currentPendingSellInvoice.toString() + "%");
+        // Exact number: a single read of the invoice number index
+        parameters.put("invoiceSales", currentPendingSellInvoice);
         showReport(location, parameters);
     }
 
@@ -0,0 +1,183 @@
+package com.lestarieragemilang.desktop.utils;
+
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.control.TableView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.lestarieragemilang.desktop.service.GenericService;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Lazily paged data model for a TableView.
+ * Rows are fetched one window at a time with keyset pagination: the first
+ * page is loaded on {@link #reload()} and the next page is appended when the
+ * user scrolls close to the end of the table, so screens never load a whole
+ * table into memory up front.
+ *
+ * @param <T> The type of the rows displayed in the table
+ */
+public class PagedTableLoader<T> {
+    private static final Logger logger = LoggerFactory.getLogger(PagedTableLoader.class);
+
+    /**
+     * Default number of rows fetched per page.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
+    /**
+     * Fraction of the scroll range after which the next page is requested.
+     */
+    private static final double PREFETCH_THRESHOLD = 0.85;
+
+    private final TableView<?> tableView;
+    private final PageFetcher<T> fetcher;
+    private final Function<T, ?> keyExtractor;
+    private final int pageSize;
+    private final ObservableList<T> items = FXCollections.observableArrayList();
+    private final AtomicBoolean loading = new AtomicBoolean(false);
+    private final AtomicInteger generation = new AtomicInteger();
+
+    private volatile Object lastKey;
+    private volatile boolean exhausted;
+
+    /**
+     * Functional interface for fetching a page of rows after a given key.
+     *
+     * @param <T> The row type
+     */
+    @FunctionalInterface
+    public interface PageFetcher<T> {
+        List<T> fetch(Object afterKey, int limit);
+    }
+
+    /**
+     * Creates a loader bound to the scroll position of the given table.
+     *
+     * @param tableView    The table whose vertical scrolling drives paging
+     * @param fetcher      Fetches the rows following a key
+     * @param keyExtractor Extracts the sort key from a row, must match the
+     *                     ordering used by the fetcher
+     * @param pageSize     Number of rows per page
+     */
+    public PagedTableLoader(TableView<?> tableView, PageFetcher<T> fetcher, Function<T, ?> keyExtractor,
+            int pageSize) {
+        checkArgument(pageSize > 0, "Page size must be positive");
+        this.tableView = checkNotNull(tableView);
+        this.fetcher = checkNotNull(fetcher);
+        this.keyExtractor = checkNotNull(keyExtractor);
+        this.pageSize = pageSize;
+
+        tableView.skinProperty().addListener((_, _, skin) -> {
+            if (skin != null) {
+                Platform.runLater(this::attachScrollListener);
+            }
+        });
+        if (tableView.getSkin() != null) {
+            attachScrollListener();
+        }
+    }
+
+    public PagedTableLoader(TableView<?> tableView, PageFetcher<T> fetcher, Function<T, ?> keyExtractor) {
+        this(tableView, fetcher, keyExtractor, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Returns the backing list that receives loaded pages.
+     * The list is only modified on the JavaFX Application Thread.
+     *
+     * @return The observable list of loaded rows
+     */
+    public ObservableList<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Discards all loaded rows and fetches the first page again.
+     * Pages still in flight from before the reload are ignored when they
+     * arrive.
+     */
+    public void reload() {
+        generation.incrementAndGet();
+        lastKey = null;
+        exhausted = false;
+        loading.set(false);
+        runOnFxThread(items::clear);
+        loadNextPage();
+    }
+
+    /**
+     * Fetches the next page in the background and appends it to the items.
+     * Does nothing if a page is already loading or all rows are loaded.
+     */
+    public void loadNextPage() {
+        if (exhausted || !loading.compareAndSet(false, true)) {
+            return;
+        }
+
+        int requestGeneration = generation.get();
+        Object afterKey = lastKey;
+        CompletableFuture.supplyAsync(() -> fetcher.fetch(afterKey, pageSize), GenericService.asyncExecutor())
+                .whenComplete((page, error) -> Platform.runLater(() -> {
+                    if (requestGeneration != generation.get()) {
+                        return;
+                    }
+                    loading.set(false);
+                    if (error != null) {
+                        logger.error("Failed to load table page", error);
+                        return;
+                    }
+                    if (page.size() < pageSize) {
+                        exhausted = true;
+                    }
+                    if (!page.isEmpty()) {
+                        lastKey = keyExtractor.apply(page.get(page.size() - 1));
+                        items.addAll(page);
+                    }
+                }));
+    }
+
+    /**
+     * Returns whether more rows may be available beyond the loaded pages.
+     *
+     * @return true if the last fetched page was full
+     */
+    public boolean hasMore() {
+        return !exhausted;
+    }
+
+    private void attachScrollListener() {
+        for (Node node : tableView.lookupAll(".scroll-bar")) {
+            if (node instanceof ScrollBar scrollBar && scrollBar.getOrientation() == Orientation.VERTICAL
+                    && !scrollBar.getProperties().containsKey(PagedTableLoader.class)) {
+                scrollBar.getProperties().put(PagedTableLoader.class, Boolean.TRUE);
+                scrollBar.valueProperty().addListener((_, _, value) -> {
+                    if (value.doubleValue() >= scrollBar.getMax() * PREFETCH_THRESHOLD) {
+                        loadNextPage();
+                    }
+                });
+            }
+        }
+    }
+
+    private static void runOnFxThread(Runnable action) {
+        if (Platform.isFxApplicationThread()) {
+            action.run();
+        } else {
+            Platform.runLater(action);
+        }
+    }
+}
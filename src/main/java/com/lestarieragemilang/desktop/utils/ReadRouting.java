@@ -0,0 +1,69 @@
+package com.lestarieragemilang.desktop.utils;
+
+import java.util.function.Supplier;
+
+/**
+ * Marks database work that may be served by the read replica.
+ *
+ * <p>Code inside {@link #onReplica(Supplier)} asks
+ * {@link RoutingConnectionProvider} for a replica connection; everything else
+ * uses the primary. The provider still falls back to the primary when no
+ * replica is configured, when the replica lags behind, or shortly after this
+ * application wrote something the replica may not have received yet.
+ *
+ * <p>Only the connection a session acquires inside the block is affected, so
+ * the work must open its own session there. Sessions acquire their
+ * connection on first use, not when opened.
+ */
+public final class ReadRouting {
+    private static final ThreadLocal<Boolean> REPLICA_PREFERRED = ThreadLocal.withInitial(() -> Boolean.FALSE);
+    private static volatile long lastWriteNanos = System.nanoTime() - Long.MAX_VALUE / 2;
+
+    private ReadRouting() {
+    }
+
+    /**
+     * Runs read-only work, preferring the replica for its connections.
+     *
+     * @param work The read-only work
+     * @param <R>  The result type
+     * @return The result of the work
+     */
+    public static <R> R onReplica(Supplier<R> work) {
+        if (REPLICA_PREFERRED.get()) {
+            return work.get();
+        }
+        REPLICA_PREFERRED.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            REPLICA_PREFERRED.remove();
+        }
+    }
+
+    /**
+     * Checks whether the current thread is inside {@link #onReplica(Supplier)}.
+     *
+     * @return true if a replica connection is preferred
+     */
+    public static boolean isReplicaPreferred() {
+        return REPLICA_PREFERRED.get();
+    }
+
+    /**
+     * Records that this application committed a write, so the next reads go to
+     * the primary until the replica has had time to catch up.
+     */
+    public static void recordWrite() {
+        lastWriteNanos = System.nanoTime();
+    }
+
+    /**
+     * Returns the time of the last recorded write.
+     *
+     * @return The {@link System#nanoTime()} of the last write
+     */
+    static long lastWriteNanos() {
+        return lastWriteNanos;
+    }
+}
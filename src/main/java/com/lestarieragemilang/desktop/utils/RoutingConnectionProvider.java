@@ -0,0 +1,187 @@
+package com.lestarieragemilang.desktop.utils;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.hibernate.hikaricp.internal.HikariCPConnectionProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * HikariCP connection provider with an optional read replica.
+ *
+ * <p>The primary pool is configured exactly like the stock Hibernate HikariCP
+ * provider. If {@value #REPLICA_URL} is set, a second, smaller, read-only
+ * pool is opened against the replica. Connections requested inside
+ * {@link ReadRouting#onReplica(java.util.function.Supplier)} come from the
+ * replica, unless:
+ * <ul>
+ * <li>the replica is not replicating or is more than
+ * {@value #REPLICA_MAX_LAG} seconds behind (checked at most every
+ * {@value #LAG_CHECK_INTERVAL_SECONDS} seconds with SHOW REPLICA STATUS, or
+ * SHOW SLAVE STATUS on MariaDB and MySQL before 8.0.22),
+ * <li>this application wrote within the last lag period plus a margin, so
+ * the replica may not have the change yet, or
+ * <li>no replica connection can be obtained.
+ * </ul>
+ * In all of these cases the primary serves the read.
+ *
+ * <p>The replica settings may be given in hibernate.cfg.xml or as system
+ * properties; system properties win.
+ */
+public class RoutingConnectionProvider extends HikariCPConnectionProvider {
+    private static final Logger logger = LoggerFactory.getLogger(RoutingConnectionProvider.class);
+
+    public static final String REPLICA_URL = "lestari.replica.url";
+    public static final String REPLICA_USERNAME = "lestari.replica.username";
+    public static final String REPLICA_PASSWORD = "lestari.replica.password";
+    public static final String REPLICA_POOL_SIZE = "lestari.replica.maximumPoolSize";
+    public static final String REPLICA_MAX_LAG = "lestari.replica.maxLagSeconds";
+
+    private static final long LAG_CHECK_INTERVAL_SECONDS = 10;
+    private static final long WRITE_MARGIN_SECONDS = 1;
+
+    private record StatusQuery(String sql, String lagColumn) {
+    }
+
+    private static final List<StatusQuery> STATUS_QUERIES = ImmutableList.of(
+            new StatusQuery("SHOW REPLICA STATUS", "Seconds_Behind_Source"),
+            // MariaDB and MySQL before 8.0.22
+            new StatusQuery("SHOW SLAVE STATUS", "Seconds_Behind_Master"));
+
+    private HikariDataSource replica;
+    private long maxLagSeconds = 5;
+    private final AtomicBoolean checkingLag = new AtomicBoolean();
+    private volatile long lagCheckedAt = System.nanoTime() - TimeUnit.SECONDS.toNanos(LAG_CHECK_INTERVAL_SECONDS + 1);
+    private volatile long lagSeconds = -1;
+    // The status query the replica understood, once known
+    private volatile StatusQuery statusQuery;
+    private final AtomicBoolean statusUnreadableLogged = new AtomicBoolean();
+
+    @Override
+    public void configure(Map<String, Object> props) {
+        super.configure(props);
+
+        String url = setting(props, REPLICA_URL, null);
+        if (Strings.isNullOrEmpty(url)) {
+            return;
+        }
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("replica");
+        config.setJdbcUrl(url);
+        config.setUsername(setting(props, REPLICA_USERNAME, setting(props, "hibernate.connection.username", "")));
+        config.setPassword(setting(props, REPLICA_PASSWORD, setting(props, "hibernate.connection.password", "")));
+        config.setMaximumPoolSize(Integer.parseInt(setting(props, REPLICA_POOL_SIZE, "5")));
+        config.setMinimumIdle(1);
+        config.setConnectionTimeout(TimeUnit.SECONDS.toMillis(3));
+        config.setReadOnly(true);
+        // Failing to reach the replica at startup must not stop the application
+        config.setInitializationFailTimeout(-1);
+        maxLagSeconds = Long.parseLong(setting(props, REPLICA_MAX_LAG, "5"));
+
+        replica = new HikariDataSource(config);
+        logger.info("Read replica configured at {}", url);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (replica != null && ReadRouting.isReplicaPreferred() && isReplicaCaughtUp()) {
+            try {
+                return replica.getConnection();
+            } catch (SQLException e) {
+                logger.warn("Replica unavailable, reading from primary: {}", e.getMessage());
+                lagSeconds = -1;
+            }
+        }
+        return super.getConnection();
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+        if (replica != null) {
+            replica.close();
+            replica = null;
+        }
+    }
+
+    private boolean isReplicaCaughtUp() {
+        long now = System.nanoTime();
+        if (now - lagCheckedAt > TimeUnit.SECONDS.toNanos(LAG_CHECK_INTERVAL_SECONDS)
+                && checkingLag.compareAndSet(false, true)) {
+            try {
+                lagSeconds = measureLag();
+                lagCheckedAt = now;
+            } finally {
+                checkingLag.set(false);
+            }
+        }
+
+        long lag = lagSeconds;
+        if (lag < 0 || lag > maxLagSeconds) {
+            return false;
+        }
+        long sinceWrite = now - ReadRouting.lastWriteNanos();
+        return sinceWrite > TimeUnit.SECONDS.toNanos(lag + WRITE_MARGIN_SECONDS);
+    }
+
+    /**
+     * Reads the replication delay of the replica.
+     *
+     * @return Seconds behind the primary, or -1 if the replica is not
+     *         replicating or cannot be reached
+     */
+    private long measureLag() {
+        try (Connection connection = replica.getConnection();
+                Statement statement = connection.createStatement()) {
+            StatusQuery known = statusQuery;
+            SQLException failure = null;
+            for (StatusQuery query : known != null ? List.of(known) : STATUS_QUERIES) {
+                try (ResultSet status = statement.executeQuery(query.sql())) {
+                    if (!status.next()) {
+                        statusQuery = query;
+                        logger.warn("Read replica is not replicating; reads use the primary");
+                        return -1;
+                    }
+                    long lag = status.getLong(query.lagColumn());
+                    statusQuery = query;
+                    return status.wasNull() ? -1 : lag;
+                } catch (SQLException e) {
+                    // Unknown statement or column; try the older spelling
+                    failure = e;
+                }
+            }
+            statusQuery = null;
+            if (statusUnreadableLogged.compareAndSet(false, true)) {
+                logger.warn("Read replica disabled: its replication status cannot be read ({}); reads use the primary",
+                        failure.getMessage());
+            } else {
+                logger.debug("Could not read replica status: {}", failure.getMessage());
+            }
+            return -1;
+        } catch (SQLException e) {
+            logger.warn("Could not read replica status: {}", e.getMessage());
+            return -1;
+        }
+    }
+
+    private static String setting(Map<String, Object> props, String key, String defaultValue) {
+        String value = System.getProperty(key);
+        if (value == null) {
+            Object configured = props.get(key);
+            value = configured == null ? null : configured.toString();
+        }
+        return Strings.isNullOrEmpty(value) ? defaultValue : value;
+    }
+}
@@ -2,6 +2,7 @@ package com.lestarieragemilang.desktop.utils;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.lestarieragemilang.desktop.service.DomainEvents;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.animation.FadeTransition;
@@ -13,26 +14,45 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.Set;
-import java.util.concurrent.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Manages JavaFX scenes with caching and transition animations.
  * Provides functionality for loading, caching, and transitioning between
  * scenes.
  * Includes preloading of commonly used scenes for better performance.
+ * Scenes load on virtual threads, at most {@value #MAX_CONCURRENT_LOADS} at
+ * a time, so rapid navigation cannot pile up parsing threads.
  */
 public class SceneManager {
     private static final Logger logger = LoggerFactory.getLogger(SceneManager.class);
     private static final String RESOURCE_PATH = "/com/lestarieragemilang/desktop/ui/";
     private static final long CACHE_EXPIRATION_TIME = 30;
-    private static final ExecutorService executor = Executors.newCachedThreadPool(r -> {
-        Thread t = new Thread(r);
-        t.setDaemon(true);
-        return t;
-    });
+    private static final String CONTROLLER_KEY = "sceneManager.controller";
+
+    /**
+     * Maximum number of scenes parsed at the same time. FXML parsing and the
+     * controllers' initialize() methods are CPU and database heavy, so more
+     * parallel loads only slow each other down.
+     */
+    private static final int MAX_CONCURRENT_LOADS = 2;
+
+    private static final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("scene-loader-", 0).factory());
 
     private final Cache<String, Parent> sceneCache;
     private final Set<String> preloadScenes = Set.of(LAYOUT, STOK_BESI, KATEGORI, PELANGGAN);
+    private final Semaphore loadPermits = new Semaphore(MAX_CONCURRENT_LOADS);
+    private final ConcurrentMap<String, SceneLoad> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CompletableFuture<Parent>> navigations = new ConcurrentHashMap<>();
 
     public static final String LAYOUT = "layout";
     public static final String STOK_BESI = "stokbesi";
@@ -51,43 +71,182 @@ public class SceneManager {
     public static final String REPORT_SUPPLIER = "laporan-supplier";
     public static final String REPORT_RETURN = "laporan-return";
 
+    /** Navigation targets; a new request for a target cancels the previous one. */
+    public static final String NAV_WINDOW = "window";
+    public static final String NAV_CONTENT = "content";
+    public static final String NAV_REPORT = "report";
+
     /**
-     * Initializes the SceneManager with a configured cache and preloads common
-     * scenes.
+     * Initializes the SceneManager with a configured cache.
      * The cache expires entries after 30 minutes and has a maximum size of 20
-     * scenes.
+     * scenes. A scene leaving the cache unregisters its controller from
+     * {@link DomainEvents}.
      */
     public SceneManager() {
         this.sceneCache = CacheBuilder.newBuilder()
                 .expireAfterWrite(CACHE_EXPIRATION_TIME, TimeUnit.MINUTES)
                 .maximumSize(20)
+                .<String, Parent>removalListener(removed -> releaseController(removed.getValue()))
                 .build();
+    }
 
-        preloadScenes.forEach(scene -> {
-            executor.submit(() -> {
-                try {
-                    loadScene(scene);
-                } catch (IOException e) {
-                    logger.error("Failed to preload scene: " + scene, e);
-                }
-            });
-        });
+    /**
+     * Loads the commonly used scenes in the background. Called once the first
+     * window is showing, so preloading does not delay it.
+     *
+     * @return A future completed when all preloads have finished; failures
+     *         are logged, not propagated
+     */
+    public CompletableFuture<Void> preloadAsync() {
+        return CompletableFuture.allOf(preloadScenes.stream()
+                .map(scene -> getSceneAsync(scene)
+                        .exceptionally(e -> {
+                            logger.error("Failed to preload scene: " + scene, e);
+                            return null;
+                        }))
+                .toArray(CompletableFuture[]::new));
     }
 
     /**
-     * Asynchronously loads and returns a scene.
+     * Asynchronously loads and returns a scene on a virtual thread.
+     * Concurrent requests for the same scene share one load. Cancelling the
+     * returned future withdraws this request; the load itself is dropped if
+     * no other request is waiting for it and it has not started yet.
      * 
      * @param sceneName The name of the scene to load
      * @return CompletableFuture containing the loaded Parent node
      */
     public CompletableFuture<Parent> getSceneAsync(String sceneName) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                return getScene(sceneName);
-            } catch (IOException e) {
-                throw new CompletionException(e);
+        if (!sceneName.startsWith("laporan")) {
+            Parent cachedScene = sceneCache.getIfPresent(sceneName);
+            if (cachedScene != null) {
+                return CompletableFuture.completedFuture(cachedScene);
+            }
+        }
+
+        while (true) {
+            SceneLoad load = inFlight.computeIfAbsent(sceneName, this::startLoad);
+            CompletableFuture<Parent> request = load.join();
+            if (request != null) {
+                return request;
+            }
+            // The load was abandoned just now; make room for a fresh one
+            inFlight.remove(sceneName, load);
+        }
+    }
+
+    /**
+     * Loads a scene for a navigation target, cancelling the previous request
+     * for the same target if it has not completed. Callers should ignore a
+     * {@link CancellationException}: it means the user navigated elsewhere.
+     *
+     * @param target    The navigation target, e.g. {@link #NAV_CONTENT}
+     * @param sceneName The name of the scene to load
+     * @return CompletableFuture containing the loaded Parent node
+     */
+    public CompletableFuture<Parent> navigateAsync(String target, String sceneName) {
+        CompletableFuture<Parent> request = getSceneAsync(sceneName);
+        CompletableFuture<Parent> previous = navigations.put(target, request);
+        if (previous != null && previous != request && previous.cancel(false)) {
+            logger.debug("Cancelled pending navigation on {}", target);
+        }
+        request.whenComplete((_, _) -> navigations.remove(target, request));
+        return request;
+    }
+
+    /**
+     * Checks whether a failed scene future was only cancelled by a newer
+     * navigation.
+     *
+     * @param error The exception passed to {@code exceptionally}
+     * @return true if the failure is a cancellation
+     */
+    public static boolean isCancellation(Throwable error) {
+        return error instanceof CancellationException || error.getCause() instanceof CancellationException;
+    }
+
+    private SceneLoad startLoad(String sceneName) {
+        SceneLoad load = new SceneLoad(sceneName);
+        load.task = executor.submit(() -> runLoad(load));
+        return load;
+    }
+
+    private void runLoad(SceneLoad load) {
+        try {
+            loadPermits.acquire();
+        } catch (InterruptedException e) {
+            load.result.cancel(false);
+            inFlight.remove(load.sceneName, load);
+            return;
+        }
+        try {
+            if (load.start()) {
+                load.result.complete(getScene(load.sceneName));
+            }
+        } catch (Throwable e) {
+            load.result.completeExceptionally(e);
+        } finally {
+            loadPermits.release();
+            inFlight.remove(load.sceneName, load);
+        }
+    }
+
+    /**
+     * One load of a scene, shared by every request waiting for it.
+     */
+    private final class SceneLoad {
+        private final String sceneName;
+        private final CompletableFuture<Parent> result = new CompletableFuture<>();
+        private Future<?> task;
+        private int waiters;
+        private boolean started;
+        private boolean abandoned;
+
+        private SceneLoad(String sceneName) {
+            this.sceneName = sceneName;
+        }
+
+        /**
+         * Adds a request for this load.
+         *
+         * @return The request's own future, or null if the load was abandoned
+         */
+        synchronized CompletableFuture<Parent> join() {
+            if (abandoned) {
+                return null;
             }
-        }, executor);
+            waiters++;
+            CompletableFuture<Parent> request = new CompletableFuture<>();
+            result.whenComplete((root, error) -> {
+                if (error == null) {
+                    request.complete(root);
+                } else {
+                    request.completeExceptionally(error);
+                }
+            });
+            request.whenComplete((_, _) -> {
+                if (request.isCancelled()) {
+                    leave();
+                }
+            });
+            return request;
+        }
+
+        private synchronized void leave() {
+            waiters--;
+            if (waiters == 0 && !started) {
+                // Nobody wants the scene any more and parsing has not begun
+                abandoned = true;
+                task.cancel(true);
+                result.cancel(false);
+                inFlight.remove(sceneName, this);
+            }
+        }
+
+        synchronized boolean start() {
+            started = !abandoned;
+            return started;
+        }
     }
 
     /**
@@ -126,11 +285,21 @@ public class SceneManager {
         FXMLLoader loader = new FXMLLoader(getClass().getResource(resourcePath));
         loader.setClassLoader(this.getClass().getClassLoader());
         Parent root = loader.load();
+        if (loader.getController() != null) {
+            root.getProperties().put(CONTROLLER_KEY, loader.getController());
+        }
 
         Platform.runLater(() -> sceneCache.put(sceneName, root));
         return root;
     }
 
+    private static void releaseController(Parent root) {
+        Object controller = root == null ? null : root.getProperties().get(CONTROLLER_KEY);
+        if (controller != null) {
+            DomainEvents.unregister(controller);
+        }
+    }
+
     /**
      * Removes a specific scene from the cache.
      * 
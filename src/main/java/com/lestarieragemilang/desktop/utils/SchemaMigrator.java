@@ -0,0 +1,228 @@
+package com.lestarieragemilang.desktop.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import com.lestarieragemilang.desktop.App;
+
+/**
+ * Brings the database schema up to date before Hibernate starts.
+ *
+ * <p>Migrations are numbered SQL scripts in the {@code db/migration} resource
+ * folder, listed in {@link #MIGRATIONS}. Each script runs once, in order, and
+ * is recorded in the {@code schema_migrations} table together with a checksum.
+ * Hibernate only validates the resulting schema ({@code hbm2ddl.auto=validate}),
+ * so schema changes must be added here as a new script; an applied script
+ * must never be edited.
+ *
+ * <p>Several workstations may start at the same time, so the run is guarded
+ * by a MySQL named lock. MySQL commits DDL implicitly, so a script that fails
+ * halfway is not rolled back: it stays unrecorded and must be repaired by hand
+ * before the application can start.
+ */
+public final class SchemaMigrator {
+    private static final Logger logger = LoggerFactory.getLogger(SchemaMigrator.class);
+
+    private static final String LOCATION = "db/migration/";
+    private static final String LOCK_NAME = "lestari_schema_migration";
+    private static final int LOCK_TIMEOUT_SECONDS = 60;
+    private static final int CONNECT_TIMEOUT_MILLIS = 5000;
+
+    /** All migrations, oldest first. Append new scripts at the end. */
+    private static final List<String> MIGRATIONS = ImmutableList.of(
+            "V001__baseline.sql",
+            "V002__report_indexes.sql",
+            "V003__summary_tables.sql",
+            "V004__invoices.sql",
+            "V005__change_log.sql",
+            "V006__return_lines.sql",
+            "V007__stock_version.sql");
+
+    private SchemaMigrator() {
+    }
+
+    /**
+     * Applies all pending migrations.
+     *
+     * @param settings The Hibernate connection properties
+     * @throws IllegalStateException if a migration fails or an applied
+     *                               migration was changed afterwards
+     */
+    public static void migrate(Properties settings) {
+        Properties info = new Properties();
+        info.setProperty("user", settings.getProperty("hibernate.connection.username", ""));
+        info.setProperty("password", settings.getProperty("hibernate.connection.password", ""));
+        info.setProperty("connectTimeout", String.valueOf(CONNECT_TIMEOUT_MILLIS));
+        try (Connection connection = DriverManager.getConnection(
+                settings.getProperty("hibernate.connection.url"), info)) {
+            acquireLock(connection);
+            try {
+                createHistoryTable(connection);
+                applyPending(connection);
+            } finally {
+                releaseLock(connection);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Schema migration failed", e);
+        }
+    }
+
+    private static void applyPending(Connection connection) throws SQLException {
+        Map<Integer, Long> applied = appliedChecksums(connection);
+        int latest = 0;
+        for (String name : MIGRATIONS) {
+            int version = version(name);
+            latest = version;
+            String script = read(name);
+            long checksum = checksum(script);
+
+            Long recorded = applied.remove(version);
+            if (recorded != null) {
+                if (recorded != checksum) {
+                    throw new IllegalStateException("Migration " + name + " was changed after it was applied");
+                }
+                continue;
+            }
+
+            logger.info("Applying schema migration {}", name);
+            long started = System.currentTimeMillis();
+            try (Statement statement = connection.createStatement()) {
+                for (String sql : statements(script)) {
+                    statement.execute(sql);
+                }
+            }
+            record(connection, version, description(name), checksum, System.currentTimeMillis() - started);
+        }
+
+        if (!applied.isEmpty()) {
+            logger.warn("Database has migrations {} unknown to this version (latest known: {})",
+                    applied.keySet(), latest);
+        }
+    }
+
+    private static void createHistoryTable(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS `schema_migrations` ("
+                    + " `version` int NOT NULL,"
+                    + " `description` varchar(200) NOT NULL,"
+                    + " `checksum` bigint NOT NULL,"
+                    + " `execution_ms` bigint NOT NULL,"
+                    + " `applied_at` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,"
+                    + " PRIMARY KEY (`version`)"
+                    + ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci");
+        }
+    }
+
+    private static Map<Integer, Long> appliedChecksums(Connection connection) throws SQLException {
+        Map<Integer, Long> applied = Maps.newTreeMap();
+        try (Statement statement = connection.createStatement();
+                ResultSet rows = statement.executeQuery("SELECT version, checksum FROM schema_migrations")) {
+            while (rows.next()) {
+                applied.put(rows.getInt(1), rows.getLong(2));
+            }
+        }
+        return applied;
+    }
+
+    private static void record(Connection connection, int version, String description, long checksum,
+            long executionMs) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO schema_migrations (version, description, checksum, execution_ms) VALUES (?, ?, ?, ?)")) {
+            statement.setInt(1, version);
+            statement.setString(2, description);
+            statement.setLong(3, checksum);
+            statement.setLong(4, executionMs);
+            statement.executeUpdate();
+        }
+    }
+
+    private static void acquireLock(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            statement.setString(1, LOCK_NAME);
+            statement.setInt(2, LOCK_TIMEOUT_SECONDS);
+            try (ResultSet result = statement.executeQuery()) {
+                if (!result.next() || result.getInt(1) != 1) {
+                    throw new SQLException("Timed out waiting for the schema migration lock");
+                }
+            }
+        }
+    }
+
+    private static void releaseLock(Connection connection) {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            statement.setString(1, LOCK_NAME);
+            statement.execute();
+        } catch (SQLException e) {
+            // The lock is released with the connection anyway
+            logger.debug("Could not release schema migration lock", e);
+        }
+    }
+
+    /**
+     * Splits a script into statements. Statements end with a semicolon at the
+     * end of a line; lines starting with {@code --} are comments.
+     */
+    private static List<String> statements(String script) {
+        ImmutableList.Builder<String> statements = ImmutableList.builder();
+        StringBuilder current = new StringBuilder();
+        for (String line : Splitter.on('\n').split(script)) {
+            String trimmed = line.strip();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                continue;
+            }
+            if (trimmed.endsWith(";")) {
+                current.append(trimmed, 0, trimmed.length() - 1);
+                statements.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(trimmed).append('\n');
+            }
+        }
+        if (!current.toString().isBlank()) {
+            statements.add(current.toString());
+        }
+        return statements.build();
+    }
+
+    private static String read(String name) {
+        try (InputStream in = App.class.getResourceAsStream(LOCATION + name)) {
+            if (in == null) {
+                throw new IllegalStateException("Migration script not found: " + name);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).replace("\r\n", "\n");
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read migration script " + name, e);
+        }
+    }
+
+    private static long checksum(String script) {
+        CRC32 crc = new CRC32();
+        crc.update(script.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    private static int version(String name) {
+        return Integer.parseInt(name.substring(1, name.indexOf("__")));
+    }
+
+    private static String description(String name) {
+        return name.substring(name.indexOf("__") + 2, name.lastIndexOf('.')).replace('_', ' ');
+    }
+}
@@ -0,0 +1,96 @@
+package com.lestarieragemilang.desktop.utils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.collect.Maps;
+
+/**
+ * Records how long each startup stage took and logs them as one report.
+ *
+ * <p>Stages may overlap; each is reported with its start offset and duration
+ * relative to the creation of the timer, plus the time the JVM needed before
+ * that.
+ */
+public final class StartupTimer {
+    private static final Logger logger = LoggerFactory.getLogger(StartupTimer.class);
+
+    private record Stage(long startNanos, long endNanos, boolean failed) {
+    }
+
+    private final long originNanos = System.nanoTime();
+    private final Instant origin = Instant.now();
+    private final Map<String, Long> running = Maps.newLinkedHashMap();
+    private final Map<String, Stage> finished = Maps.newLinkedHashMap();
+
+    /**
+     * Marks the start of a stage.
+     *
+     * @param stage The stage name
+     */
+    public synchronized void begin(String stage) {
+        running.put(stage, System.nanoTime());
+    }
+
+    /**
+     * Marks the end of a stage started with {@link #begin(String)}.
+     *
+     * @param stage The stage name
+     */
+    public void end(String stage) {
+        end(stage, false);
+    }
+
+    /**
+     * Times a stage that runs in the background, from now until the future
+     * completes.
+     *
+     * @param stage  The stage name
+     * @param future The work of the stage
+     * @param <T>    The result type
+     * @return The same future, for chaining
+     */
+    public <T> CompletableFuture<T> track(String stage, CompletableFuture<T> future) {
+        begin(stage);
+        future.whenComplete((_, error) -> end(stage, error != null));
+        return future;
+    }
+
+    /**
+     * Logs all finished stages, in the order they started.
+     */
+    public synchronized void log() {
+        StringBuilder report = new StringBuilder("Startup timing");
+        ProcessHandle.current().info().startInstant().ifPresent(jvmStart -> report
+                .append(" (JVM start to launch: ")
+                .append(Duration.between(jvmStart, origin).toMillis())
+                .append(" ms)"));
+        finished.entrySet().stream()
+                .sorted(Map.Entry.comparingByValue((a, b) -> Long.compare(a.startNanos(), b.startNanos())))
+                .forEach(entry -> report
+                        .append(String.format("%n  %-10s +%5d ms  %6d ms%s",
+                                entry.getKey(),
+                                millis(entry.getValue().startNanos() - originNanos),
+                                millis(entry.getValue().endNanos() - entry.getValue().startNanos()),
+                                entry.getValue().failed() ? "  (failed)" : "")));
+        running.keySet().forEach(stage -> report.append(String.format("%n  %-10s still running", stage)));
+        logger.info(report.toString());
+    }
+
+    private synchronized void end(String stage, boolean failed) {
+        Long start = running.remove(stage);
+        if (start != null) {
+            finished.put(stage, new Stage(start, System.nanoTime(), failed));
+        }
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
@@ -17,6 +17,7 @@ import java.text.NumberFormat;
 import java.util.List;
 import java.util.Locale;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -55,6 +56,22 @@ public class TableUtils {
         tableView.setItems(FXCollections.observableArrayList(checkNotNull(data)));
     }
 
+    /**
+     * Populates a TableView with columns and binds it to a lazily paged loader.
+     * The first page is requested immediately; further pages are appended as
+     * the user scrolls.
+     * @param tableView The TableView to populate
+     * @param columns List of columns to add
+     * @param loader The paged loader providing the rows
+     * @param <T> The type of the data items
+     */
+    public static <T> void populateTable(TableView<T> tableView, List<TableColumn<T, ?>> columns,
+            PagedTableLoader<T> loader) {
+        checkNotNull(tableView).getColumns().setAll(checkNotNull(columns));
+        tableView.setItems(checkNotNull(loader).getItems());
+        loader.reload();
+    }
+
     /**
      * Creates a table column for displaying string values.
      * @param title The column header text
@@ -109,6 +126,30 @@ public class TableUtils {
         return column;
     }
 
+    /**
+     * Creates a table column for displaying formatted currency values that
+     * are not a property of the row, e.g. totals looked up elsewhere.
+     * @param title The column header text
+     * @param value Computes the value of a row; may return null
+     * @param <T> The type of the data items
+     * @return A configured TableColumn with currency formatting
+     */
+    public static <T> TableColumn<T, BigDecimal> createFormattedColumn(String title, Function<T, BigDecimal> value) {
+        checkNotNull(title);
+        checkNotNull(value);
+
+        TableColumn<T, BigDecimal> column = new TableColumn<>(title);
+        column.setCellValueFactory(cellData -> new SimpleObjectProperty<>(value.apply(cellData.getValue())));
+        column.setCellFactory(_ -> new TableCell<T, BigDecimal>() {
+            @Override
+            protected void updateItem(BigDecimal item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty || item == null ? null : CURRENCY_FORMAT.get().format(item));
+            }
+        });
+        return column;
+    }
+
     /**
      * Formats a BigDecimal value as currency using the current locale.
      * @param value The value to format
@@ -120,7 +161,9 @@ public class TableUtils {
 
     /**
      * Gets a property value from an object using reflection.
-     * Supports nested properties using dot notation.
+     * Supports nested properties using dot notation. Records are read through
+     * their component accessors (e.g. {@code brand()}), other objects through
+     * getters.
      * @param object The source object
      * @param property The property path (e.g. "category.name")
      * @return The property value
@@ -134,7 +177,9 @@ public class TableUtils {
 
         for (String prop : properties) {
             if (result == null) break;
-            Method method = getMethod(result.getClass(), "get" + CaseFormat.LOWER_CAMEL.to(CaseFormat.UPPER_CAMEL, prop));
+            Class<?> type = result.getClass();
+            Method method = getMethod(type,
+                    type.isRecord() ? prop : "get" + CaseFormat.LOWER_CAMEL.to(CaseFormat.UPPER_CAMEL, prop));
             result = method.invoke(result);
         }
 
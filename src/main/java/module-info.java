@@ -21,10 +21,11 @@ module com.lestarieragemilang.desktop {
     requires com.google.common;
     requires jbcrypt;
     requires com.zaxxer.hikari;
+    requires org.hibernate.orm.hikaricp;
     requires java.prefs;
 
     opens com.lestarieragemilang.desktop to javafx.fxml;
-    opens com.lestarieragemilang.desktop.controller to javafx.fxml;
+    opens com.lestarieragemilang.desktop.controller to javafx.fxml, com.google.common;
     opens com.lestarieragemilang.desktop.controller.report to javafx.fxml;
     opens com.lestarieragemilang.desktop.model to org.hibernate.orm.core, javafx.base;
     opens com.lestarieragemilang.desktop.utils to javafx.graphics;
@@ -0,0 +1,9 @@
+@echo off
+rem Starts the application with the bundled runtime and its AppCDS archive.
+rem The archive is rebuilt automatically if it does not match this runtime.
+cd /d "%~dp0"
+start "" runtime\bin\javaw.exe ^
+    -XX:SharedArchiveFile=lib\app.jsa ^
+    -XX:+AutoCreateSharedArchive ^
+    --enable-native-access=ALL-UNNAMED,javafx.graphics,javafx.web ^
+    -jar lib\${project.build.finalName}.jar %*
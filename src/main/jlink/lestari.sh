@@ -0,0 +1,9 @@
+#!/bin/sh
+# Starts the application with the bundled runtime and its AppCDS archive.
+# The archive is rebuilt automatically if it does not match this runtime.
+cd "$(dirname "$0")" || exit 1
+exec runtime/bin/java \
+    -XX:SharedArchiveFile=lib/app.jsa \
+    -XX:+AutoCreateSharedArchive \
+    --enable-native-access=ALL-UNNAMED,javafx.graphics,javafx.web \
+    -jar lib/${project.build.finalName}.jar "$@"
@@ -0,0 +1,31 @@
+#!/bin/sh
+# Compares launch times of the runtime image with and without the AppCDS
+# archive. Each run is the scripted training session (login, layout, stock
+# screen, fixed settle time, exit), so only the difference is meaningful;
+# the per-stage StartupTimer report of the last run of each mode is shown too.
+#
+#   sh measure-startup.sh [runs]
+cd "$(dirname "$0")" || exit 1
+RUNS=${1:-5}
+
+run() {
+    label=$1
+    shift
+    total=0
+    i=0
+    while [ "$i" -lt "$RUNS" ]; do
+        start=$(date +%s%N)
+        runtime/bin/java "$@" -Dlestari.training=true \
+            --enable-native-access=ALL-UNNAMED,javafx.graphics,javafx.web \
+            -jar lib/${project.build.finalName}.jar > "startup-$label.log" 2>&1
+        end=$(date +%s%N)
+        total=$((total + (end - start) / 1000000))
+        i=$((i + 1))
+    done
+    echo "$label: $((total / RUNS)) ms average over $RUNS runs"
+    sed -n '/Startup timing/,/^[^ ]/p' "startup-$label.log"
+}
+
+run without-cds -Xshare:off
+run default-cds
+run app-cds -XX:SharedArchiveFile=lib/app.jsa
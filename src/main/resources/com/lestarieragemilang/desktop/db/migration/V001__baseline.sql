@@ -0,0 +1,123 @@
+-- Baseline: the schema of database/inventory_management.sql.
+-- Every statement is a no-op on databases created from that dump or kept up
+-- to date by the former hbm2ddl.auto=update, so they are adopted as-is.
+
+CREATE TABLE IF NOT EXISTS `categories` (
+  `id` bigint(20) UNSIGNED NOT NULL AUTO_INCREMENT,
+  `category_id` varchar(255) NOT NULL,
+  `brand` varchar(50) NOT NULL,
+  `product_type` varchar(50) NOT NULL,
+  `size` varchar(20) DEFAULT NULL,
+  `weight` decimal(10,2) DEFAULT NULL,
+  `weight_unit` varchar(20) DEFAULT NULL,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `category_id` (`category_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+CREATE TABLE IF NOT EXISTS `customers` (
+  `id` bigint(20) UNSIGNED NOT NULL AUTO_INCREMENT,
+  `customer_id` varchar(255) NOT NULL,
+  `customer_name` varchar(50) NOT NULL,
+  `contact` varchar(50) NOT NULL,
+  `address` text NOT NULL,
+  `email` varchar(100) NOT NULL,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `customer_id` (`customer_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+CREATE TABLE IF NOT EXISTS `suppliers` (
+  `id` bigint(20) UNSIGNED NOT NULL AUTO_INCREMENT,
+  `supplier_id` varchar(255) NOT NULL,
+  `supplier_name` varchar(50) NOT NULL,
+  `contact` varchar(50) NOT NULL,
+  `address` text NOT NULL,
+  `email` varchar(100) NOT NULL,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `supplier_id` (`supplier_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+CREATE TABLE IF NOT EXISTS `id_sequences` (
+  `name` varchar(40) NOT NULL,
+  `next_value` bigint(20) NOT NULL,
+  PRIMARY KEY (`name`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+CREATE TABLE IF NOT EXISTS `stocks` (
+  `id` bigint(20) UNSIGNED NOT NULL AUTO_INCREMENT,
+  `stock_id` varchar(255) NOT NULL,
+  `category_id` bigint(20) UNSIGNED NOT NULL,
+  `quantity` int(11) NOT NULL,
+  `purchase_price` decimal(10,2) NOT NULL,
+  `selling_price` decimal(10,2) NOT NULL,
+  `version` bigint(20) NOT NULL DEFAULT 0,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `stock_id` (`stock_id`),
+  KEY `category_id` (`category_id`),
+  CONSTRAINT `stocks_ibfk_1` FOREIGN KEY (`category_id`) REFERENCES `categories` (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+CREATE TABLE IF NOT EXISTS `purchasing` (
+  `id` bigint(20) UNSIGNED NOT NULL AUTO_INCREMENT,
+  `purchase_date` date NOT NULL,
+  `invoice_number` varchar(255) NOT NULL,
+  `stock_id` bigint(20) UNSIGNED NOT NULL,
+  `supplier_id` bigint(20) UNSIGNED NOT NULL,
+  `quantity` int(11) NOT NULL,
+  `price` decimal(10,2) NOT NULL,
+  `sub_total` decimal(10,2) NOT NULL,
+  `price_total` decimal(10,2) NOT NULL,
+  `total_price` decimal(10,2) NOT NULL,
+  `brand` varchar(50) NOT NULL,
+  `type` varchar(50) NOT NULL,
+  PRIMARY KEY (`id`),
+  KEY `stock_id` (`stock_id`),
+  KEY `supplier_id` (`supplier_id`),
+  CONSTRAINT `purchasing_ibfk_1` FOREIGN KEY (`stock_id`) REFERENCES `stocks` (`id`),
+  CONSTRAINT `purchasing_ibfk_2` FOREIGN KEY (`supplier_id`) REFERENCES `suppliers` (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+CREATE TABLE IF NOT EXISTS `sales` (
+  `id` bigint(20) UNSIGNED NOT NULL AUTO_INCREMENT,
+  `sale_date` date NOT NULL,
+  `invoice_number` varchar(255) NOT NULL,
+  `stock_id` bigint(20) UNSIGNED NOT NULL,
+  `customer_id` bigint(20) UNSIGNED NOT NULL,
+  `quantity` int(11) NOT NULL,
+  `price` decimal(10,2) NOT NULL,
+  `sub_total` decimal(10,2) NOT NULL,
+  `price_total` decimal(10,2) NOT NULL,
+  `total_price` decimal(10,2) NOT NULL,
+  `brand` varchar(50) NOT NULL,
+  `type` varchar(50) NOT NULL,
+  PRIMARY KEY (`id`),
+  KEY `stock_id` (`stock_id`),
+  KEY `customer_id` (`customer_id`),
+  CONSTRAINT `sales_ibfk_1` FOREIGN KEY (`stock_id`) REFERENCES `stocks` (`id`),
+  CONSTRAINT `sales_ibfk_2` FOREIGN KEY (`customer_id`) REFERENCES `customers` (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+CREATE TABLE IF NOT EXISTS `returns` (
+  `id` bigint(20) UNSIGNED NOT NULL AUTO_INCREMENT,
+  `return_date` date NOT NULL,
+  `return_id` varchar(255) NOT NULL,
+  `return_type` varchar(15) NOT NULL,
+  `invoice_number` varchar(255) NOT NULL,
+  `reason` text NOT NULL,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `return_id` (`return_id`),
+  KEY `invoice_number` (`invoice_number`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+CREATE TABLE IF NOT EXISTS `users` (
+  `id` bigint(20) UNSIGNED NOT NULL AUTO_INCREMENT,
+  `username` varchar(20) NOT NULL,
+  `email` varchar(100) NOT NULL,
+  `name` varchar(50) NOT NULL,
+  `password_hash` varchar(128) NOT NULL,
+  `salt` varchar(32) NOT NULL,
+  `created_at` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  `updated_at` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `username` (`username`),
+  UNIQUE KEY `email` (`email`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
@@ -0,0 +1,9 @@
+-- Indexes for the report date-range filters and the invoice searches.
+-- The foreign key columns and returns.invoice_number are already indexed
+-- by the baseline.
+
+CREATE INDEX `idx_sales_sale_date` ON `sales` (`sale_date`);
+CREATE INDEX `idx_sales_invoice_number` ON `sales` (`invoice_number`);
+CREATE INDEX `idx_purchasing_purchase_date` ON `purchasing` (`purchase_date`);
+CREATE INDEX `idx_purchasing_invoice_number` ON `purchasing` (`invoice_number`);
+CREATE INDEX `idx_returns_return_date` ON `returns` (`return_date`);
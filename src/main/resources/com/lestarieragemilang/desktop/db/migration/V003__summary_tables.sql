@@ -0,0 +1,151 @@
+-- Pre-aggregated sales and purchasing totals, kept up to date by the
+-- invoice confirmation and return flows (see SummaryDao). Returned amounts
+-- are booked on the date, stock, customer or supplier of the original line.
+-- The tables can be recomputed from the detail rows with --rebuild-summaries.
+
+CREATE TABLE IF NOT EXISTS `daily_stock_summary` (
+  `summary_date` date NOT NULL,
+  `stock_id` bigint(20) UNSIGNED NOT NULL,
+  `sold_lines` int(11) NOT NULL DEFAULT 0,
+  `sold_quantity` bigint(20) NOT NULL DEFAULT 0,
+  `sales_amount` decimal(14,2) NOT NULL DEFAULT 0,
+  `returned_sales_quantity` bigint(20) NOT NULL DEFAULT 0,
+  `returned_sales_amount` decimal(14,2) NOT NULL DEFAULT 0,
+  `purchased_lines` int(11) NOT NULL DEFAULT 0,
+  `purchased_quantity` bigint(20) NOT NULL DEFAULT 0,
+  `purchase_amount` decimal(14,2) NOT NULL DEFAULT 0,
+  `returned_purchase_quantity` bigint(20) NOT NULL DEFAULT 0,
+  `returned_purchase_amount` decimal(14,2) NOT NULL DEFAULT 0,
+  PRIMARY KEY (`summary_date`, `stock_id`),
+  KEY `idx_daily_stock_summary_stock` (`stock_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+CREATE TABLE IF NOT EXISTS `daily_customer_summary` (
+  `summary_date` date NOT NULL,
+  `customer_id` bigint(20) UNSIGNED NOT NULL,
+  `line_count` int(11) NOT NULL DEFAULT 0,
+  `quantity` bigint(20) NOT NULL DEFAULT 0,
+  `amount` decimal(14,2) NOT NULL DEFAULT 0,
+  `returned_quantity` bigint(20) NOT NULL DEFAULT 0,
+  `returned_amount` decimal(14,2) NOT NULL DEFAULT 0,
+  PRIMARY KEY (`summary_date`, `customer_id`),
+  KEY `idx_daily_customer_summary_customer` (`customer_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+CREATE TABLE IF NOT EXISTS `monthly_supplier_summary` (
+  `summary_month` date NOT NULL,
+  `supplier_id` bigint(20) UNSIGNED NOT NULL,
+  `line_count` int(11) NOT NULL DEFAULT 0,
+  `quantity` bigint(20) NOT NULL DEFAULT 0,
+  `amount` decimal(14,2) NOT NULL DEFAULT 0,
+  `returned_quantity` bigint(20) NOT NULL DEFAULT 0,
+  `returned_amount` decimal(14,2) NOT NULL DEFAULT 0,
+  PRIMARY KEY (`summary_month`, `supplier_id`),
+  KEY `idx_monthly_supplier_summary_supplier` (`supplier_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+-- Backfill from the existing detail rows (same statements as SummaryDao.rebuild)
+
+INSERT INTO `daily_stock_summary` (summary_date, stock_id, sold_lines, sold_quantity, sales_amount)
+SELECT * FROM (
+  SELECT l.sale_date AS period,
+         l.stock_id AS owner,
+         COUNT(*) AS sold_lines,
+         SUM(l.quantity) AS sold_quantity,
+         SUM(l.sub_total) AS sales_amount
+  FROM sales l
+  GROUP BY period, owner
+) AS delta
+ON DUPLICATE KEY UPDATE sold_lines = daily_stock_summary.sold_lines + delta.sold_lines,
+  sold_quantity = daily_stock_summary.sold_quantity + delta.sold_quantity,
+  sales_amount = daily_stock_summary.sales_amount + delta.sales_amount;
+
+INSERT INTO `daily_customer_summary` (summary_date, customer_id, line_count, quantity, amount)
+SELECT * FROM (
+  SELECT l.sale_date AS period,
+         l.customer_id AS owner,
+         COUNT(*) AS line_count,
+         SUM(l.quantity) AS quantity,
+         SUM(l.sub_total) AS amount
+  FROM sales l
+  GROUP BY period, owner
+) AS delta
+ON DUPLICATE KEY UPDATE line_count = daily_customer_summary.line_count + delta.line_count,
+  quantity = daily_customer_summary.quantity + delta.quantity,
+  amount = daily_customer_summary.amount + delta.amount;
+
+INSERT INTO `daily_stock_summary` (summary_date, stock_id, purchased_lines, purchased_quantity, purchase_amount)
+SELECT * FROM (
+  SELECT l.purchase_date AS period,
+         l.stock_id AS owner,
+         COUNT(*) AS purchased_lines,
+         SUM(l.quantity) AS purchased_quantity,
+         SUM(l.sub_total) AS purchase_amount
+  FROM purchasing l
+  GROUP BY period, owner
+) AS delta
+ON DUPLICATE KEY UPDATE purchased_lines = daily_stock_summary.purchased_lines + delta.purchased_lines,
+  purchased_quantity = daily_stock_summary.purchased_quantity + delta.purchased_quantity,
+  purchase_amount = daily_stock_summary.purchase_amount + delta.purchase_amount;
+
+INSERT INTO `monthly_supplier_summary` (summary_month, supplier_id, line_count, quantity, amount)
+SELECT * FROM (
+  SELECT l.purchase_date - INTERVAL (DAYOFMONTH(l.purchase_date) - 1) DAY AS period,
+         l.supplier_id AS owner,
+         COUNT(*) AS line_count,
+         SUM(l.quantity) AS quantity,
+         SUM(l.sub_total) AS amount
+  FROM purchasing l
+  GROUP BY period, owner
+) AS delta
+ON DUPLICATE KEY UPDATE line_count = monthly_supplier_summary.line_count + delta.line_count,
+  quantity = monthly_supplier_summary.quantity + delta.quantity,
+  amount = monthly_supplier_summary.amount + delta.amount;
+
+INSERT INTO `daily_stock_summary` (summary_date, stock_id, returned_sales_quantity, returned_sales_amount)
+SELECT * FROM (
+  SELECT l.sale_date AS period,
+         l.stock_id AS owner,
+         SUM(l.quantity) AS returned_sales_quantity,
+         SUM(l.sub_total) AS returned_sales_amount
+  FROM returns r JOIN sales l ON l.invoice_number = r.invoice_number WHERE r.return_type = 'Jual'
+  GROUP BY period, owner
+) AS delta
+ON DUPLICATE KEY UPDATE returned_sales_quantity = daily_stock_summary.returned_sales_quantity + delta.returned_sales_quantity,
+  returned_sales_amount = daily_stock_summary.returned_sales_amount + delta.returned_sales_amount;
+
+INSERT INTO `daily_customer_summary` (summary_date, customer_id, returned_quantity, returned_amount)
+SELECT * FROM (
+  SELECT l.sale_date AS period,
+         l.customer_id AS owner,
+         SUM(l.quantity) AS returned_quantity,
+         SUM(l.sub_total) AS returned_amount
+  FROM returns r JOIN sales l ON l.invoice_number = r.invoice_number WHERE r.return_type = 'Jual'
+  GROUP BY period, owner
+) AS delta
+ON DUPLICATE KEY UPDATE returned_quantity = daily_customer_summary.returned_quantity + delta.returned_quantity,
+  returned_amount = daily_customer_summary.returned_amount + delta.returned_amount;
+
+INSERT INTO `daily_stock_summary` (summary_date, stock_id, returned_purchase_quantity, returned_purchase_amount)
+SELECT * FROM (
+  SELECT l.purchase_date AS period,
+         l.stock_id AS owner,
+         SUM(l.quantity) AS returned_purchase_quantity,
+         SUM(l.sub_total) AS returned_purchase_amount
+  FROM returns r JOIN purchasing l ON l.invoice_number = r.invoice_number WHERE r.return_type = 'Beli'
+  GROUP BY period, owner
+) AS delta
+ON DUPLICATE KEY UPDATE returned_purchase_quantity = daily_stock_summary.returned_purchase_quantity + delta.returned_purchase_quantity,
+  returned_purchase_amount = daily_stock_summary.returned_purchase_amount + delta.returned_purchase_amount;
+
+INSERT INTO `monthly_supplier_summary` (summary_month, supplier_id, returned_quantity, returned_amount)
+SELECT * FROM (
+  SELECT l.purchase_date - INTERVAL (DAYOFMONTH(l.purchase_date) - 1) DAY AS period,
+         l.supplier_id AS owner,
+         SUM(l.quantity) AS returned_quantity,
+         SUM(l.sub_total) AS returned_amount
+  FROM returns r JOIN purchasing l ON l.invoice_number = r.invoice_number WHERE r.return_type = 'Beli'
+  GROUP BY period, owner
+) AS delta
+ON DUPLICATE KEY UPDATE returned_quantity = monthly_supplier_summary.returned_quantity + delta.returned_quantity,
+  returned_amount = monthly_supplier_summary.returned_amount + delta.returned_amount;
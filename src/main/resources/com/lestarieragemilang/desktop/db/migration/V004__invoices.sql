@@ -0,0 +1,133 @@
+-- Invoice headers and lines. The sales and purchasing tables stored one row
+-- per line and repeated the invoice number, date, party, brand, type and
+-- totals on every row. They are replaced by an invoices header table with
+-- invoice_lines children, which keep the brand and type as sold; sales and
+-- purchasing remain as views with the old columns, so the Jasper reports,
+-- the report screens and the summary rollups read them unchanged.
+
+CREATE TABLE IF NOT EXISTS `invoices` (
+  `id` bigint(20) UNSIGNED NOT NULL AUTO_INCREMENT,
+  `invoice_number` varchar(255) NOT NULL,
+  `invoice_type` varchar(10) NOT NULL,
+  `invoice_date` date NOT NULL,
+  `customer_id` bigint(20) UNSIGNED DEFAULT NULL,
+  `supplier_id` bigint(20) UNSIGNED DEFAULT NULL,
+  `line_count` int(11) NOT NULL DEFAULT 0,
+  `total_amount` decimal(14,2) NOT NULL DEFAULT 0,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_invoices_number` (`invoice_number`, `invoice_type`),
+  KEY `idx_invoices_type_date` (`invoice_type`, `invoice_date`),
+  KEY `customer_id` (`customer_id`),
+  KEY `supplier_id` (`supplier_id`),
+  CONSTRAINT `invoices_ibfk_1` FOREIGN KEY (`customer_id`) REFERENCES `customers` (`id`),
+  CONSTRAINT `invoices_ibfk_2` FOREIGN KEY (`supplier_id`) REFERENCES `suppliers` (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+CREATE TABLE IF NOT EXISTS `invoice_lines` (
+  `id` bigint(20) UNSIGNED NOT NULL AUTO_INCREMENT,
+  `invoice_id` bigint(20) UNSIGNED NOT NULL,
+  `stock_id` bigint(20) UNSIGNED NOT NULL,
+  `quantity` int(11) NOT NULL,
+  `price` decimal(10,2) NOT NULL,
+  `sub_total` decimal(10,2) NOT NULL,
+  `brand` varchar(50) NOT NULL,
+  `product_type` varchar(50) NOT NULL,
+  PRIMARY KEY (`id`),
+  KEY `invoice_id` (`invoice_id`),
+  KEY `stock_id` (`stock_id`),
+  CONSTRAINT `invoice_lines_ibfk_1` FOREIGN KEY (`invoice_id`) REFERENCES `invoices` (`id`),
+  CONSTRAINT `invoice_lines_ibfk_2` FOREIGN KEY (`stock_id`) REFERENCES `stocks` (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+-- One header per invoice number, date and party. Older rows were not forced
+-- to agree on the date and party of an invoice; such an invoice is split
+-- rather than merged into the wrong header. The part holding the lowest line
+-- id keeps the number, later parts get "/2", "/3" and so on. Returns keep
+-- pointing at the unsuffixed number. Should a suffixed number already exist,
+-- the unique key fails the migration instead of merging two invoices.
+
+CREATE TEMPORARY TABLE `legacy_sale_headers` AS
+SELECT invoice_number, sale_date, customer_id, COUNT(*) AS line_count, SUM(sub_total) AS total_amount,
+       ROW_NUMBER() OVER (PARTITION BY invoice_number ORDER BY MIN(id)) AS part
+FROM sales
+GROUP BY invoice_number, sale_date, customer_id;
+
+CREATE TEMPORARY TABLE `legacy_purchase_headers` AS
+SELECT invoice_number, purchase_date, supplier_id, COUNT(*) AS line_count, SUM(sub_total) AS total_amount,
+       ROW_NUMBER() OVER (PARTITION BY invoice_number ORDER BY MIN(id)) AS part
+FROM purchasing
+GROUP BY invoice_number, purchase_date, supplier_id;
+
+INSERT INTO `invoices` (invoice_number, invoice_type, invoice_date, customer_id, line_count, total_amount)
+SELECT IF(part = 1, invoice_number, CONCAT(invoice_number, '/', part)), 'SALE', sale_date, customer_id,
+       line_count, total_amount
+FROM legacy_sale_headers;
+
+INSERT INTO `invoices` (invoice_number, invoice_type, invoice_date, supplier_id, line_count, total_amount)
+SELECT IF(part = 1, invoice_number, CONCAT(invoice_number, '/', part)), 'PURCHASE', purchase_date, supplier_id,
+       line_count, total_amount
+FROM legacy_purchase_headers;
+
+-- Brand and type are copied as they were sold, not looked up from the
+-- stock's current category.
+
+INSERT INTO `invoice_lines` (invoice_id, stock_id, quantity, price, sub_total, brand, product_type)
+SELECT i.id, l.stock_id, l.quantity, l.price, l.sub_total, l.brand, l.type
+FROM sales l
+  JOIN legacy_sale_headers h ON h.invoice_number = l.invoice_number AND h.sale_date = l.sale_date
+    AND h.customer_id = l.customer_id
+  JOIN invoices i ON i.invoice_type = 'SALE'
+    AND i.invoice_number = IF(h.part = 1, h.invoice_number, CONCAT(h.invoice_number, '/', h.part))
+ORDER BY l.id;
+
+INSERT INTO `invoice_lines` (invoice_id, stock_id, quantity, price, sub_total, brand, product_type)
+SELECT i.id, l.stock_id, l.quantity, l.price, l.sub_total, l.brand, l.type
+FROM purchasing l
+  JOIN legacy_purchase_headers h ON h.invoice_number = l.invoice_number AND h.purchase_date = l.purchase_date
+    AND h.supplier_id = l.supplier_id
+  JOIN invoices i ON i.invoice_type = 'PURCHASE'
+    AND i.invoice_number = IF(h.part = 1, h.invoice_number, CONCAT(h.invoice_number, '/', h.part))
+ORDER BY l.id;
+
+DROP TEMPORARY TABLE `legacy_sale_headers`;
+DROP TEMPORARY TABLE `legacy_purchase_headers`;
+
+DROP TABLE `sales`;
+DROP TABLE `purchasing`;
+
+-- Read-only line views in the shape of the old tables. price_total and
+-- total_price were always equal to sub_total.
+
+CREATE VIEW `sales` AS
+SELECT l.id,
+       i.invoice_date AS sale_date,
+       i.invoice_number,
+       l.stock_id,
+       i.customer_id,
+       l.quantity,
+       l.price,
+       l.sub_total,
+       l.sub_total AS price_total,
+       l.sub_total AS total_price,
+       l.brand,
+       l.product_type AS type
+FROM invoice_lines l
+  JOIN invoices i ON i.id = l.invoice_id
+WHERE i.invoice_type = 'SALE';
+
+CREATE VIEW `purchasing` AS
+SELECT l.id,
+       i.invoice_date AS purchase_date,
+       i.invoice_number,
+       l.stock_id,
+       i.supplier_id,
+       l.quantity,
+       l.price,
+       l.sub_total,
+       l.sub_total AS price_total,
+       l.sub_total AS total_price,
+       l.brand,
+       l.product_type AS type
+FROM invoice_lines l
+  JOIN invoices i ON i.id = l.invoice_id
+WHERE i.invoice_type = 'PURCHASE';
@@ -0,0 +1,14 @@
+-- Feed of committed writes, polled by every running terminal (see
+-- ChangeLogDao and ChangeFeed) to refresh caches and open tables after
+-- changes made elsewhere. Rows are purged after a day.
+
+CREATE TABLE IF NOT EXISTS `change_log` (
+  `seq` bigint(20) UNSIGNED NOT NULL AUTO_INCREMENT,
+  `entity` varchar(40) NOT NULL,
+  `entity_id` bigint(20) UNSIGNED DEFAULT NULL,
+  `operation` varchar(10) NOT NULL,
+  `origin` varchar(36) NOT NULL,
+  `changed_at` timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (`seq`),
+  KEY `idx_change_log_changed_at` (`changed_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
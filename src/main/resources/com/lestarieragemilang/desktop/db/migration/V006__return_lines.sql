@@ -0,0 +1,20 @@
+-- A return now names the invoice line it gives back and the quantity.
+-- Until now every return booked all lines of its invoice on the summaries,
+-- once per return, so two returns of one item counted the whole invoice
+-- twice. Older returns have no line or quantity: they stay on record but are
+-- not summed, so the returned totals are cleared here. New returns are
+-- booked as quantity x line price (see SummaryDao).
+
+ALTER TABLE `returns`
+  ADD COLUMN `invoice_line_id` bigint(20) UNSIGNED DEFAULT NULL AFTER `invoice_number`,
+  ADD COLUMN `quantity` int(11) DEFAULT NULL AFTER `invoice_line_id`,
+  ADD KEY `invoice_line_id` (`invoice_line_id`),
+  ADD CONSTRAINT `returns_ibfk_1` FOREIGN KEY (`invoice_line_id`) REFERENCES `invoice_lines` (`id`);
+
+UPDATE `daily_stock_summary`
+SET returned_sales_quantity = 0, returned_sales_amount = 0,
+    returned_purchase_quantity = 0, returned_purchase_amount = 0;
+
+UPDATE `daily_customer_summary` SET returned_quantity = 0, returned_amount = 0;
+
+UPDATE `monthly_supplier_summary` SET returned_quantity = 0, returned_amount = 0;
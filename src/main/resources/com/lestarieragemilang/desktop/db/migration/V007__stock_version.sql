@@ -0,0 +1,15 @@
+-- The optimistic lock column of stocks. V001 declares it, but V001 only
+-- creates missing tables, and the stocks table of a database loaded from the
+-- original dump predates the column. Added here where it is missing; the
+-- check goes through information_schema because MySQL has no
+-- ADD COLUMN IF NOT EXISTS (MariaDB does).
+
+SET @add_stock_version = IF(
+  (SELECT COUNT(*) FROM information_schema.columns
+   WHERE table_schema = DATABASE() AND table_name = 'stocks' AND column_name = 'version') = 0,
+  'ALTER TABLE `stocks` ADD COLUMN `version` bigint(20) NOT NULL DEFAULT 0',
+  'DO 0');
+
+PREPARE add_stock_version FROM @add_stock_version;
+EXECUTE add_stock_version;
+DEALLOCATE PREPARE add_stock_version;
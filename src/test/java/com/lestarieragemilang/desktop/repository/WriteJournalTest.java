@@ -0,0 +1,101 @@
+package com.lestarieragemilang.desktop.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.lestarieragemilang.desktop.model.Customer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WriteJournalTest {
+    private static final Duration REPLAY_TIMEOUT = Duration.ofSeconds(5);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void tornTailIsCutAndLaterEntriesReplay() throws IOException {
+        WriteJournal journal = new WriteJournal(directory);
+        journal.append(WriteJournal.Operation.SAVE, customer("CUS-001"));
+        journal.append(WriteJournal.Operation.SAVE, customer("CUS-002"));
+        // A header announcing more payload than was written, as after a power cut
+        appendToJournal(ByteBuffer.allocate(12).putInt(100).putInt(0).putInt(42).array());
+
+        WriteJournal reopened = new WriteJournal(directory);
+        assertEquals(2, reopened.pendingCount());
+        assertTrue(Files.exists(directory.resolve("offline-journal.corrupt")));
+
+        reopened.append(WriteJournal.Operation.SAVE, customer("CUS-003"));
+        List<String> replayed = new ArrayList<>();
+        WriteJournal.ReplayResult result = assertTimeoutPreemptively(REPLAY_TIMEOUT,
+                () -> reopened.replay(entry -> record(replayed, entry)));
+
+        assertEquals(List.of("CUS-001", "CUS-002", "CUS-003"), replayed);
+        assertEquals(3, result.applied());
+        assertFalse(reopened.hasPending());
+        assertFalse(Files.exists(directory.resolve("offline-journal.bin")));
+    }
+
+    @Test
+    void entryWithBadChecksumIsCut() throws IOException {
+        WriteJournal journal = new WriteJournal(directory);
+        journal.append(WriteJournal.Operation.SAVE, customer("CUS-001"));
+        journal.append(WriteJournal.Operation.SAVE, customer("CUS-002"));
+        Path file = directory.resolve("offline-journal.bin");
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 1] ^= 0x01;
+        Files.write(file, bytes);
+
+        WriteJournal reopened = new WriteJournal(directory);
+        assertEquals(1, reopened.pendingCount());
+
+        reopened.append(WriteJournal.Operation.SAVE, customer("CUS-003"));
+        List<String> replayed = new ArrayList<>();
+        assertTimeoutPreemptively(REPLAY_TIMEOUT, () -> reopened.replay(entry -> record(replayed, entry)));
+
+        assertEquals(List.of("CUS-001", "CUS-003"), replayed);
+    }
+
+    @Test
+    void replayFailsInsteadOfWaitingOnUnreadableEntry() throws IOException {
+        WriteJournal journal = new WriteJournal(directory);
+        journal.append(WriteJournal.Operation.SAVE, customer("CUS-001"));
+        // Corrupted behind the open journal's back
+        appendToJournal(ByteBuffer.allocate(12).putInt(-1).putInt(0).putInt(0).array());
+        journal.append(WriteJournal.Operation.SAVE, customer("CUS-002"));
+
+        List<String> replayed = new ArrayList<>();
+        assertTimeoutPreemptively(REPLAY_TIMEOUT, () -> assertThrows(IllegalStateException.class,
+                () -> journal.replay(entry -> record(replayed, entry))));
+        assertEquals(List.of("CUS-001"), replayed);
+    }
+
+    private void appendToJournal(byte[] bytes) throws IOException {
+        Files.write(directory.resolve("offline-journal.bin"), bytes, StandardOpenOption.APPEND);
+    }
+
+    private static String record(List<String> replayed, WriteJournal.Entry entry) {
+        replayed.add((String) entry.snapshot().values().get("customerId"));
+        return null;
+    }
+
+    private static Customer customer(String customerId) {
+        Customer customer = new Customer();
+        customer.setCustomerId(customerId);
+        customer.setCustomerName("Pelanggan " + customerId);
+        return customer;
+    }
+}